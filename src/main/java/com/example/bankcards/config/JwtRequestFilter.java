@@ -2,17 +2,22 @@ package com.example.bankcards.config;
 
 import com.example.bankcards.security.service.MyUserDetailsService;
 import com.example.bankcards.security.service.jwt.JwtService;
+import com.example.bankcards.security.service.jwt.UserVersionDenylist;
+import com.example.bankcards.util.HotPathMetrics;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -20,6 +25,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
@@ -27,10 +34,17 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final MyUserDetailsService myUserDetailsService;
+    private final UserVersionDenylist userVersionDenylist;
+    private final boolean statelessEnabled;
 
-    public JwtRequestFilter(JwtService jwtService, MyUserDetailsService myUserDetailsService) {
+    public JwtRequestFilter(JwtService jwtService,
+                            MyUserDetailsService myUserDetailsService,
+                            UserVersionDenylist userVersionDenylist,
+                            @Value("${jwt.stateless.enabled:false}") boolean statelessEnabled) {
         this.jwtService = jwtService;
         this.myUserDetailsService = myUserDetailsService;
+        this.userVersionDenylist = userVersionDenylist;
+        this.statelessEnabled = statelessEnabled;
     }
 
     @Override
@@ -40,15 +54,15 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         String token = extractJwtFromHeader(request);
 
         if (token != null) {
-            logger.info("JWT token found in request header");
+            logger.debug("JWT token found in request header");
         } else {
             logger.debug("No JWT token found in request header");
         }
 
         if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                authenticateUser(token, request);
-                logger.info("User authenticated successfully: {}", jwtService.extractUsername(token));
+                String username = authenticateUser(token, request);
+                logger.debug("User authenticated successfully: {}", username);
             } catch (UsernameNotFoundException e) {
                 logger.error("User not found: {}", e.getMessage());
                 response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
@@ -83,14 +97,25 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         return null;
     }
 
-    private void authenticateUser(String token, HttpServletRequest request) {
-        String username = jwtService.extractUsername(token);
+    private String authenticateUser(String token, HttpServletRequest request) {
+        long start = System.nanoTime();
+        Claims claims = jwtService.parseAccessToken(token);
+        long parsed = System.nanoTime();
+        HotPathMetrics.JWT_PARSE.record(parsed - start, TimeUnit.NANOSECONDS);
+        String username = claims.getSubject();
         logger.debug("Extracted username from token: {}", username);
 
-        UserDetails userDetails = myUserDetailsService.loadUserByUsername(username);
-        logger.debug("Loaded UserDetails for username: {}", username);
+        UserDetails userDetails;
+        if (statelessEnabled && claims.containsKey(JwtService.TOKEN_VERSION_CLAIM)) {
+            userDetails = userDetailsFromClaims(claims);
+            logger.debug("Built UserDetails from token claims for username: {}", username);
+        } else {
+            userDetails = myUserDetailsService.loadUserByUsername(username);
+            logger.debug("Loaded UserDetails for username: {}", username);
+        }
+        HotPathMetrics.JWT_USER_LOAD.record(System.nanoTime() - parsed, TimeUnit.NANOSECONDS);
 
-        if (!jwtService.validateAccessToken(token, userDetails)) {
+        if (!username.equals(userDetails.getUsername())) {
             logger.warn("JWT token validation failed for user: {}", username);
             throw new BadCredentialsException("Invalid JWT token");
         }
@@ -103,6 +128,23 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         logger.debug("Authentication set in SecurityContextHolder for user: {}", username);
 
         request.setAttribute("jwtToken", token);
+        return username;
+    }
+
+    private UserDetails userDetailsFromClaims(Claims claims) {
+        Long userId = claims.get(JwtService.USER_ID_CLAIM, Long.class);
+        Long tokenVersion = claims.get(JwtService.TOKEN_VERSION_CLAIM, Long.class);
+
+        if (userId == null || tokenVersion == null || userVersionDenylist.isRevoked(userId, tokenVersion)) {
+            logger.warn("Revoked JWT token presented for user: {}", claims.getSubject());
+            throw new BadCredentialsException("Token has been revoked");
+        }
+
+        List<?> roles = claims.get(JwtService.ROLES_CLAIM, List.class);
+        return User.withUsername(claims.getSubject())
+                .password("")
+                .authorities(roles == null ? new String[0] : roles.stream().map(String::valueOf).toArray(String[]::new))
+                .build();
     }
 }
 
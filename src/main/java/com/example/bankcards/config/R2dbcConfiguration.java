@@ -0,0 +1,50 @@
+package com.example.bankcards.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC access for the reactive read API.
+ * <p>
+ * The pool is kept here instead of being published as a {@code ConnectionFactory} bean: Boot treats such a bean
+ * as a reactive-only application and stops configuring the JDBC {@code DataSource} that JPA and Liquibase use.
+ * Only the {@link DatabaseClient} is a bean; reads through it run without a transaction.
+ */
+@Configuration
+public class R2dbcConfiguration implements DisposableBean {
+
+    private final ConnectionPool connectionPool;
+
+    public R2dbcConfiguration(@Value("${r2dbc.url}") String url,
+                              @Value("${r2dbc.username}") String username,
+                              @Value("${r2dbc.password}") String password,
+                              @Value("${r2dbc.pool.initial-size:2}") int initialSize,
+                              @Value("${r2dbc.pool.max-size:10}") int maxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("r2dbc-card-reads")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.bankcards.config;
 
 import com.example.bankcards.config.JwtRequestFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -37,10 +42,35 @@ public class SecurityConfiguration {
         return configuration.getAuthenticationManager();
     }
 
+    /**
+     * Actuator endpoints need no token on {@code management.server.port}, which is kept off the public network.
+     * Served on the application port instead, they are closed.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorSecurityFilterChain(HttpSecurity http, Environment environment) throws Exception {
+        boolean separatePort = ManagementPortType.get(environment) == ManagementPortType.DIFFERENT;
+        return http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .authorizeHttpRequests(auth -> {
+                    if (separatePort) {
+                        auth.anyRequest().permitAll();
+                    } else {
+                        auth.anyRequest().denyAll();
+                    }
+                })
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .csrf(CsrfConfigurer::disable)
+                .build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http, CorsConfigurationSource corsConfigurationSource) throws Exception {
         return http
-                .authorizeHttpRequests(auth->auth.requestMatchers(
+                // an async dispatch only writes the result of a request that was authorized on its first dispatch;
+                // the JWT filter does not run again, so it would otherwise be rejected as anonymous
+                .authorizeHttpRequests(auth->auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers(
                                 "/auth/**",
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
@@ -0,0 +1,92 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.exception.card.CardNotFoundException;
+import com.example.bankcards.exception.card.InsufficientFundsException;
+import com.example.bankcards.exception.card.InvalidCardStateException;
+import com.example.bankcards.exception.user.UserAlreadyExist;
+import com.example.bankcards.service.card.CardService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call to {@code CardService} and {@code UserService} as {@code bank.service} tagged with the
+ * service, the method and the business {@code outcome}, so a latency spike can be told apart from a burst of
+ * rejected transfers. The call count per outcome doubles as the error counter.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+    static final String TIMER = "bank.service";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.example.bankcards.service.card.CardService+.*(..))"
+            + " || execution(public * com.example.bankcards.service.user.UserService+.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            String service = joinPoint.getTarget() instanceof CardService ? "CardService" : "UserService";
+            timer(service, joinPoint.getSignature().getName(), outcome)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    static String outcome(Throwable e) {
+        if (e instanceof InsufficientFundsException) {
+            return "insufficient_funds";
+        }
+        if (e instanceof InvalidCardStateException) {
+            return "invalid_state";
+        }
+        if (e instanceof AccessDeniedException) {
+            return "access_denied";
+        }
+        if (e instanceof CardNotFoundException || e instanceof UsernameNotFoundException) {
+            return "not_found";
+        }
+        if (e instanceof AuthenticationException) {
+            return "unauthenticated";
+        }
+        if (e instanceof UserAlreadyExist) {
+            return "conflict";
+        }
+        if (e instanceof IllegalArgumentException) {
+            return "invalid_request";
+        }
+        return "error";
+    }
+
+    private Timer timer(String service, String method, String outcome) {
+        return timers.computeIfAbsent(new TimerKey(service, method, outcome), key -> Timer.builder(TIMER)
+                .description("Card and user service calls")
+                .tag("service", key.service())
+                .tag("method", key.method())
+                .tag("outcome", key.outcome())
+                .register(meterRegistry));
+    }
+
+    private record TimerKey(String service, String method, String outcome) {
+    }
+}
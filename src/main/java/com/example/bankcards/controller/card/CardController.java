@@ -1,12 +1,21 @@
 package com.example.bankcards.controller.card;
 
+import com.example.bankcards.dto.request.transfer.BatchTransferRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @CrossOrigin
 @RequestMapping("/api/v1/card")
@@ -19,15 +28,43 @@ public interface CardController {
             @AuthenticationPrincipal UserDetails userDetails
     );
 
+    @GetMapping("/my/scroll")
+    ResponseEntity<?> scrollMyCards(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") int limit,
+            @RequestParam(required = false, defaultValue = "false") boolean withCount,
+            @AuthenticationPrincipal UserDetails userDetails
+    );
+
     @GetMapping("/block-requests")
     @PreAuthorize("hasRole('ADMIN')")
     ResponseEntity<?> getBlockRequests(@RequestParam(required = false, defaultValue = "10") int limit,
                                        @RequestParam(required = false, defaultValue = "0") int pageNumber);
 
+    @GetMapping("/block-requests/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    ResponseEntity<?> scrollBlockRequests(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false, defaultValue = "10") int limit,
+                                          @RequestParam(required = false, defaultValue = "false") boolean withCount);
+
     @GetMapping("/balance/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     ResponseEntity<?> getBalance(@PathVariable Long id);
 
+    @GetMapping("/{id}/balance/stream")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    SseEmitter streamBalance(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails);
+
+    @GetMapping("/{id}/statement")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    ResponseEntity<?> getStatement(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "50") int limit
+    );
+
     @PatchMapping("/toggle/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     ResponseEntity<?> toggleCardState(@PathVariable Long id);
@@ -44,9 +81,14 @@ public interface CardController {
     ResponseEntity<?> transferMoney(
             @RequestParam Long fromCardId,
             @RequestParam Long toCardId,
-            @RequestParam BigDecimal amount
+            @RequestParam BigDecimal amount,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
     );
 
+    @PostMapping("/transfers/batch")
+    @PreAuthorize("hasRole('USER')")
+    ResponseEntity<?> transferBatch(@RequestBody BatchTransferRequest request);
+
     @GetMapping("/search/by-number/{cardNumber}")
     ResponseEntity<?> getCardByNumber(@PathVariable String cardNumber);
 
@@ -57,6 +99,14 @@ public interface CardController {
     @PreAuthorize("hasRole('ADMIN')")
     ResponseEntity<?> createCard(@RequestParam String ownerName);
 
+    @PostMapping("/create/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    ResponseEntity<StreamingResponseBody> createCards(@RequestParam String ownerName, @RequestParam int count);
+
+    @PostMapping(value = "/create/bulk/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    ResponseEntity<StreamingResponseBody> createCardsFromCsv(@RequestParam("file") MultipartFile file) throws IOException;
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     ResponseEntity<?> deleteCard(@PathVariable Long id);
@@ -68,16 +118,33 @@ public interface CardController {
             @RequestParam(required = false, defaultValue = "0") int pageNumber
     );
 
+    @GetMapping("/all/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    ResponseEntity<?> scrollAllCards(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") int limit,
+            @RequestParam(required = false, defaultValue = "false") boolean withCount
+    );
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    ResponseEntity<StreamingResponseBody> exportCards(
+            @RequestParam(required = false, defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    );
+
     @PostMapping("/add-money")
     ResponseEntity<?> addMoney(
             @RequestParam Long cardId,
-            @RequestParam BigDecimal amount
+            @RequestParam BigDecimal amount,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
     );
 
     @PostMapping("/withdraw-money")
     ResponseEntity<?> withdrawMoney(
             @RequestParam Long cardId,
-            @RequestParam BigDecimal amount
+            @RequestParam BigDecimal amount,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
     );
 }
 
@@ -1,25 +1,71 @@
 package com.example.bankcards.controller.card;
 
 
+import com.example.bankcards.dto.request.export.CardExportFormat;
+import com.example.bankcards.dto.request.issuance.IssuanceOrder;
+import com.example.bankcards.dto.request.transfer.BatchTransferRequest;
 import com.example.bankcards.dto.response.card.CardDtoResponse;
+import com.example.bankcards.dto.response.card.issuance.CardIssuanceEvent;
 import com.example.bankcards.dto.response.card.pagination.card.CardDtoForSearchResponse;
 import com.example.bankcards.dto.response.card.pagination.card.CardPageResponse;
+import com.example.bankcards.dto.response.card.pagination.card.CardSliceResponse;
+import com.example.bankcards.dto.response.card.statement.StatementResponse;
+import com.example.bankcards.dto.response.card.transfer.BatchTransferResponse;
+import com.example.bankcards.service.card.BalanceStreamHub;
+import com.example.bankcards.service.card.CardExportService;
+import com.example.bankcards.service.card.CardIssuanceService;
 import com.example.bankcards.service.card.CardService;
+import com.example.bankcards.service.idempotency.IdempotencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.ContentDisposition;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 public class CardControllerImpl implements CardController {
 
+    private static final Logger log = LoggerFactory.getLogger(CardControllerImpl.class);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final CardService cardService;
+    private final IdempotencyService idempotencyService;
+    private final CardIssuanceService cardIssuanceService;
+    private final CardExportService cardExportService;
+    private final BalanceStreamHub balanceStreamHub;
+    private final ObjectMapper objectMapper;
 
-    public CardControllerImpl(CardService cardService) {
+    public CardControllerImpl(CardService cardService, IdempotencyService idempotencyService,
+                              CardIssuanceService cardIssuanceService, CardExportService cardExportService,
+                              BalanceStreamHub balanceStreamHub, ObjectMapper objectMapper) {
         this.cardService = cardService;
+        this.idempotencyService = idempotencyService;
+        this.cardIssuanceService = cardIssuanceService;
+        this.cardExportService = cardExportService;
+        this.balanceStreamHub = balanceStreamHub;
+        this.objectMapper = objectMapper;
     }
 
     @Override
@@ -28,17 +74,43 @@ public class CardControllerImpl implements CardController {
         return ResponseEntity.ok(response);
     }
 
+    @Override
+    public ResponseEntity<?> scrollMyCards(String cursor, int limit, boolean withCount, @AuthenticationPrincipal UserDetails userDetails) {
+        CardSliceResponse response = cardService.scrollUserCards(userDetails.getUsername(), cursor, limit, withCount);
+        return ResponseEntity.ok(response);
+    }
+
     @Override
     public ResponseEntity<?> getBlockRequests(int limit, int pageNumber) {
         return ResponseEntity.ok(cardService.getBlockRequests(limit, pageNumber));
     }
 
+    @Override
+    public ResponseEntity<?> scrollBlockRequests(String cursor, int limit, boolean withCount) {
+        return ResponseEntity.ok(cardService.scrollBlockRequests(cursor, limit, withCount));
+    }
+
     @Override
     public ResponseEntity<?> getBalance(Long id) {
         String balance = cardService.getBalance(id);
         return ResponseEntity.ok(balance);
     }
 
+    /**
+     * Sends the current balance, then every committed change. Access is checked by the initial read, before the
+     * stream is opened.
+     */
+    @Override
+    public SseEmitter streamBalance(Long id, UserDetails userDetails) {
+        return balanceStreamHub.subscribe(id, userDetails.getUsername(), () -> cardService.getBalance(id));
+    }
+
+    @Override
+    public ResponseEntity<?> getStatement(Long id, LocalDate from, LocalDate to, String cursor, int limit) {
+        StatementResponse response = cardService.getStatement(id, from, to, cursor, limit);
+        return ResponseEntity.ok(response);
+    }
+
     @Override
     public ResponseEntity<?> toggleCardState(Long id) {
         String result = cardService.toggleCardState(id);
@@ -52,9 +124,19 @@ public class CardControllerImpl implements CardController {
     }
 
     @Override
-    public ResponseEntity<?> transferMoney(Long fromCardId, Long toCardId, BigDecimal amount) {
-        cardService.transferMoney(fromCardId, toCardId, amount);
-        return ResponseEntity.ok("Transfer completed successfully");
+    public ResponseEntity<?> transferMoney(Long fromCardId, Long toCardId, BigDecimal amount, String idempotencyKey) {
+        String request = "transfer|" + fromCardId + "|" + toCardId + "|" + amount.stripTrailingZeros().toPlainString();
+        return idempotencyService.execute(idempotencyKey, request, () -> {
+            cardService.transferMoney(fromCardId, toCardId, amount);
+            return ResponseEntity.ok("Transfer completed successfully");
+        });
+    }
+
+    @Override
+    public ResponseEntity<?> transferBatch(BatchTransferRequest request) {
+        BatchTransferResponse response = cardService.transferBatch(request);
+        HttpStatus status = response.committed() ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY;
+        return ResponseEntity.status(status).body(response);
     }
 
     @Override
@@ -75,6 +157,47 @@ public class CardControllerImpl implements CardController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @Override
+    public ResponseEntity<StreamingResponseBody> createCards(String ownerName, int count) {
+        return issue(List.of(new IssuanceOrder(ownerName, count)));
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> createCardsFromCsv(MultipartFile file) throws IOException {
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            return issue(cardIssuanceService.parseCsv(reader));
+        }
+    }
+
+    /**
+     * Validates the orders up front, so bad input is answered with a regular error response, then streams one
+     * NDJSON line per committed chunk.
+     */
+    private ResponseEntity<StreamingResponseBody> issue(List<IssuanceOrder> orders) {
+        cardIssuanceService.validate(orders);
+        StreamingResponseBody body = out -> {
+            try {
+                cardIssuanceService.issue(orders, event -> writeLine(out, event));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                log.error("Bulk card issuance failed: {}", e.getMessage(), e);
+                writeLine(out, CardIssuanceEvent.failed(e.getMessage()));
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private void writeLine(OutputStream out, CardIssuanceEvent event) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(event));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Override
     public ResponseEntity<?> deleteCard(Long id) {
         cardService.delCard(id);
@@ -88,14 +211,68 @@ public class CardControllerImpl implements CardController {
     }
 
     @Override
-    public ResponseEntity<?> addMoney(Long cardId, BigDecimal amount) {
-        cardService.addMoney(cardId, amount);
-        return ResponseEntity.ok("Money added successfully");
+    public ResponseEntity<?> scrollAllCards(String cursor, int limit, boolean withCount) {
+        CardSliceResponse response = cardService.scrollAllCards(cursor, limit, withCount);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Streams every card in the requested format. The format is checked before the body starts, so an unknown one
+     * is answered with 400; the body is gzip-compressed when the client accepts it.
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportCards(String format, String acceptEncoding) {
+        CardExportFormat exportFormat = CardExportFormat.from(format);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, EXPORT_BUFFER_SIZE);
+                cardExportService.export(exportFormat, compressed);
+                compressed.finish();
+            } else {
+                BufferedOutputStream buffered = new BufferedOutputStream(out, EXPORT_BUFFER_SIZE);
+                cardExportService.export(exportFormat, buffered);
+                buffered.flush();
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("cards." + exportFormat.fileExtension()).build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip").header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        return response.body(body);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").equalsIgnoreCase("q=0");
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public ResponseEntity<?> addMoney(Long cardId, BigDecimal amount, String idempotencyKey) {
+        String request = "add-money|" + cardId + "|" + amount.stripTrailingZeros().toPlainString();
+        return idempotencyService.execute(idempotencyKey, request, () -> {
+            cardService.addMoney(cardId, amount);
+            return ResponseEntity.ok("Money added successfully");
+        });
     }
 
     @Override
-    public ResponseEntity<?> withdrawMoney(Long cardId, BigDecimal amount) {
-        cardService.withdrawMoney(cardId, amount);
-        return ResponseEntity.ok("Money withdrawn successfully");
+    public ResponseEntity<?> withdrawMoney(Long cardId, BigDecimal amount, String idempotencyKey) {
+        String request = "withdraw-money|" + cardId + "|" + amount.stripTrailingZeros().toPlainString();
+        return idempotencyService.execute(idempotencyKey, request, () -> {
+            cardService.withdrawMoney(cardId, amount);
+            return ResponseEntity.ok("Money withdrawn successfully");
+        });
     }
 }
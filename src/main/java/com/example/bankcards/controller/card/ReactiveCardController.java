@@ -0,0 +1,33 @@
+package com.example.bankcards.controller.card;
+
+import com.example.bankcards.dto.response.card.pagination.card.CardDtoForSearchResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variants of the high-volume card reads of {@link CardController}. The request thread is handed
+ * back to Tomcat while the query runs over R2DBC; the response is written on an async dispatch.
+ */
+@CrossOrigin
+@RequestMapping("/api/v1/reactive/card")
+public interface ReactiveCardController {
+
+    @GetMapping("/balance/{id}")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    Mono<ResponseEntity<String>> getBalance(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails);
+
+    @GetMapping("/search/by-number/{cardNumber}")
+    Mono<ResponseEntity<CardDtoForSearchResponse>> getCardByNumber(@PathVariable String cardNumber,
+                                                                   @AuthenticationPrincipal UserDetails userDetails);
+
+    @GetMapping("/search/by-id/{cardId}")
+    Mono<ResponseEntity<CardDtoForSearchResponse>> getCardById(@PathVariable Long cardId,
+                                                               @AuthenticationPrincipal UserDetails userDetails);
+}
@@ -0,0 +1,34 @@
+package com.example.bankcards.controller.card;
+
+import com.example.bankcards.dto.response.card.pagination.card.CardDtoForSearchResponse;
+import com.example.bankcards.service.card.ReactiveCardQueryService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+public class ReactiveCardControllerImpl implements ReactiveCardController {
+
+    private final ReactiveCardQueryService reactiveCardQueryService;
+
+    public ReactiveCardControllerImpl(ReactiveCardQueryService reactiveCardQueryService) {
+        this.reactiveCardQueryService = reactiveCardQueryService;
+    }
+
+    @Override
+    public Mono<ResponseEntity<String>> getBalance(Long id, @AuthenticationPrincipal UserDetails userDetails) {
+        return reactiveCardQueryService.getBalance(id, userDetails.getUsername()).map(ResponseEntity::ok);
+    }
+
+    @Override
+    public Mono<ResponseEntity<CardDtoForSearchResponse>> getCardByNumber(String cardNumber, @AuthenticationPrincipal UserDetails userDetails) {
+        return reactiveCardQueryService.getCardByNumber(cardNumber, userDetails.getUsername()).map(ResponseEntity::ok);
+    }
+
+    @Override
+    public Mono<ResponseEntity<CardDtoForSearchResponse>> getCardById(Long cardId, @AuthenticationPrincipal UserDetails userDetails) {
+        return reactiveCardQueryService.getCardById(cardId, userDetails.getUsername()).map(ResponseEntity::ok);
+    }
+}
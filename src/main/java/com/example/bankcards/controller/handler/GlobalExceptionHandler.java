@@ -1,15 +1,19 @@
 package com.example.bankcards.controller.handler;
 
+import com.example.bankcards.exception.card.BalanceStreamLimitException;
 import com.example.bankcards.exception.card.CardCreationException;
 import com.example.bankcards.exception.card.CardNotFoundException;
 import com.example.bankcards.exception.card.InsufficientFundsException;
 import com.example.bankcards.exception.card.InvalidCardStateException;
+import com.example.bankcards.exception.idempotency.IdempotencyKeyInProgressException;
+import com.example.bankcards.exception.idempotency.IdempotencyKeyReusedException;
 import com.example.bankcards.exception.jwt.InvalidRefreshTokenException;
 import com.example.bankcards.exception.user.UserAlreadyExist;
 import com.example.bankcards.exception.user.UserDeletionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -89,14 +93,36 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.BAD_REQUEST, "invalid_card_state", ex.getMessage());
     }
 
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyKeyInProgress(IdempotencyKeyInProgressException ex) {
+        logger.warn("Idempotency key in progress: {}", ex.getMessage());
+        return buildResponse(HttpStatus.CONFLICT, "idempotency_key_in_progress", ex.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        logger.warn("Idempotency key reused: {}", ex.getMessage());
+        return buildResponse(HttpStatus.UNPROCESSABLE_ENTITY, "idempotency_key_reused", ex.getMessage());
+    }
+
+    @ExceptionHandler(BalanceStreamLimitException.class)
+    public ResponseEntity<Map<String, String>> handleBalanceStreamLimit(BalanceStreamLimitException ex) {
+        logger.warn("Balance stream rejected: {}", ex.getMessage());
+        return buildResponse(HttpStatus.TOO_MANY_REQUESTS, "too_many_streams", ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGenericException(Exception ex) {
         logger.error("Unexpected error: {}", ex.getMessage(), ex);
         return buildResponse(HttpStatus.INTERNAL_SERVER_ERROR, "internal_server_error", "Internal server error");
     }
 
+    /**
+     * The content type is set explicitly, so errors are still written when the request accepts only another type,
+     * such as an {@code EventSource} asking for {@code text/event-stream}.
+     */
     private ResponseEntity<Map<String, String>> buildResponse(HttpStatus status, String errorCode, String message) {
-        return ResponseEntity.status(status).body(Map.of(
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(Map.of(
                 "error", errorCode,
                 "message", message
         ));
@@ -0,0 +1,21 @@
+package com.example.bankcards.dto.event;
+
+import com.example.bankcards.entity.ledger.Operation;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Balance of a card after a committed change. {@code amount} is signed: negative for a debit. The correlation id
+ * matches the ledger entries of the operation; it is absent for the net change of a batch of transfers.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CardBalanceChanged(
+        Long cardId,
+        Operation operation,
+        BigDecimal amount,
+        BigDecimal balance,
+        UUID correlationId
+) {
+}
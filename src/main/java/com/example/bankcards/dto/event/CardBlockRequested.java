@@ -0,0 +1,9 @@
+package com.example.bankcards.dto.event;
+
+public record CardBlockRequested(
+        Long cardId,
+        Long requestId,
+        Long requestedBy,
+        String reason
+) {
+}
@@ -0,0 +1,7 @@
+package com.example.bankcards.dto.event;
+
+public record CardDeleted(
+        Long cardId,
+        Long ownerId
+) {
+}
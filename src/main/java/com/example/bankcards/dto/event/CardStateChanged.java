@@ -0,0 +1,10 @@
+package com.example.bankcards.dto.event;
+
+import com.example.bankcards.entity.card.State;
+
+public record CardStateChanged(
+        Long cardId,
+        State oldState,
+        State newState
+) {
+}
@@ -0,0 +1,40 @@
+package com.example.bankcards.dto.request.export;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+public enum CardExportFormat {
+    /**
+     * One JSON object per line.
+     */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    /**
+     * Comma-separated values with a header row.
+     */
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    CardExportFormat(MediaType mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String fileExtension() {
+        return fileExtension;
+    }
+
+    public static CardExportFormat from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + value + ", use ndjson or csv");
+        }
+    }
+}
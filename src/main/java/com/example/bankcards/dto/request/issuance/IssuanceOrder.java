@@ -0,0 +1,7 @@
+package com.example.bankcards.dto.request.issuance;
+
+/**
+ * Number of cards to issue for one user.
+ */
+public record IssuanceOrder(String ownerName, int count) {
+}
@@ -0,0 +1,12 @@
+package com.example.bankcards.dto.request.transfer;
+
+public enum BatchMode {
+    /**
+     * Either every transfer of the batch is applied or none is.
+     */
+    ATOMIC,
+    /**
+     * Valid transfers are applied, invalid ones are reported and skipped.
+     */
+    BEST_EFFORT
+}
@@ -0,0 +1,14 @@
+package com.example.bankcards.dto.request.transfer;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Batch of transfers between the current user's cards")
+public record BatchTransferRequest(
+        @Schema(description = "Defaults to ATOMIC")
+        BatchMode mode,
+
+        @Schema(description = "Transfers, applied in the given order")
+        List<TransferInstruction> transfers
+) {}
@@ -0,0 +1,17 @@
+package com.example.bankcards.dto.request.transfer;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+@Schema(description = "One transfer of a batch")
+public record TransferInstruction(
+        @Schema(description = "Card to debit", example = "1")
+        Long fromCardId,
+
+        @Schema(description = "Card to credit", example = "2")
+        Long toCardId,
+
+        @Schema(description = "Amount to move, greater than zero", example = "100.00")
+        BigDecimal amount
+) {}
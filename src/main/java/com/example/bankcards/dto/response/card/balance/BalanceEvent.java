@@ -0,0 +1,10 @@
+package com.example.bankcards.dto.response.card.balance;
+
+/**
+ * Data of one {@code balance} server-sent event: the card's balance, formatted like {@code GET /balance/{id}}.
+ */
+public record BalanceEvent(
+        Long cardId,
+        String balance
+) {
+}
@@ -0,0 +1,27 @@
+package com.example.bankcards.dto.response.card.issuance;
+
+import com.example.bankcards.dto.response.card.CardDtoResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One line of a bulk issuance stream: the cards of a committed chunk and the progress of the owner's order,
+ * or an error that stopped the issuance. Cards reported before an error stay issued.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CardIssuanceEvent(
+        String ownerName,
+        Integer issued,
+        Integer total,
+        List<CardDtoResponse> cards,
+        String error
+) {
+    public static CardIssuanceEvent progress(String ownerName, int issued, int total, List<CardDtoResponse> cards) {
+        return new CardIssuanceEvent(ownerName, issued, total, cards, null);
+    }
+
+    public static CardIssuanceEvent failed(String error) {
+        return new CardIssuanceEvent(null, null, null, null, error);
+    }
+}
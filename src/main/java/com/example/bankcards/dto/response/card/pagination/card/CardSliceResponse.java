@@ -0,0 +1,15 @@
+package com.example.bankcards.dto.response.card.pagination.card;
+
+import java.util.List;
+
+/**
+ * One slice of a cursor-paginated card listing. {@code nextCursor} is {@code null} on the last slice;
+ * {@code totalElements} is only filled when the count was requested explicitly.
+ */
+public record CardSliceResponse(
+        List<CardDtoForSearchResponse> cards,
+        String nextCursor,
+        boolean last,
+        int numberOfElements,
+        Long totalElements
+) {}
@@ -0,0 +1,15 @@
+package com.example.bankcards.dto.response.card.pagination.cardBlockRequest;
+
+import java.util.List;
+
+/**
+ * One slice of a cursor-paginated block request listing. {@code nextCursor} is {@code null} on the last slice;
+ * {@code totalElements} is only filled when the count was requested explicitly.
+ */
+public record BlockRequestSliceResponse(
+        List<BlockRequestResponse> cards,
+        String nextCursor,
+        boolean last,
+        int numberOfElements,
+        Long totalElements
+) {}
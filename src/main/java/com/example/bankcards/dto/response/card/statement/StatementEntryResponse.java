@@ -0,0 +1,17 @@
+package com.example.bankcards.dto.response.card.statement;
+
+import com.example.bankcards.entity.ledger.Direction;
+import com.example.bankcards.entity.ledger.Operation;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record StatementEntryResponse(
+        Long id,
+        LocalDateTime createdAt,
+        BigDecimal amount,
+        Direction direction,
+        Operation operation,
+        UUID correlationId
+) {}
@@ -0,0 +1,13 @@
+package com.example.bankcards.dto.response.card.statement;
+
+import java.util.List;
+
+/**
+ * One slice of a card statement, newest entries first. {@code nextCursor} is {@code null} on the last slice.
+ */
+public record StatementResponse(
+        Long cardId,
+        List<StatementEntryResponse> entries,
+        String nextCursor,
+        boolean last
+) {}
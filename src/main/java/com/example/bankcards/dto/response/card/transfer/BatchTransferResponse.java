@@ -0,0 +1,16 @@
+package com.example.bankcards.dto.response.card.transfer;
+
+import com.example.bankcards.dto.request.transfer.BatchMode;
+
+import java.util.List;
+
+/**
+ * Result of a batch transfer. {@code committed} is {@code false} only when an atomic batch was rolled back.
+ */
+public record BatchTransferResponse(
+        BatchMode mode,
+        boolean committed,
+        int completed,
+        int rejected,
+        List<TransferItemResult> results
+) {}
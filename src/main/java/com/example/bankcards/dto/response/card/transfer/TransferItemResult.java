@@ -0,0 +1,24 @@
+package com.example.bankcards.dto.response.card.transfer;
+
+/**
+ * Outcome of one transfer of a batch. {@code error} and {@code message} are only set for rejected transfers
+ * and use the same error codes as the single transfer endpoint.
+ */
+public record TransferItemResult(
+        int index,
+        TransferItemStatus status,
+        String error,
+        String message
+) {
+    public static TransferItemResult completed(int index) {
+        return new TransferItemResult(index, TransferItemStatus.COMPLETED, null, null);
+    }
+
+    public static TransferItemResult skipped(int index) {
+        return new TransferItemResult(index, TransferItemStatus.SKIPPED, null, null);
+    }
+
+    public static TransferItemResult rejected(int index, String error, String message) {
+        return new TransferItemResult(index, TransferItemStatus.REJECTED, error, message);
+    }
+}
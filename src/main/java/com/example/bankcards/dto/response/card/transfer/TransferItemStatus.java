@@ -0,0 +1,10 @@
+package com.example.bankcards.dto.response.card.transfer;
+
+public enum TransferItemStatus {
+    COMPLETED,
+    REJECTED,
+    /**
+     * Valid, but not applied because another transfer of an atomic batch was rejected.
+     */
+    SKIPPED
+}
@@ -9,20 +9,31 @@ import java.time.LocalDate;
 @Entity
 public class Card {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_id_seq")
+    @SequenceGenerator(name = "card_id_seq", sequenceName = "card_id_seq", allocationSize = 50)
     private Long id;
 
     private String encryptedCardNumber;
 
-    @Column(nullable = false, unique = true)
+    /**
+     * Unkeyed SHA-256 of the card number, superseded by {@link #cardNumberFingerprint}. Still written on issuance and
+     * kept by the backfill, since nodes of the previous release look cards up and check uniqueness by it only.
+     */
+    @Column(unique = true)
     private String cardNumberHash;
 
+    @Column(name = "card_number_fingerprint", unique = true, length = 32)
+    private byte[] cardNumberFingerprint;
+
+    @Column(name = "card_number_last4", length = 4)
+    private String cardNumberLast4;
+
     @Transient
     private String maskedCardNumber;
 
     private LocalDate expirationDate;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     private MyUser owner;
 
@@ -35,6 +46,14 @@ public class Card {
         return maskedCardNumber;
     }
 
+    public byte[] getCardNumberFingerprint() {
+        return cardNumberFingerprint;
+    }
+
+    public void setCardNumberFingerprint(byte[] cardNumberFingerprint) {
+        this.cardNumberFingerprint = cardNumberFingerprint;
+    }
+
     public String getCardNumberHash() {
         return cardNumberHash;
     }
@@ -43,6 +62,14 @@ public class Card {
         this.cardNumberHash = cardNumberHash;
     }
 
+    public String getCardNumberLast4() {
+        return cardNumberLast4;
+    }
+
+    public void setCardNumberLast4(String cardNumberLast4) {
+        this.cardNumberLast4 = cardNumberLast4;
+    }
+
     public MyUser getOwner() {
         return owner;
     }
@@ -0,0 +1,25 @@
+package com.example.bankcards.entity.idempotency;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stored {@code Idempotency-Key} of a user. {@code responseStatus} and {@code responseBody} are {@code null}
+ * while the first request with this key is still running.
+ */
+public record IdempotencyRecord(
+        String owner,
+        String key,
+        String requestHash,
+        Integer responseStatus,
+        String responseBody,
+        LocalDateTime createdAt,
+        LocalDateTime expiresAt
+) {
+    public boolean isCompleted() {
+        return responseStatus != null;
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+}
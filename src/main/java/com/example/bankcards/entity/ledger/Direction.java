@@ -0,0 +1,6 @@
+package com.example.bankcards.entity.ledger;
+
+public enum Direction {
+    DEBIT,
+    CREDIT
+}
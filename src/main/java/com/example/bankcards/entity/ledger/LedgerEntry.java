@@ -0,0 +1,36 @@
+package com.example.bankcards.entity.ledger;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One immutable line of the {@code ledger_entry} journal. Entries of the same operation share a correlation id;
+ * a transfer is written as a debit and a credit of the same amount.
+ */
+public record LedgerEntry(
+        Long id,
+        Long cardId,
+        BigDecimal amount,
+        Direction direction,
+        Operation operation,
+        UUID correlationId,
+        LocalDateTime createdAt
+) {
+    public static LedgerEntry deposit(Long cardId, BigDecimal amount) {
+        return new LedgerEntry(null, cardId, amount, Direction.CREDIT, Operation.DEPOSIT, UUID.randomUUID(), LocalDateTime.now());
+    }
+
+    public static LedgerEntry withdrawal(Long cardId, BigDecimal amount) {
+        return new LedgerEntry(null, cardId, amount, Direction.DEBIT, Operation.WITHDRAWAL, UUID.randomUUID(), LocalDateTime.now());
+    }
+
+    public static List<LedgerEntry> transfer(Long fromCardId, Long toCardId, BigDecimal amount) {
+        UUID correlationId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        return List.of(
+                new LedgerEntry(null, fromCardId, amount, Direction.DEBIT, Operation.TRANSFER, correlationId, now),
+                new LedgerEntry(null, toCardId, amount, Direction.CREDIT, Operation.TRANSFER, correlationId, now));
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.bankcards.entity.ledger;
+
+public enum Operation {
+    DEPOSIT,
+    WITHDRAWAL,
+    TRANSFER
+}
@@ -0,0 +1,22 @@
+package com.example.bankcards.entity.outbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the {@code outbox_event} table: a change written in the same transaction as the change itself and
+ * published later by the relay. Ids grow with insertion order, so consumers can use them to order and deduplicate.
+ */
+public record OutboxEvent(
+        Long id,
+        String aggregateType,
+        Long aggregateId,
+        OutboxEventType eventType,
+        String payload,
+        LocalDateTime createdAt
+) {
+    public static final String CARD = "card";
+
+    public static OutboxEvent card(Long cardId, OutboxEventType eventType, String payload) {
+        return new OutboxEvent(null, CARD, cardId, eventType, payload, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.bankcards.entity.outbox;
+
+public enum OutboxEventType {
+    CARD_STATE_CHANGED,
+    CARD_DELETED,
+    CARD_BLOCK_REQUESTED,
+    CARD_BALANCE_CHANGED
+}
@@ -35,6 +35,10 @@ public class MyUser{
 
     private String blockReason;
 
+    private long tokenVersion;
+
+    private LocalDateTime tokenVersionChangedAt;
+
     public MyUser(String name, List<String> roles, String password, boolean isEnable, LocalDateTime unlockAt) {
         this.name = name;
         this.roles = roles;
@@ -77,6 +81,22 @@ public class MyUser{
         this.blockReason = blockReason;
     }
 
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(long tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
+    public LocalDateTime getTokenVersionChangedAt() {
+        return tokenVersionChangedAt;
+    }
+
+    public void setTokenVersionChangedAt(LocalDateTime tokenVersionChangedAt) {
+        this.tokenVersionChangedAt = tokenVersionChangedAt;
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,7 @@
+package com.example.bankcards.exception.card;
+
+public class BalanceStreamLimitException extends RuntimeException {
+    public BalanceStreamLimitException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,10 @@ package com.example.bankcards.exception.card;
 
 public class CardCreationException extends RuntimeException {
 
+    public CardCreationException(String message) {
+        super(message);
+    }
+
     public CardCreationException(String message, Throwable cause) {
         super(message, cause);
     }
@@ -0,0 +1,49 @@
+package com.example.bankcards.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies many balance changes with a single JDBC batch. Meant for rows already locked by the caller's
+ * transaction; the guard against a negative balance only protects against a caller bug.
+ */
+@Repository
+public class CardBalanceBatchRepo {
+    private static final String APPLY_DELTA = "UPDATE card SET balance = balance + ? WHERE id = ? AND balance + ? >= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CardBalanceBatchRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the signed delta to each card's balance.
+     *
+     * @return ids of the cards that were not updated
+     */
+    public List<Long> applyDeltas(Map<Long, BigDecimal> deltas) {
+        List<Map.Entry<Long, BigDecimal>> entries = new ArrayList<>(deltas.entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate(APPLY_DELTA, entries, entries.size(), (ps, entry) -> {
+            ps.setBigDecimal(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+            ps.setBigDecimal(3, entry.getValue());
+        });
+        List<Long> missed = new ArrayList<>();
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missed.add(entries.get(i).getKey());
+                }
+                i++;
+            }
+        }
+        return missed;
+    }
+}
@@ -3,9 +3,27 @@ package com.example.bankcards.repository;
 import com.example.bankcards.entity.card.Card;
 import com.example.bankcards.entity.card.CardBlockRequest;
 import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.projection.BlockRequestView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CardBlockRequestRepo extends JpaRepository<CardBlockRequest,Long> {
+    String BLOCK_REQUEST_VIEW = "new com.example.bankcards.repository.projection.BlockRequestView("
+            + "r.id, c.id, c.cardNumberLast4, c.encryptedCardNumber, c.expirationDate, c.state, c.balance, "
+            + "u.name, r.requestDate, r.reason) "
+            + "FROM CardBlockRequest r JOIN r.card c JOIN r.requestedBy u";
+
     void deleteAllByCard(Card card);
     void deleteAllByRequestedBy(MyUser user);
+
+    @Query(value = "SELECT " + BLOCK_REQUEST_VIEW + " ORDER BY r.id",
+            countQuery = "SELECT count(r) FROM CardBlockRequest r")
+    Page<BlockRequestView> findAllViews(Pageable pageable);
+
+    @Query("SELECT " + BLOCK_REQUEST_VIEW + " WHERE r.id > :afterId ORDER BY r.id")
+    Slice<BlockRequestView> findViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,69 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.card.State;
+import com.example.bankcards.repository.projection.CardExportView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Reads all cards through a forward-only cursor, {@code card.export.fetch-size} rows per round trip, so memory
+ * stays constant however many cards there are.
+ */
+@Repository
+public class CardExportRepo {
+    private static final String SELECT_ALL = """
+            SELECT c.id, c.owner_id, u.name AS owner_name, c.card_number_last4, c.encrypted_card_number,
+                   c.expiration_date, c.state, c.balance
+            FROM card c
+            LEFT JOIN my_user u ON u.id = c.owner_id
+            ORDER BY c.id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    public CardExportRepo(JdbcTemplate jdbcTemplate, @Value("${card.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Passes every card to {@code consumer} in id order. Must run inside a transaction: outside one the PostgreSQL
+     * driver ignores the fetch size and loads the whole result into memory.
+     */
+    public void forEach(Consumer<CardExportView> consumer) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Card export must run inside a transaction to stream from a cursor");
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_ALL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(toView(rs)));
+    }
+
+    private static CardExportView toView(ResultSet rs) throws SQLException {
+        long ownerId = rs.getLong("owner_id");
+        boolean withoutOwner = rs.wasNull();
+        Date expirationDate = rs.getDate("expiration_date");
+        String state = rs.getString("state");
+        return new CardExportView(
+                rs.getLong("id"),
+                withoutOwner ? null : ownerId,
+                rs.getString("owner_name"),
+                rs.getString("card_number_last4"),
+                rs.getString("encrypted_card_number"),
+                expirationDate == null ? null : expirationDate.toLocalDate(),
+                state == null ? null : State.valueOf(state),
+                rs.getBigDecimal("balance"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.card.State;
+import com.example.bankcards.repository.projection.CardAccessView;
+import com.example.bankcards.repository.projection.CardView;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Non-blocking card lookups over R2DBC. Each lookup also fetches, in the same statement, whether the reading
+ * user owns the card and which roles that user has, so a permission check costs no second round trip.
+ * Returns an empty {@link Mono} when the card or the reading user does not exist.
+ */
+@Repository
+public class CardReactiveRepo {
+    private static final String SELECT_CARD = """
+            SELECT c.id, c.card_number_last4, c.encrypted_card_number, c.expiration_date, c.state, c.balance,
+                   c.owner_id = u.id AS owned,
+                   ARRAY(SELECT r.roles FROM my_user_roles r WHERE r.my_user_id = u.id) AS current_roles
+            FROM card c, my_user u
+            WHERE u.name = :userName AND\s""";
+
+    private final DatabaseClient databaseClient;
+
+    public CardReactiveRepo(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<CardAccessView> findById(Long cardId, String userName) {
+        return databaseClient.sql(SELECT_CARD + "c.id = :cardId")
+                .bind("userName", userName)
+                .bind("cardId", cardId)
+                .map(CardReactiveRepo::toView)
+                .one();
+    }
+
+    public Mono<CardAccessView> findByCardNumberFingerprint(byte[] fingerprint, String userName) {
+        return databaseClient.sql(SELECT_CARD + "c.card_number_fingerprint = :fingerprint")
+                .bind("userName", userName)
+                .bind("fingerprint", fingerprint)
+                .map(CardReactiveRepo::toView)
+                .one();
+    }
+
+    public Mono<CardAccessView> findByCardNumberHash(String hash, String userName) {
+        return databaseClient.sql(SELECT_CARD + "c.card_number_hash = :hash")
+                .bind("userName", userName)
+                .bind("hash", hash)
+                .map(CardReactiveRepo::toView)
+                .one();
+    }
+
+    private static CardAccessView toView(Readable row) {
+        String state = row.get("state", String.class);
+        String[] roles = row.get("current_roles", String[].class);
+        return new CardAccessView(
+                new CardView(
+                        row.get("id", Long.class),
+                        row.get("card_number_last4", String.class),
+                        row.get("encrypted_card_number", String.class),
+                        row.get("expiration_date", LocalDate.class),
+                        state == null ? null : State.valueOf(state),
+                        row.get("balance", BigDecimal.class)),
+                Boolean.TRUE.equals(row.get("owned", Boolean.class)),
+                roles == null ? List.of() : Arrays.asList(roles));
+    }
+}
@@ -2,14 +2,97 @@ package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.card.Card;
 import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.projection.CardBalanceView;
+import com.example.bankcards.repository.projection.CardView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CardRepo extends JpaRepository<Card,Long> {
+    String CARD_VIEW = "new com.example.bankcards.repository.projection.CardView("
+            + "c.id, c.cardNumberLast4, c.encryptedCardNumber, c.expirationDate, c.state, c.balance)";
+
+    Optional<Card> findByCardNumberFingerprint(byte[] fingerprint);
+
     Optional<Card> findByCardNumberHash(String hash);
 
+    @Query("SELECT c.cardNumberFingerprint FROM Card c WHERE c.cardNumberFingerprint IN :fingerprints")
+    List<byte[]> findExistingFingerprints(@Param("fingerprints") Collection<byte[]> fingerprints);
+
+    @Query("SELECT c.cardNumberHash FROM Card c WHERE c.cardNumberHash IN :hashes")
+    List<String> findExistingHashes(@Param("hashes") Collection<String> hashes);
+
     Page<Card> findByOwner(MyUser user, Pageable pageable);
+
+    @Query(value = "SELECT " + CARD_VIEW + " FROM Card c ORDER BY c.id",
+            countQuery = "SELECT count(c) FROM Card c")
+    Page<CardView> findAllViews(Pageable pageable);
+
+    @Query(value = "SELECT " + CARD_VIEW + " FROM Card c WHERE c.owner = :owner ORDER BY c.id",
+            countQuery = "SELECT count(c) FROM Card c WHERE c.owner = :owner")
+    Page<CardView> findViewsByOwner(@Param("owner") MyUser owner, Pageable pageable);
+
+    @Query("SELECT " + CARD_VIEW + " FROM Card c WHERE c.id > :afterId ORDER BY c.id")
+    Slice<CardView> findViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT " + CARD_VIEW + " FROM Card c WHERE c.owner = :owner AND c.id > :afterId ORDER BY c.id")
+    Slice<CardView> findViewsByOwnerAfter(@Param("owner") MyUser owner, @Param("afterId") Long afterId, Pageable pageable);
+
+    long countByOwner(MyUser owner);
+
+    /**
+     * Locks the given cards in id order, so concurrent transfers over the same pair of cards
+     * always acquire the row locks in the same order and cannot deadlock each other.
+     */
+    @Query(value = """
+            SELECT id, owner_id AS "ownerId", (state = 'ACTIVE' AND expiration_date >= CURRENT_DATE) AS usable, balance
+            FROM card
+            WHERE id IN (:ids)
+            ORDER BY id
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<CardBalanceView> lockBalances(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Credits a usable card in one statement.
+     *
+     * @return the new balance, or empty if the card does not exist, is not active or is expired
+     */
+    @Query(value = """
+            UPDATE card SET balance = balance + :amount
+            WHERE id = :id AND state = 'ACTIVE' AND expiration_date >= CURRENT_DATE
+            RETURNING balance
+            """, nativeQuery = true)
+    Optional<BigDecimal> addToBalance(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Debits a usable card in one statement. A {@code null} owner id skips the ownership check (admin).
+     *
+     * @return the new balance, or empty if the card does not exist, is not usable, belongs to another owner
+     * or has insufficient funds
+     */
+    @Query(value = """
+            UPDATE card SET balance = balance - :amount
+            WHERE id = :id AND state = 'ACTIVE' AND expiration_date >= CURRENT_DATE AND balance >= :amount
+              AND (CAST(:ownerId AS BIGINT) IS NULL OR owner_id = :ownerId)
+            RETURNING balance
+            """, nativeQuery = true)
+    Optional<BigDecimal> withdrawFromBalance(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("ownerId") Long ownerId);
+
+    @Modifying
+    @Query(value = "UPDATE card SET balance = balance - :amount WHERE id = :id AND balance >= :amount", nativeQuery = true)
+    int debit(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query(value = "UPDATE card SET balance = balance + :amount WHERE id = :id", nativeQuery = true)
+    int credit(@Param("id") Long id, @Param("amount") BigDecimal amount);
 }
@@ -0,0 +1,102 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.idempotency.IdempotencyRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Persistent side of the idempotency store. A key is claimed by inserting a row without a response,
+ * so only one node executes a request; the claim is committed on its own and visible to other nodes immediately.
+ * The response is recorded in the transaction of the request itself. A claim is identified by its
+ * {@code created_at}, so a node whose lease ran out cannot complete or release the claim of its successor.
+ */
+@Repository
+public class IdempotencyKeyRepo {
+    private static final String CLAIM = """
+            INSERT INTO idempotency_key (owner, idempotency_key, request_hash, created_at, expires_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+    private static final String SELECT = """
+            SELECT owner, idempotency_key, request_hash, response_status, response_body, created_at, expires_at
+            FROM idempotency_key
+            WHERE owner = ? AND idempotency_key = ?
+            """;
+    private static final String COMPLETE = """
+            UPDATE idempotency_key SET response_status = ?, response_body = ?, expires_at = ?
+            WHERE owner = ? AND idempotency_key = ? AND created_at = ? AND response_status IS NULL
+            """;
+    private static final String RELEASE = """
+            DELETE FROM idempotency_key
+            WHERE owner = ? AND idempotency_key = ? AND created_at = ? AND response_status IS NULL
+            """;
+    private static final String DELETE_EXPIRED_KEY = """
+            DELETE FROM idempotency_key
+            WHERE owner = ? AND idempotency_key = ? AND expires_at <= ?
+            """;
+    private static final String DELETE_EXPIRED = """
+            DELETE FROM idempotency_key
+            WHERE (owner, idempotency_key) IN (
+                SELECT owner, idempotency_key FROM idempotency_key WHERE expires_at <= ? LIMIT ?
+            )
+            """;
+    private static final RowMapper<IdempotencyRecord> ROW_MAPPER = (rs, rowNum) -> new IdempotencyRecord(
+            rs.getString("owner"),
+            rs.getString("idempotency_key"),
+            rs.getString("request_hash"),
+            rs.getObject("response_status", Integer.class),
+            rs.getString("response_body"),
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getTimestamp("expires_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyKeyRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param claimedAt identifies the claim; must be truncated to microseconds, the precision of the column
+     * @param leaseUntil when the claim may be taken over if it was never completed
+     * @return {@code true} if the key was free and is now owned by the caller
+     */
+    public boolean claim(String owner, String key, String requestHash, LocalDateTime claimedAt, LocalDateTime leaseUntil) {
+        return jdbcTemplate.update(CLAIM, owner, key, requestHash, Timestamp.valueOf(claimedAt), Timestamp.valueOf(leaseUntil)) == 1;
+    }
+
+    public Optional<IdempotencyRecord> find(String owner, String key) {
+        return jdbcTemplate.query(SELECT, ROW_MAPPER, owner, key).stream().findFirst();
+    }
+
+    /**
+     * Records the response and extends the row to the full retention. Joins the caller's transaction.
+     *
+     * @return {@code false} if the claim is no longer the caller's, because its lease ran out and another
+     * request took the key over
+     */
+    public boolean complete(String owner, String key, LocalDateTime claimedAt, int responseStatus, String responseBody,
+                            LocalDateTime expiresAt) {
+        return jdbcTemplate.update(COMPLETE, responseStatus, responseBody, Timestamp.valueOf(expiresAt),
+                owner, key, Timestamp.valueOf(claimedAt)) == 1;
+    }
+
+    /**
+     * Frees a claimed key whose request failed, so the client can retry with the same key.
+     */
+    public void release(String owner, String key, LocalDateTime claimedAt) {
+        jdbcTemplate.update(RELEASE, owner, key, Timestamp.valueOf(claimedAt));
+    }
+
+    public boolean deleteIfExpired(String owner, String key, LocalDateTime now) {
+        return jdbcTemplate.update(DELETE_EXPIRED_KEY, owner, key, Timestamp.valueOf(now)) == 1;
+    }
+
+    public int deleteExpired(LocalDateTime now, int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED, Timestamp.valueOf(now), limit);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.ledger.Direction;
+import com.example.bankcards.entity.ledger.LedgerEntry;
+import com.example.bankcards.entity.ledger.Operation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Append-only access to the monthly partitioned {@code ledger_entry} table. Plain JDBC keeps inserts batched
+ * (one round trip per operation, rewritten into a multi-row insert by the driver) without an entity per line.
+ * The caller's transaction is joined, so entries commit or roll back together with the balance change.
+ */
+@Repository
+public class LedgerEntryRepo {
+    private static final String INSERT = """
+            INSERT INTO ledger_entry (card_id, amount, direction, operation, correlation_id, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+    private static final String SELECT_STATEMENT = """
+            SELECT id, card_id, amount, direction, operation, correlation_id, created_at
+            FROM ledger_entry
+            WHERE card_id = ? AND created_at >= ? AND created_at < ? AND (created_at, id) < (?, ?)
+            ORDER BY created_at DESC, id DESC
+            LIMIT ?
+            """;
+    private static final RowMapper<LedgerEntry> ROW_MAPPER = (rs, rowNum) -> new LedgerEntry(
+            rs.getLong("id"),
+            rs.getLong("card_id"),
+            rs.getBigDecimal("amount"),
+            Direction.valueOf(rs.getString("direction")),
+            Operation.valueOf(rs.getString("operation")),
+            rs.getObject("correlation_id", UUID.class),
+            rs.getTimestamp("created_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LedgerEntryRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<LedgerEntry> entries) {
+        jdbcTemplate.batchUpdate(INSERT, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.cardId());
+            ps.setBigDecimal(2, entry.amount());
+            ps.setString(3, entry.direction().name());
+            ps.setString(4, entry.operation().name());
+            ps.setObject(5, entry.correlationId());
+            ps.setTimestamp(6, Timestamp.valueOf(entry.createdAt()));
+        });
+    }
+
+    /**
+     * Entries of a card in {@code [from, to)}, newest first, strictly before the {@code (beforeAt, beforeId)} position.
+     */
+    public List<LedgerEntry> findStatement(Long cardId, LocalDateTime from, LocalDateTime to,
+                                           LocalDateTime beforeAt, long beforeId, int limit) {
+        return jdbcTemplate.query(SELECT_STATEMENT, ROW_MAPPER,
+                cardId, Timestamp.valueOf(from), Timestamp.valueOf(to), Timestamp.valueOf(beforeAt), beforeId, limit);
+    }
+}
@@ -2,12 +2,17 @@ package com.example.bankcards.repository;
 
 
 import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.projection.UserTokenVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface MyUserRepo extends JpaRepository<MyUser, Long> {
     Optional<MyUser> findByName(String name);
 
     boolean existsByNameIgnoreCase(String name);
+
+    List<UserTokenVersion> findByTokenVersionChangedAtAfter(LocalDateTime since);
 }
@@ -0,0 +1,75 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.outbox.OutboxEvent;
+import com.example.bankcards.entity.outbox.OutboxEventType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Plain JDBC access to the {@code outbox_event} table. Inserts join the caller's transaction, so an event commits
+ * or rolls back together with the change it describes.
+ */
+@Repository
+public class OutboxEventRepo {
+    private static final String INSERT = """
+            INSERT INTO outbox_event (aggregate_type, aggregate_id, event_type, payload, created_at)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+    // rows locked by another relay are skipped instead of waited for
+    private static final String LOCK_BATCH = """
+            SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at
+            FROM outbox_event
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+    private static final String DELETE = "DELETE FROM outbox_event WHERE id = ANY (?)";
+    private static final RowMapper<OutboxEvent> ROW_MAPPER = (rs, rowNum) -> new OutboxEvent(
+            rs.getLong("id"),
+            rs.getString("aggregate_type"),
+            rs.getLong("aggregate_id"),
+            OutboxEventType.valueOf(rs.getString("event_type")),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxEventRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.aggregateType());
+            ps.setLong(2, event.aggregateId());
+            ps.setString(3, event.eventType().name());
+            ps.setString(4, event.payload());
+            ps.setTimestamp(5, Timestamp.valueOf(event.createdAt()));
+        });
+    }
+
+    /**
+     * Oldest unpublished events, locked until the caller's transaction ends. Must run inside a transaction.
+     */
+    public List<OutboxEvent> lockBatch(int limit) {
+        return jdbcTemplate.query(LOCK_BATCH, ROW_MAPPER, limit);
+    }
+
+    public int deleteAll(List<Long> ids) {
+        return jdbcTemplate.execute(DELETE, (PreparedStatement ps) -> {
+            Array array = ps.getConnection().createArrayOf("bigint", ids.toArray());
+            try {
+                ps.setArray(1, array);
+                return ps.executeUpdate();
+            } finally {
+                array.free();
+            }
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.bankcards.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Plain JDBC access to the {@code revoked_user} table: users whose every token was revoked for good.
+ * Inserts join the caller's transaction, so a rolled back deletion leaves no row behind.
+ */
+@Repository
+public class RevokedUserRepo {
+    private static final String INSERT = "INSERT INTO revoked_user (user_id, revoked_at) VALUES (?, ?)";
+    private static final String FIND_AFTER = "SELECT user_id FROM revoked_user WHERE revoked_at > ?";
+    private static final String DELETE_BEFORE = "DELETE FROM revoked_user WHERE revoked_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RevokedUserRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(Long userId, LocalDateTime revokedAt) {
+        jdbcTemplate.update(INSERT, userId, Timestamp.valueOf(revokedAt));
+    }
+
+    public List<Long> findUserIdsRevokedAfter(LocalDateTime since) {
+        return jdbcTemplate.queryForList(FIND_AFTER, Long.class, Timestamp.valueOf(since));
+    }
+
+    public int deleteRevokedBefore(LocalDateTime horizon) {
+        return jdbcTemplate.update(DELETE_BEFORE, Timestamp.valueOf(horizon));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.bankcards.repository.projection;
+
+import com.example.bankcards.entity.card.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A block request joined with its card and the name of the requesting user in a single row.
+ * JPQL constructor expressions cannot nest, so the card columns are flattened and exposed through {@link #card()}.
+ */
+public record BlockRequestView(
+        Long id,
+        Long cardId,
+        String cardNumberLast4,
+        String encryptedCardNumber,
+        LocalDate expirationDate,
+        State state,
+        BigDecimal balance,
+        String requestedByName,
+        LocalDateTime requestDate,
+        String reason
+) {
+    public CardView card() {
+        return new CardView(cardId, cardNumberLast4, encryptedCardNumber, expirationDate, state, balance);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.bankcards.repository.projection;
+
+import java.util.List;
+
+/**
+ * A card together with what a permission check needs to know about the user reading it.
+ *
+ * @param ownedByCurrentUser whether the card belongs to the reading user
+ * @param currentUserRoles   roles of the reading user as stored, without the {@code ROLE_} prefix
+ */
+public record CardAccessView(
+        CardView card,
+        boolean ownedByCurrentUser,
+        List<String> currentUserRoles
+) {}
@@ -0,0 +1,17 @@
+package com.example.bankcards.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * The columns a balance change is validated against. {@code usable} is computed by the database:
+ * the card is {@code ACTIVE} and not expired.
+ */
+public interface CardBalanceView {
+    Long getId();
+
+    Long getOwnerId();
+
+    Boolean getUsable();
+
+    BigDecimal getBalance();
+}
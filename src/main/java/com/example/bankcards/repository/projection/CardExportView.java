@@ -0,0 +1,21 @@
+package com.example.bankcards.repository.projection;
+
+import com.example.bankcards.entity.card.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A card row of the export with its owner's name.
+ * {@code encryptedCardNumber} is only used for rows whose last four digits are not backfilled yet.
+ */
+public record CardExportView(
+        Long id,
+        Long ownerId,
+        String ownerName,
+        String cardNumberLast4,
+        String encryptedCardNumber,
+        LocalDate expirationDate,
+        State state,
+        BigDecimal balance
+) {}
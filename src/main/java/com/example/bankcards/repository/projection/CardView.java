@@ -0,0 +1,19 @@
+package com.example.bankcards.repository.projection;
+
+import com.example.bankcards.entity.card.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Columns of a card needed by listings, loaded without the owner.
+ * {@code encryptedCardNumber} is only used for rows whose last four digits are not backfilled yet.
+ */
+public record CardView(
+        Long id,
+        String cardNumberLast4,
+        String encryptedCardNumber,
+        LocalDate expirationDate,
+        State state,
+        BigDecimal balance
+) {}
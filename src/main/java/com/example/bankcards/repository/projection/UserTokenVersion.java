@@ -0,0 +1,11 @@
+package com.example.bankcards.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface UserTokenVersion {
+    Long getId();
+
+    long getTokenVersion();
+
+    LocalDateTime getTokenVersionChangedAt();
+}
@@ -14,6 +14,10 @@ public class MyUserDetails implements UserDetails {
         this.user = user;
     }
 
+    public MyUser getUser() {
+        return user;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return user.getRoles()
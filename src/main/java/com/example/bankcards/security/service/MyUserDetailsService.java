@@ -3,6 +3,7 @@ package com.example.bankcards.security.service;
 import com.example.bankcards.entity.user.MyUser;
 import com.example.bankcards.repository.MyUserRepo;
 import com.example.bankcards.security.model.MyUserDetails;
+import com.example.bankcards.service.user.UserCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.DisabledException;
@@ -19,9 +20,11 @@ import java.time.LocalDateTime;
 public class MyUserDetailsService implements UserDetailsService {
     private static final Logger log = LoggerFactory.getLogger(MyUserDetailsService.class);
     private final MyUserRepo myUserRepo;
+    private final UserCache userCache;
 
-    public MyUserDetailsService(MyUserRepo myUserRepo) {
+    public MyUserDetailsService(MyUserRepo myUserRepo, UserCache userCache) {
         this.myUserRepo = myUserRepo;
+        this.userCache = userCache;
     }
 
     @Override
@@ -30,7 +33,7 @@ public class MyUserDetailsService implements UserDetailsService {
         try {
             log.debug("Attempting to load user by username: {}", username);
 
-            MyUser user = myUserRepo.findByName(username)
+            MyUser user = userCache.findByName(username)
                     .orElseThrow(() -> {
                         log.warn("User not found: {}", username);
                         return new UsernameNotFoundException("User not found");
@@ -44,12 +47,14 @@ public class MyUserDetailsService implements UserDetailsService {
                     throw new DisabledException("User is disabled: " + user.getBlockReason());
                 } else {
                     log.info("User {} unlock time passed or not set, enabling user", username);
+                    user = myUserRepo.findByName(username).orElseThrow(() -> new UsernameNotFoundException("User not found"));
                     user.setEnable(true);
                     myUserRepo.save(user);
+                    userCache.invalidate(username);
                 }
             }
 
-            log.info("User {} loaded successfully", username);
+            log.debug("User {} loaded successfully", username);
             return new MyUserDetails(user);
 
         } catch (DisabledException e) {
@@ -0,0 +1,72 @@
+package com.example.bankcards.security.service.jwt;
+
+import com.example.bankcards.util.encrypt.HashUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds claims of tokens whose signature has already been verified, so repeated requests
+ * with the same token skip parsing and HMAC verification. Entries are keyed by the SHA-256
+ * digest of the token and expire together with the token itself.
+ */
+@Component
+public class JwtClaimsCache {
+    private final Cache<String, Claims> cache;
+
+    public JwtClaimsCache(@Value("${jwt.claims-cache.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    public Claims get(String token) {
+        Claims claims = cache.getIfPresent(HashUtil.hash(token));
+        if (claims != null && isExpired(claims)) {
+            return null;
+        }
+        return claims;
+    }
+
+    public void put(String token, Claims claims) {
+        if (!isExpired(claims)) {
+            cache.put(HashUtil.hash(token), claims);
+        }
+    }
+
+    public Cache<String, Claims> getCache() {
+        return cache;
+    }
+
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration == null || expiration.before(new Date());
+    }
+
+    private static class TokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            long millisLeft = expiration == null ? 0 : expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
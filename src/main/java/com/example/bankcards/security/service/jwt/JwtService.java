@@ -1,13 +1,25 @@
 package com.example.bankcards.security.service.jwt;
 
+import io.jsonwebtoken.Claims;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Date;
 
 public interface JwtService {
+    String ROLES_CLAIM = "roles";
+    String USER_ID_CLAIM = "uid";
+    String TOKEN_VERSION_CLAIM = "ver";
+
     String generateAccessToken(UserDetails userDetails);
     String generateRefreshToken(UserDetails userDetails);
     Boolean validateAccessToken(String token, UserDetails userDetails);
+
+    /**
+     * Verifies the token once and returns its claims.
+     * Throws {@link com.example.bankcards.exception.jwt.InvalidJwtTokenException} if the token
+     * is malformed, expired or is not an access token.
+     */
+    Claims parseAccessToken(String token);
     Boolean validateRefreshToken(String token);
     String refreshAccessToken(String refreshToken);
     String extractUsername(String token);
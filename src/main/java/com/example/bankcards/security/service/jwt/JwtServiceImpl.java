@@ -2,36 +2,58 @@ package com.example.bankcards.security.service.jwt;
 
 import com.example.bankcards.exception.jwt.InvalidJwtTokenException;
 import com.example.bankcards.exception.jwt.InvalidRefreshTokenException;
+import com.example.bankcards.security.model.MyUserDetails;
+import com.example.bankcards.util.HotPathMetrics;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtServiceImpl implements JwtService{
     private final static Logger logger = LoggerFactory.getLogger(JwtServiceImpl.class);
 
+    static final Duration ACCESS_TOKEN_TTL = Duration.ofMinutes(15);
+
     @Value("${jwt.secret-key}")
     private String secret_key;
 
     private final UserDetailsService userDetailsService;
+    private final JwtClaimsCache claimsCache;
+
+    private SecretKey secretKey;
+    private JwtParser parser;
 
-    public JwtServiceImpl(UserDetailsService userDetailsService) {
+    public JwtServiceImpl(UserDetailsService userDetailsService, JwtClaimsCache claimsCache) {
         this.userDetailsService = userDetailsService;
+        this.claimsCache = claimsCache;
+    }
+
+    @PostConstruct
+    void init() {
+        secretKey = Keys.hmacShaKeyFor(secret_key.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(secretKey)
+                .build();
     }
 
 
@@ -39,7 +61,14 @@ public class JwtServiceImpl implements JwtService{
     public String generateAccessToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("token_type", "access");
-        return createToken(claims, userDetails.getUsername(), 1000 * 60 * 15);
+        claims.put(ROLES_CLAIM, userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        if (userDetails instanceof MyUserDetails myUserDetails) {
+            claims.put(USER_ID_CLAIM, myUserDetails.getUser().getId());
+            claims.put(TOKEN_VERSION_CLAIM, myUserDetails.getUser().getTokenVersion());
+        }
+        return createToken(claims, userDetails.getUsername(), ACCESS_TOKEN_TTL.toMillis());
     }
 
     @Override
@@ -65,17 +94,24 @@ public class JwtServiceImpl implements JwtService{
 
     @Override
     public Boolean validateAccessToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
+        final Claims claims = extractAllClaims(token);
         try {
-            return (isAccessToken(token) && username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            return (isAccessToken(claims) && claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims));
         }catch (Exception e){
             return false;
         }
     }
 
-
-    private boolean isAccessToken(String token) {
+    @Override
+    public Claims parseAccessToken(String token) {
         Claims claims = extractAllClaims(token);
+        if (!isAccessToken(claims) || isTokenExpired(claims)) {
+            throw new InvalidJwtTokenException("Provided token is not a valid access token", null);
+        }
+        return claims;
+    }
+
+    private boolean isAccessToken(Claims claims) {
         return "access".equals(claims.get("token_type"));
     }
 
@@ -104,7 +140,11 @@ public class JwtServiceImpl implements JwtService{
     }
 
     private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return isTokenExpired(extractAllClaims(token));
+    }
+
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
     @Override
     public String extractUsername(String token) {
@@ -122,12 +162,18 @@ public class JwtServiceImpl implements JwtService{
     }
 
     private Claims extractAllClaims(String token) {
+        Claims cached = claimsCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        long start = System.nanoTime();
         try {
-            return Jwts.parser()
-                    .verifyWith(getSecretKey())
-                    .build()
+            Claims claims = parser
                     .parseSignedClaims(token)
                     .getPayload();
+            HotPathMetrics.JWT_VERIFY.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            claimsCache.put(token, claims);
+            return claims;
         } catch (JwtException | IllegalArgumentException e) {
             logger.error("JWT parsing failed: {}", e.getMessage());
             throw new InvalidJwtTokenException("Token parsing failed", e);
@@ -135,7 +181,7 @@ public class JwtServiceImpl implements JwtService{
     }
 
     private SecretKey getSecretKey() {
-        return Keys.hmacShaKeyFor(secret_key.getBytes(StandardCharsets.UTF_8));
+        return secretKey;
     }
 
 
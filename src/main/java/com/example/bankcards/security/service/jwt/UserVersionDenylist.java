@@ -0,0 +1,119 @@
+package com.example.bankcards.security.service.jwt;
+
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.repository.RevokedUserRepo;
+import com.example.bankcards.repository.projection.UserTokenVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimum accepted token version per user id, used by the stateless authentication mode.
+ * A token whose {@code ver} claim is lower than the stored version was issued before the user
+ * was blocked, renamed or had their roles changed, and is rejected.
+ * <p>
+ * Changes made on this node are applied immediately through {@link #revoke(Long, long)};
+ * changes made by other nodes are picked up by the periodic incremental refresh. A deleted user
+ * has no row left to report a version change, so the deletion is recorded in {@code revoked_user}
+ * instead. Entries older than the access token lifetime are dropped, since every token they could
+ * reject has expired.
+ */
+@Component
+public class UserVersionDenylist {
+    private static final Logger logger = LoggerFactory.getLogger(UserVersionDenylist.class);
+    private static final Duration REFRESH_OVERLAP = Duration.ofSeconds(5);
+
+    private final MyUserRepo myUserRepo;
+    private final RevokedUserRepo revokedUserRepo;
+    private final boolean statelessEnabled;
+    private final Map<Long, Entry> minVersions = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastRefresh;
+
+    public UserVersionDenylist(MyUserRepo myUserRepo,
+                               RevokedUserRepo revokedUserRepo,
+                               @Value("${jwt.stateless.enabled:false}") boolean statelessEnabled) {
+        this.myUserRepo = myUserRepo;
+        this.revokedUserRepo = revokedUserRepo;
+        this.statelessEnabled = statelessEnabled;
+    }
+
+    public boolean isRevoked(Long userId, long tokenVersion) {
+        Entry entry = minVersions.get(userId);
+        return entry != null && tokenVersion < entry.minVersion();
+    }
+
+    public void revoke(Long userId, long minVersion) {
+        minVersions.merge(userId, new Entry(minVersion, LocalDateTime.now()),
+                (old, fresh) -> old.minVersion() >= fresh.minVersion() ? old : fresh);
+    }
+
+    /**
+     * Same as {@link #revoke(Long, long)}, but deferred until the surrounding transaction commits
+     * so a rolled back change never rejects tokens that are still valid.
+     */
+    public void revokeAfterCommit(Long userId, long minVersion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            revoke(userId, minVersion);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                revoke(userId, minVersion);
+            }
+        });
+    }
+
+    /**
+     * Revokes every token of a user that is being deleted, on all nodes. Must run inside the deleting transaction.
+     */
+    public void revokeDeletedUser(Long userId) {
+        revokedUserRepo.insert(userId, LocalDateTime.now());
+        revokeAfterCommit(userId, Long.MAX_VALUE);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.stateless.denylist-refresh-interval:PT10S}")
+    public void refresh() {
+        if (!statelessEnabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.minus(JwtServiceImpl.ACCESS_TOKEN_TTL);
+        LocalDateTime since = lastRefresh == null ? horizon : lastRefresh.minus(REFRESH_OVERLAP);
+
+        List<UserTokenVersion> changes = myUserRepo.findByTokenVersionChangedAtAfter(since);
+        changes.forEach(change -> revoke(change.getId(), change.getTokenVersion()));
+        List<Long> deleted = revokedUserRepo.findUserIdsRevokedAfter(since);
+        deleted.forEach(userId -> revoke(userId, Long.MAX_VALUE));
+        minVersions.values().removeIf(entry -> entry.revokedAt().isBefore(horizon));
+        lastRefresh = now;
+
+        if (!changes.isEmpty() || !deleted.isEmpty()) {
+            logger.debug("Token denylist refreshed with {} changes and {} deleted users, {} entries active",
+                    changes.size(), deleted.size(), minVersions.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.stateless.revoked-users-purge-interval:PT1H}")
+    public void purgeRevokedUsers() {
+        // a node starting up only reads deletions newer than the token lifetime, older rows are never needed
+        int purged = revokedUserRepo.deleteRevokedBefore(LocalDateTime.now().minus(JwtServiceImpl.ACCESS_TOKEN_TTL));
+        if (purged > 0) {
+            logger.debug("Purged {} revoked users", purged);
+        }
+    }
+
+    private record Entry(long minVersion, LocalDateTime revokedAt) {
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.response.card.balance.BalanceEvent;
+import com.example.bankcards.exception.card.BalanceStreamLimitException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * In-process fan-out of card balance changes to server-sent event subscribers.
+ * <p>
+ * Writers call {@link #publishAfterCommit} while they still hold the card row lock. The change gets a sequence
+ * number right away, so for one card the numbers follow the commit order, and is delivered once the transaction
+ * commits; a rolled back change is never sent. Delivery runs on a small sender pool, never on the committing thread.
+ * <p>
+ * Each subscriber keeps only its newest undelivered balance: a slow client skips intermediate values instead of
+ * building a queue, and an older value never overwrites a newer one. Connections are capped per user and in total.
+ * Only changes committed on this node are seen.
+ */
+@Component
+public class BalanceStreamHub {
+    private static final Logger log = LoggerFactory.getLogger(BalanceStreamHub.class);
+    static final String EVENT_NAME = "balance";
+    private static final long SNAPSHOT_SEQUENCE = 0;
+
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> connectionsPerUser = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService senders;
+    private final int maxConnections;
+    private final int maxConnectionsPerUser;
+    private final Duration timeout;
+
+    public BalanceStreamHub(MeterRegistry meterRegistry,
+                            @Value("${card.balance-stream.max-connections:10000}") int maxConnections,
+                            @Value("${card.balance-stream.max-connections-per-user:5}") int maxConnectionsPerUser,
+                            @Value("${card.balance-stream.timeout:PT30M}") Duration timeout,
+                            @Value("${card.balance-stream.sender-threads:4}") int senderThreads) {
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.timeout = timeout;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "balance-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("bank.balance.stream.connections", connections, AtomicInteger::get)
+                .description("Open balance stream connections")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        subscriptions.values().forEach(cardSubscriptions -> cardSubscriptions.forEach(subscription -> subscription.emitter.complete()));
+    }
+
+    /**
+     * Opens a stream of the card's balance. The subscription is registered before {@code snapshot} reads the
+     * current balance, so a change committed in between is delivered too. {@code snapshot} is also expected to
+     * check access; whatever it throws closes the subscription and is rethrown.
+     */
+    public SseEmitter subscribe(Long cardId, String username, Supplier<String> snapshot) {
+        reserve(username);
+        Subscription subscription = new Subscription(cardId, username, newEmitter());
+        subscriptions.compute(cardId, (id, cardSubscriptions) -> {
+            Set<Subscription> updated = cardSubscriptions != null ? cardSubscriptions : ConcurrentHashMap.newKeySet();
+            updated.add(subscription);
+            return updated;
+        });
+        SseEmitter emitter = subscription.emitter;
+        emitter.onCompletion(() -> remove(subscription));
+        // completing on timeout ends the response normally instead of raising AsyncRequestTimeoutException
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> remove(subscription));
+
+        String balance;
+        try {
+            balance = snapshot.get();
+        } catch (RuntimeException e) {
+            remove(subscription);
+            throw e;
+        }
+        subscription.offer(new Pending(SNAPSHOT_SEQUENCE, new BalanceEvent(cardId, balance)));
+        log.debug("User {} subscribed to balance of card {}, {} connections open", username, cardId, connections.get());
+        return emitter;
+    }
+
+    public void publishAfterCommit(Long cardId, BigDecimal balance) {
+        publishAfterCommit(Map.of(cardId, balance));
+    }
+
+    /**
+     * Publishes the new balances of cards changed by the current transaction once it commits, or right away
+     * when no transaction is active. Must be called while the changed rows are still locked.
+     */
+    public void publishAfterCommit(Map<Long, BigDecimal> balances) {
+        long changeSequence = sequence.incrementAndGet();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deliver(changeSequence, balances);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deliver(changeSequence, balances);
+            }
+        });
+    }
+
+    /**
+     * Keeps idle connections open through proxies and detects clients that went away without closing.
+     */
+    @Scheduled(fixedDelayString = "${card.balance-stream.heartbeat-interval:PT25S}")
+    public void heartbeat() {
+        subscriptions.values().forEach(cardSubscriptions -> cardSubscriptions.forEach(Subscription::heartbeat));
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    private void deliver(long changeSequence, Map<Long, BigDecimal> balances) {
+        balances.forEach((cardId, balance) -> {
+            Set<Subscription> cardSubscriptions = subscriptions.get(cardId);
+            if (cardSubscriptions == null || cardSubscriptions.isEmpty()) {
+                return;
+            }
+            Pending pending = new Pending(changeSequence, new BalanceEvent(cardId, CardReadRules.formatBalance(balance)));
+            cardSubscriptions.forEach(subscription -> subscription.offer(pending));
+        });
+    }
+
+    private void reserve(String username) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            log.warn("Balance stream rejected for user {}: {} connections open", username, maxConnections);
+            throw new BalanceStreamLimitException("Too many balance streams are open, try again later");
+        }
+        try {
+            connectionsPerUser.merge(username, 1, (open, one) -> {
+                if (open >= maxConnectionsPerUser) {
+                    throw new BalanceStreamLimitException("At most " + maxConnectionsPerUser + " balance streams per user can be open");
+                }
+                return open + one;
+            });
+        } catch (BalanceStreamLimitException e) {
+            connections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        if (!subscription.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriptions.computeIfPresent(subscription.cardId, (cardId, cardSubscriptions) -> {
+            cardSubscriptions.remove(subscription);
+            return cardSubscriptions.isEmpty() ? null : cardSubscriptions;
+        });
+        connectionsPerUser.computeIfPresent(subscription.username, (username, open) -> open <= 1 ? null : open - 1);
+        connections.decrementAndGet();
+        log.debug("Balance stream of card {} for user {} closed", subscription.cardId, subscription.username);
+    }
+
+    private record Pending(long sequence, BalanceEvent event) {
+    }
+
+    private final class Subscription {
+        private final Long cardId;
+        private final String username;
+        private final SseEmitter emitter;
+        private final AtomicReference<Pending> pending = new AtomicReference<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        // the snapshot uses sequence 0, so it is only sent if no change got through before it
+        private long lastSequence = -1;
+
+        private Subscription(Long cardId, String username, SseEmitter emitter) {
+            this.cardId = cardId;
+            this.username = username;
+            this.emitter = emitter;
+        }
+
+        void offer(Pending next) {
+            pending.accumulateAndGet(next, (current, offered) ->
+                    current == null || offered.sequence() > current.sequence() ? offered : current);
+            schedule();
+        }
+
+        void heartbeat() {
+            heartbeatDue = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (closed.get() || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+
+        /**
+         * Runs on one sender thread at a time per subscription, guarded by {@link #scheduled}.
+         */
+        private void drain() {
+            try {
+                Pending next;
+                while (!closed.get() && ((next = pending.getAndSet(null)) != null || heartbeatDue)) {
+                    if (next != null && next.sequence() > lastSequence) {
+                        emitter.send(SseEmitter.event()
+                                .name(EVENT_NAME)
+                                .id(Long.toString(next.sequence()))
+                                .data(next.event(), MediaType.APPLICATION_JSON));
+                        lastSequence = next.sequence();
+                        heartbeatDue = false;
+                    } else if (next == null) {
+                        heartbeatDue = false;
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Balance stream of card {} for user {} failed: {}", cardId, username, e.getMessage());
+                remove(this);
+                emitter.completeWithError(e);
+            } finally {
+                scheduled.set(false);
+            }
+            if (!closed.get() && (pending.get() != null || heartbeatDue)) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.util.CardUtil;
+import com.example.bankcards.util.encrypt.AESUtil;
+import com.example.bankcards.util.encrypt.CardFingerprintUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Online backfill of {@code card.card_number_last4} and {@code card.card_number_fingerprint} for cards created
+ * before those columns existed. The legacy {@code card_number_hash} is kept, and still written for new cards:
+ * nodes of the previous release find cards and check number uniqueness by it alone, so it may only be cleared
+ * or dropped in a later release, once every node reads fingerprints.
+ * <p>
+ * Rows are processed in small id-ordered batches, each in its own short transaction. Only the
+ * rows of the current batch are locked ({@code FOR UPDATE SKIP LOCKED}), so regular traffic on the
+ * {@code card} table is never blocked and rows locked by it are picked up on a later run.
+ * Once a run finds nothing to fill, the job only looks again every {@code card.backfill.idle-interval}, which
+ * still picks up rows that were locked and rows inserted by nodes of the previous release during a rolling deploy.
+ */
+@Component
+public class CardBackfillJob {
+    private static final Logger logger = LoggerFactory.getLogger(CardBackfillJob.class);
+
+    private static final String SELECT_BATCH = """
+            SELECT id, encrypted_card_number FROM card
+            WHERE (card_number_last4 IS NULL OR card_number_fingerprint IS NULL)
+              AND encrypted_card_number IS NOT NULL AND id > ?
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+    private static final String UPDATE_CARD = """
+            UPDATE card SET card_number_last4 = ?, card_number_fingerprint = ?
+            WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AESUtil aesUtil;
+    private final CardUtil cardUtil;
+    private final CardFingerprintUtil fingerprintUtil;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long idleIntervalNanos;
+
+    private volatile long idleUntil;
+    private volatile boolean idle;
+
+    public CardBackfillJob(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           AESUtil aesUtil,
+                           CardUtil cardUtil,
+                           CardFingerprintUtil fingerprintUtil,
+                           @Value("${card.backfill.enabled:true}") boolean enabled,
+                           @Value("${card.backfill.batch-size:500}") int batchSize,
+                           @Value("${card.backfill.idle-interval:PT15M}") Duration idleInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.aesUtil = aesUtil;
+        this.cardUtil = cardUtil;
+        this.fingerprintUtil = fingerprintUtil;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.idleIntervalNanos = idleInterval.toNanos();
+    }
+
+    @Scheduled(initialDelayString = "${card.backfill.initial-delay:PT10S}",
+            fixedDelayString = "${card.backfill.interval:PT1M}")
+    public void run() {
+        if (!enabled || (idle && System.nanoTime() - idleUntil < 0)) {
+            return;
+        }
+        long lastId = 0;
+        int filled = 0;
+        int skipped = 0;
+        while (true) {
+            BatchResult batch = backfillBatch(lastId);
+            if (batch == null) {
+                break;
+            }
+            lastId = batch.lastId();
+            filled += batch.filled();
+            skipped += batch.skipped();
+        }
+        if (filled > 0 || skipped > 0) {
+            logger.info("Card backfill: {} cards filled, {} could not be decrypted", filled, skipped);
+        }
+        // Undecryptable rows stay NULL forever, so an empty run means there is nothing to do for now
+        idle = filled == 0;
+        idleUntil = System.nanoTime() + idleIntervalNanos;
+    }
+
+    /**
+     * Fills one batch of cards with ids greater than {@code afterId}.
+     *
+     * @return the batch result, or {@code null} when no rows are left
+     */
+    BatchResult backfillBatch(long afterId) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>(batchSize);
+            List<String> encrypted = new ArrayList<>(batchSize);
+            jdbcTemplate.query(SELECT_BATCH, rs -> {
+                ids.add(rs.getLong(1));
+                encrypted.add(rs.getString(2));
+            }, afterId, batchSize);
+            if (ids.isEmpty()) {
+                return null;
+            }
+
+            List<String> decrypted = aesUtil.decryptAll(encrypted);
+            List<Object[]> updates = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                String cardNumber = decrypted.get(i);
+                if (cardNumber == null || cardNumber.length() < 4) {
+                    continue;
+                }
+                try {
+                    updates.add(new Object[]{cardUtil.lastFour(cardNumber), fingerprintUtil.fingerprint(cardNumber), ids.get(i)});
+                } catch (IllegalArgumentException e) {
+                    // not a card number; counted as skipped like an undecryptable row
+                }
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_CARD, updates);
+            }
+            return new BatchResult(ids.get(ids.size() - 1), updates.size(), ids.size() - updates.size());
+        });
+    }
+
+    record BatchResult(long lastId, int filled, int skipped) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.request.export.CardExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface CardExportService {
+
+    /**
+     * Writes every card, with a masked number and its owner, to {@code out} in id order.
+     * {@code out} is flushed but not closed.
+     *
+     * @return number of cards written
+     */
+    long export(CardExportFormat format, OutputStream out) throws IOException;
+}
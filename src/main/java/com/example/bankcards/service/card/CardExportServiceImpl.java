@@ -0,0 +1,142 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.request.export.CardExportFormat;
+import com.example.bankcards.repository.CardExportRepo;
+import com.example.bankcards.repository.projection.CardExportView;
+import com.example.bankcards.util.CardUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams the card table row by row from a database cursor straight into the response: nothing but the current
+ * row is held in memory. The read-only transaction keeps the cursor open for the whole export.
+ */
+@Service
+public class CardExportServiceImpl implements CardExportService {
+    private static final Logger log = LoggerFactory.getLogger(CardExportServiceImpl.class);
+    private static final String CSV_HEADER = "id,owner_id,owner,card_number,expiration_date,state,balance\n";
+
+    private final CardExportRepo cardExportRepo;
+    private final CardUtil cardUtil;
+    private final ObjectMapper objectMapper;
+
+    public CardExportServiceImpl(CardExportRepo cardExportRepo, CardUtil cardUtil, ObjectMapper objectMapper) {
+        this.cardExportRepo = cardExportRepo;
+        this.cardUtil = cardUtil;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long export(CardExportFormat format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long rows;
+        try {
+            rows = switch (format) {
+                case NDJSON -> exportNdjson(out);
+                case CSV -> exportCsv(out);
+            };
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exported {} cards as {} in {} ms", rows, format, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private long exportNdjson(OutputStream out) throws IOException {
+        long[] rows = {0};
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            cardExportRepo.forEach(card -> {
+                try {
+                    json.writeStartObject();
+                    json.writeNumberField("id", card.id());
+                    writeNullableNumber(json, "ownerId", card.ownerId());
+                    json.writeStringField("owner", card.ownerName());
+                    json.writeStringField("cardNumber", maskedCardNumber(card));
+                    json.writeStringField("expirationDate", card.expirationDate() == null ? null : card.expirationDate().toString());
+                    json.writeStringField("state", card.state() == null ? null : card.state().name());
+                    json.writeNumberField("balance", card.balance());
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return rows[0];
+    }
+
+    private long exportCsv(OutputStream out) throws IOException {
+        long[] rows = {0};
+        Writer csv = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        csv.write(CSV_HEADER);
+        cardExportRepo.forEach(card -> {
+            try {
+                csv.write(String.valueOf(card.id()));
+                csv.write(',');
+                csv.write(card.ownerId() == null ? "" : card.ownerId().toString());
+                csv.write(',');
+                csv.write(csvField(card.ownerName()));
+                csv.write(',');
+                csv.write(maskedCardNumber(card));
+                csv.write(',');
+                csv.write(card.expirationDate() == null ? "" : card.expirationDate().toString());
+                csv.write(',');
+                csv.write(card.state() == null ? "" : card.state().name());
+                csv.write(',');
+                csv.write(card.balance() == null ? "" : card.balance().toPlainString());
+                csv.write('\n');
+                rows[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        csv.flush();
+        return rows[0];
+    }
+
+    private String maskedCardNumber(CardExportView card) {
+        return cardUtil.maskCardNumber(card.cardNumberLast4(), card.encryptedCardNumber());
+    }
+
+    private static void writeNullableNumber(JsonGenerator json, String field, Long value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+
+    /**
+     * Quotes a value containing a separator, quote or line break. A leading {@code = + - @} is prefixed with
+     * {@code '} so spreadsheet programs do not evaluate a user-chosen name as a formula.
+     */
+    static String csvField(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            value = "'" + value;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
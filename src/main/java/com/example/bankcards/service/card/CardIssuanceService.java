@@ -0,0 +1,26 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.request.issuance.IssuanceOrder;
+import com.example.bankcards.dto.response.card.issuance.CardIssuanceEvent;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface CardIssuanceService {
+
+    /**
+     * Parses {@code ownerName,count} lines. Blank lines and a header line are skipped.
+     */
+    List<IssuanceOrder> parseCsv(Reader csv);
+
+    /**
+     * Checks that every owner exists and the counts are within limits, before anything is issued.
+     */
+    void validate(List<IssuanceOrder> orders);
+
+    /**
+     * Issues the cards of every order, reporting each committed chunk to {@code listener} on the calling thread.
+     */
+    void issue(List<IssuanceOrder> orders, Consumer<CardIssuanceEvent> listener);
+}
@@ -0,0 +1,313 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.request.issuance.IssuanceOrder;
+import com.example.bankcards.dto.response.card.CardDtoResponse;
+import com.example.bankcards.dto.response.card.issuance.CardIssuanceEvent;
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.State;
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.exception.card.CardCreationException;
+import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.service.card.CardNumberPool.ReservedNumber;
+import com.example.bankcards.service.user.UserService;
+import com.example.bankcards.util.CardUtil;
+import com.example.bankcards.util.encrypt.AESUtil;
+import com.example.bankcards.util.encrypt.HashUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Bulk card issuance as a two-stage pipeline. A worker pool takes the next chunk of card numbers from the
+ * {@link CardNumberPool} and encrypts it while the current chunk is inserted in its own transaction. Pooled numbers
+ * are already checked against the stored ones, so only a failed insert queries for collisions. Card ids come from a
+ * pooled sequence, so Hibernate sends the inserts as JDBC batches.
+ * <p>
+ * Chunks are committed one by one: when issuance stops with an error, the cards already reported stay issued.
+ */
+@Service
+public class CardIssuanceServiceImpl implements CardIssuanceService {
+    private static final Logger log = LoggerFactory.getLogger(CardIssuanceServiceImpl.class);
+    private static final int MAX_COLLISION_ROUNDS = 10;
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    private final CardRepo cardRepo;
+    private final CardNumberPool cardNumberPool;
+    private final UserService userService;
+    private final AESUtil aesUtil;
+    private final CardUtil cardUtil;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxCards;
+    private final int chunkSize;
+    private final int workerCount;
+    private final ExecutorService workers;
+
+    public CardIssuanceServiceImpl(CardRepo cardRepo,
+                                   CardNumberPool cardNumberPool,
+                                   UserService userService,
+                                   AESUtil aesUtil,
+                                   CardUtil cardUtil,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${card.issuance.max-cards:100000}") int maxCards,
+                                   @Value("${card.issuance.chunk-size:500}") int chunkSize,
+                                   @Value("${card.issuance.workers:4}") int workerCount) {
+        this.cardRepo = cardRepo;
+        this.cardNumberPool = cardNumberPool;
+        this.userService = userService;
+        this.aesUtil = aesUtil;
+        this.cardUtil = cardUtil;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxCards = maxCards;
+        this.chunkSize = chunkSize;
+        this.workerCount = workerCount;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "card-issuance-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Override
+    public List<IssuanceOrder> parseCsv(Reader csv) {
+        List<IssuanceOrder> orders = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(csv);
+        try {
+            String line;
+            int lineNumber = 0;
+            boolean firstLine = true;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] columns = line.split(",", -1);
+                if (columns.length != 2) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": expected 'ownerName,count'");
+                }
+                String ownerName = columns[0].trim();
+                String count = columns[1].trim();
+                if (firstLine) {
+                    firstLine = false;
+                    if (!count.isEmpty() && !count.chars().allMatch(Character::isDigit)) {
+                        continue;
+                    }
+                }
+                try {
+                    orders.add(new IssuanceOrder(ownerName, Integer.parseInt(count)));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": invalid count '" + count + "'");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return orders;
+    }
+
+    @Override
+    public void validate(List<IssuanceOrder> orders) {
+        if (orders.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to issue");
+        }
+        long total = 0;
+        for (IssuanceOrder order : orders) {
+            if (order.ownerName() == null || order.ownerName().isBlank()) {
+                throw new IllegalArgumentException("Owner name is required");
+            }
+            if (order.count() < 1) {
+                throw new IllegalArgumentException("Count must be positive for owner " + order.ownerName());
+            }
+            total += order.count();
+            userService.getUserByName(order.ownerName());
+        }
+        if (total > maxCards) {
+            throw new IllegalArgumentException("At most " + maxCards + " cards can be issued at once");
+        }
+    }
+
+    @Override
+    public void issue(List<IssuanceOrder> orders, Consumer<CardIssuanceEvent> listener) {
+        Set<ByteBuffer> issuedFingerprints = new HashSet<>();
+        for (IssuanceOrder order : orders) {
+            MyUser owner = userService.getUserByName(order.ownerName());
+            long start = System.nanoTime();
+            issue(owner, order.count(), issuedFingerprints, listener);
+            log.info("Issued {} cards for user {} in {} ms", order.count(), owner.getName(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void issue(MyUser owner, int count, Set<ByteBuffer> issuedFingerprints, Consumer<CardIssuanceEvent> listener) {
+        int issued = 0;
+        CompletableFuture<List<GeneratedCard>> next = generateAsync(Math.min(chunkSize, count));
+        try {
+            while (next != null) {
+                List<GeneratedCard> chunk = join(next);
+                int remaining = count - issued - chunk.size();
+                // the pool prepares the next chunk while this one is checked and inserted
+                next = remaining > 0 ? generateAsync(Math.min(chunkSize, remaining)) : null;
+
+                List<CardDtoResponse> cards = insert(owner, chunk, issuedFingerprints);
+                issued += cards.size();
+                listener.accept(CardIssuanceEvent.progress(owner.getName(), issued, count, cards));
+            }
+        } finally {
+            if (next != null) {
+                next.cancel(true);
+            }
+        }
+    }
+
+    private List<CardDtoResponse> insert(MyUser owner, List<GeneratedCard> chunk, Set<ByteBuffer> issuedFingerprints) {
+        List<GeneratedCard> unique = replaceCollisions(chunk, Set.of(), issuedFingerprints);
+        for (int attempt = 1; ; attempt++) {
+            List<GeneratedCard> cards = unique;
+            try {
+                List<Card> saved = transactionTemplate.execute(status ->
+                        cardRepo.saveAll(cards.stream().map(card -> toEntity(owner, card)).toList()));
+                List<CardDtoResponse> result = new ArrayList<>(cards.size());
+                for (int i = 0; i < cards.size(); i++) {
+                    Card card = saved.get(i);
+                    result.add(new CardDtoResponse(card.getId(), cards.get(i).number(),
+                            cardUtil.maskCardNumber(card.getCardNumberLast4()), card.getExpirationDate(),
+                            card.getState(), card.getBalance()));
+                }
+                return result;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_INSERT_ATTEMPTS) {
+                    throw new CardCreationException("Failed to store issued cards", e);
+                }
+                // another node issued one of these numbers after it was pooled here
+                log.warn("Card number collision while inserting a chunk of {} cards, retrying", cards.size());
+                cards.forEach(card -> issuedFingerprints.remove(card.key()));
+                unique = replaceCollisions(cards, storedFingerprints(cards), issuedFingerprints);
+            }
+        }
+    }
+
+    /**
+     * Fingerprints of the cards whose number is already stored, found by fingerprint or, for a card inserted by a node
+     * of the previous release, by its legacy hash only.
+     */
+    private Set<ByteBuffer> storedFingerprints(List<GeneratedCard> cards) {
+        Set<ByteBuffer> stored = new HashSet<>();
+        cardRepo.findExistingFingerprints(cards.stream().map(GeneratedCard::fingerprint).toList())
+                .forEach(fingerprint -> stored.add(ByteBuffer.wrap(fingerprint)));
+        Set<String> storedHashes = new HashSet<>(cardRepo.findExistingHashes(cards.stream().map(GeneratedCard::legacyHash).toList()));
+        cards.stream()
+                .filter(card -> storedHashes.contains(card.legacyHash()))
+                .forEach(card -> stored.add(card.key()));
+        return stored;
+    }
+
+    /**
+     * Replaces cards whose number is in {@code stored} or was issued earlier in this run.
+     */
+    private List<GeneratedCard> replaceCollisions(List<GeneratedCard> cards, Set<ByteBuffer> stored, Set<ByteBuffer> issuedFingerprints) {
+        List<GeneratedCard> accepted = new ArrayList<>(cards.size());
+        List<GeneratedCard> candidates = cards;
+        for (int round = 0; round < MAX_COLLISION_ROUNDS; round++) {
+            int rejected = 0;
+            for (GeneratedCard card : candidates) {
+                if (!stored.contains(card.key()) && issuedFingerprints.add(card.key())) {
+                    accepted.add(card);
+                } else {
+                    rejected++;
+                }
+            }
+            if (rejected == 0) {
+                return accepted;
+            }
+            log.debug("Regenerating {} colliding card numbers", rejected);
+            candidates = generate(rejected);
+        }
+        throw new CardCreationException("Could not generate unique card numbers");
+    }
+
+    private CompletableFuture<List<GeneratedCard>> generateAsync(int count) {
+        int slice = (count + workerCount - 1) / workerCount;
+        List<CompletableFuture<List<GeneratedCard>>> parts = new ArrayList<>(workerCount);
+        for (int from = 0; from < count; from += slice) {
+            int size = Math.min(slice, count - from);
+            parts.add(CompletableFuture.supplyAsync(() -> generate(size), workers));
+        }
+        return CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> parts.stream().flatMap(part -> part.join().stream()).toList());
+    }
+
+    private List<GeneratedCard> generate(int count) {
+        List<GeneratedCard> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ReservedNumber number = cardNumberPool.take();
+            try {
+                cards.add(new GeneratedCard(number.number(), number.fingerprint(), HashUtil.hash(number.number()),
+                        aesUtil.encrypt(number.number()), cardUtil.lastFour(number.number())));
+            } catch (Exception e) {
+                throw new CardCreationException("Failed to encrypt card number", e);
+            }
+        }
+        return cards;
+    }
+
+    private Card toEntity(MyUser owner, GeneratedCard generated) {
+        Card card = new Card();
+        card.setOwner(owner);
+        card.setEncryptedCardNumber(generated.encrypted());
+        card.setCardNumberFingerprint(generated.fingerprint());
+        card.setCardNumberHash(generated.legacyHash());
+        card.setCardNumberLast4(generated.last4());
+        card.setExpirationDate(LocalDate.now().plusYears(3));
+        card.setState(State.ACTIVE);
+        card.setBalance(BigDecimal.ZERO);
+        return card;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * {@code legacyHash} is still written so that nodes of the previous release, which look cards up and check
+     * uniqueness by {@code card_number_hash} only, see the card during a rolling deploy.
+     */
+    private record GeneratedCard(String number, byte[] fingerprint, String legacyHash, String encrypted, String last4) {
+        ByteBuffer key() {
+            return ByteBuffer.wrap(fingerprint);
+        }
+    }
+}
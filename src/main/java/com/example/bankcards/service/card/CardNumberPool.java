@@ -0,0 +1,184 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.exception.card.CardCreationException;
+import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.util.encrypt.CardFingerprintUtil;
+import com.example.bankcards.util.encrypt.CardNumberGenerator;
+import com.example.bankcards.util.encrypt.CardNumberGenerator.BinRange;
+import com.example.bankcards.util.encrypt.HashUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pool of card numbers that are already known not to be stored.
+ * <p>
+ * Numbers are generated in batches and checked against the stored fingerprints with one {@code IN} query per batch,
+ * plus one against {@code card_number_hash} for cards that are not backfilled yet. A background thread tops the pool
+ * up whenever it drops below the low watermark, so issuing a card normally takes a number from memory without
+ * touching the database. When the pool runs dry the caller fills a batch itself.
+ * <p>
+ * The reservation is local to this node: a number can still be taken by another node between the check and the
+ * insert, which the unique constraint on the fingerprint reports as usual.
+ */
+@Component
+public class CardNumberPool {
+    private static final Logger log = LoggerFactory.getLogger(CardNumberPool.class);
+    private static final int MAX_FILL_ROUNDS = 10;
+
+    private final CardRepo cardRepo;
+    private final CardFingerprintUtil fingerprintUtil;
+    private final List<BinRange> binRanges;
+    private final int batchSize;
+    private final int lowWatermark;
+    private final BlockingQueue<ReservedNumber> pool;
+    // fingerprints currently in the pool, so a refill never queues the same number twice
+    private final Set<ByteBuffer> pooledFingerprints = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final ExecutorService refiller = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "card-number-pool");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CardNumberPool(CardRepo cardRepo,
+                          CardFingerprintUtil fingerprintUtil,
+                          @Value("${card.number.bin-ranges:400000}") List<String> binRanges,
+                          @Value("${card.number.pool.capacity:10000}") int capacity,
+                          @Value("${card.number.pool.batch-size:1000}") int batchSize) {
+        this.cardRepo = cardRepo;
+        this.fingerprintUtil = fingerprintUtil;
+        this.binRanges = binRanges.stream().map(BinRange::parse).toList();
+        this.batchSize = Math.min(batchSize, capacity);
+        this.lowWatermark = capacity / 4;
+        this.pool = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prefill() {
+        scheduleRefill();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refiller.shutdownNow();
+    }
+
+    /**
+     * Takes a number that was not stored when the pool was filled.
+     */
+    public ReservedNumber take() {
+        ReservedNumber number = pool.poll();
+        if (number != null) {
+            pooledFingerprints.remove(number.key());
+        } else {
+            log.debug("Card number pool is empty, filling a batch on the calling thread");
+            List<ReservedNumber> batch = generateUnique(batchSize);
+            number = batch.get(0);
+            offer(batch.subList(1, batch.size()));
+        }
+        if (pool.size() < lowWatermark) {
+            scheduleRefill();
+        }
+        return number;
+    }
+
+    public int size() {
+        return pool.size();
+    }
+
+    private void scheduleRefill() {
+        if (!refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refiller.execute(() -> {
+                try {
+                    while (pool.remainingCapacity() >= batchSize) {
+                        offer(generateUnique(batchSize));
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Card number pool refill failed: {}", e.getMessage());
+                } finally {
+                    refilling.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            // the executor is shut down
+            refilling.set(false);
+        }
+    }
+
+    private void offer(List<ReservedNumber> numbers) {
+        for (ReservedNumber number : numbers) {
+            if (!pooledFingerprints.add(number.key())) {
+                continue;
+            }
+            if (!pool.offer(number)) {
+                pooledFingerprints.remove(number.key());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Generates {@code count} numbers that are unique within the batch and not stored yet.
+     */
+    List<ReservedNumber> generateUnique(int count) {
+        List<ReservedNumber> result = new ArrayList<>(count);
+        Set<ByteBuffer> batchFingerprints = new HashSet<>(count * 2);
+        for (int round = 0; round < MAX_FILL_ROUNDS && result.size() < count; round++) {
+            List<ReservedNumber> candidates = new ArrayList<>(count - result.size());
+            while (candidates.size() < count - result.size()) {
+                char[] digits = CardNumberGenerator.generateDigits(binRanges);
+                ReservedNumber candidate = new ReservedNumber(new String(digits), fingerprintUtil.fingerprint(digits));
+                if (batchFingerprints.add(candidate.key())) {
+                    candidates.add(candidate);
+                }
+            }
+            Set<ByteBuffer> stored = new HashSet<>();
+            cardRepo.findExistingFingerprints(candidates.stream().map(ReservedNumber::fingerprint).toList())
+                    .forEach(fingerprint -> stored.add(ByteBuffer.wrap(fingerprint)));
+            List<String> legacyHashes = candidates.stream().map(candidate -> HashUtil.hash(candidate.number())).toList();
+            Set<String> storedLegacy = new HashSet<>(cardRepo.findExistingHashes(legacyHashes));
+            for (int i = 0; i < candidates.size(); i++) {
+                ReservedNumber candidate = candidates.get(i);
+                if (!stored.contains(candidate.key()) && !storedLegacy.contains(legacyHashes.get(i))) {
+                    result.add(candidate);
+                }
+            }
+            if (!stored.isEmpty() || !storedLegacy.isEmpty()) {
+                log.debug("Discarded {} generated card numbers that are already stored", stored.size() + storedLegacy.size());
+            }
+        }
+        if (result.isEmpty()) {
+            throw new CardCreationException("Could not generate unique card numbers");
+        }
+        return result;
+    }
+
+    public record ReservedNumber(String number, byte[] fingerprint) {
+        /**
+         * Content-based key of the fingerprint, for sets and maps.
+         */
+        public ByteBuffer key() {
+            return ByteBuffer.wrap(fingerprint);
+        }
+    }
+}
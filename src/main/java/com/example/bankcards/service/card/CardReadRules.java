@@ -0,0 +1,41 @@
+package com.example.bankcards.service.card;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.util.Collection;
+
+/**
+ * Rules shared by the blocking ({@link CardServiceImpl}) and reactive ({@link ReactiveCardQueryServiceImpl})
+ * read paths, so both answer the same request the same way.
+ */
+final class CardReadRules {
+    static final String ACCESS_DENIED = "Access denied: you are neither the owner nor the admin";
+    static final String NOT_FOUND_BY_ID = "Card with this id doesn't exist";
+    static final String NOT_FOUND_BY_NUMBER = "Card with this numbers doesn't exist";
+
+    private CardReadRules() {
+    }
+
+    /**
+     * A card may be read by its owner or by an admin.
+     */
+    static boolean canRead(boolean owner, Collection<String> currentUserRoles) {
+        return owner || isAdmin(currentUserRoles);
+    }
+
+    static boolean isAdmin(Collection<String> roles) {
+        return roles.stream().anyMatch(role -> role.equals("ADMIN"));
+    }
+
+    /**
+     * Only up to 19 digits can be a stored card number; anything else is reported as not found without a lookup.
+     */
+    static boolean isWellFormedCardNumber(String cardNumber) {
+        return cardNumber != null && !cardNumber.isEmpty() && cardNumber.length() <= 19
+                && cardNumber.chars().allMatch(c -> c >= '0' && c <= '9');
+    }
+
+    static String formatBalance(BigDecimal balance) {
+        return new DecimalFormat("#,##0.00").format(balance);
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.bankcards.service.card;
 
+import com.example.bankcards.dto.request.transfer.BatchTransferRequest;
 import com.example.bankcards.dto.response.card.CardDtoResponse;
 import com.example.bankcards.dto.response.card.pagination.card.CardDtoForSearchResponse;
 import com.example.bankcards.dto.response.card.pagination.card.CardPageResponse;
+import com.example.bankcards.dto.response.card.pagination.card.CardSliceResponse;
 import com.example.bankcards.dto.response.card.pagination.cardBlockRequest.BlockRequestPageResponse;
+import com.example.bankcards.dto.response.card.pagination.cardBlockRequest.BlockRequestSliceResponse;
+import com.example.bankcards.dto.response.card.statement.StatementResponse;
+import com.example.bankcards.dto.response.card.transfer.BatchTransferResponse;
 import com.example.bankcards.entity.card.Card;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Optional;
 
 public interface CardService {
@@ -27,12 +33,22 @@ public interface CardService {
 
     void transferMoney(Long fromCardId, Long toCardId, BigDecimal amount);
 
+    BatchTransferResponse transferBatch(BatchTransferRequest request);
+
     CardPageResponse getUserCards(String ownerName, int limit, int pageNumber);
 
     BlockRequestPageResponse getBlockRequests(int limit, int pageNumber);
 
     CardPageResponse getAllCards(int limit, int pageNumber);
 
+    CardSliceResponse scrollUserCards(String ownerName, String cursor, int limit, boolean withCount);
+
+    BlockRequestSliceResponse scrollBlockRequests(String cursor, int limit, boolean withCount);
+
+    CardSliceResponse scrollAllCards(String cursor, int limit, boolean withCount);
+
     CardDtoForSearchResponse getCardByNumber(String cardNumber);
     CardDtoForSearchResponse getCardById(Long cardId);
+
+    StatementResponse getStatement(Long cardId, LocalDate from, LocalDate to, String cursor, int limit);
 }
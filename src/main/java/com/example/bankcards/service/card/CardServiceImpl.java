@@ -1,13 +1,30 @@
 package com.example.bankcards.service.card;
 
 
+import com.example.bankcards.dto.event.CardBalanceChanged;
+import com.example.bankcards.dto.event.CardBlockRequested;
+import com.example.bankcards.dto.event.CardDeleted;
+import com.example.bankcards.dto.event.CardStateChanged;
+import com.example.bankcards.dto.request.transfer.BatchMode;
+import com.example.bankcards.dto.request.transfer.BatchTransferRequest;
+import com.example.bankcards.dto.request.transfer.TransferInstruction;
 import com.example.bankcards.dto.response.card.CardDtoResponse;
 import com.example.bankcards.dto.response.card.pagination.card.CardDtoForSearchResponse;
 import com.example.bankcards.dto.response.card.pagination.card.CardPageResponse;
+import com.example.bankcards.dto.response.card.pagination.card.CardSliceResponse;
 import com.example.bankcards.dto.response.card.pagination.cardBlockRequest.BlockRequestPageResponse;
+import com.example.bankcards.dto.response.card.pagination.cardBlockRequest.BlockRequestSliceResponse;
+import com.example.bankcards.dto.response.card.statement.StatementEntryResponse;
+import com.example.bankcards.dto.response.card.statement.StatementResponse;
+import com.example.bankcards.dto.response.card.transfer.BatchTransferResponse;
+import com.example.bankcards.dto.response.card.transfer.TransferItemResult;
+import com.example.bankcards.dto.response.card.transfer.TransferItemStatus;
 import com.example.bankcards.entity.card.Card;
 import com.example.bankcards.entity.card.CardBlockRequest;
 import com.example.bankcards.entity.card.State;
+import com.example.bankcards.entity.ledger.LedgerEntry;
+import com.example.bankcards.entity.ledger.Operation;
+import com.example.bankcards.entity.outbox.OutboxEventType;
 import com.example.bankcards.entity.user.MyUser;
 import com.example.bankcards.exception.card.CardCreationException;
 import com.example.bankcards.exception.card.CardNotFoundException;
@@ -15,10 +32,15 @@ import com.example.bankcards.exception.card.InsufficientFundsException;
 import com.example.bankcards.exception.card.InvalidCardStateException;
 import com.example.bankcards.repository.CardBlockRequestRepo;
 import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.repository.LedgerEntryRepo;
+import com.example.bankcards.repository.projection.BlockRequestView;
+import com.example.bankcards.repository.projection.CardView;
+import com.example.bankcards.service.outbox.OutboxService;
 import com.example.bankcards.service.user.UserService;
 import com.example.bankcards.util.CardUtil;
+import com.example.bankcards.util.CursorUtil;
 import com.example.bankcards.util.encrypt.AESUtil;
-import com.example.bankcards.util.encrypt.CardNumberGenerator;
+import com.example.bankcards.util.encrypt.CardFingerprintUtil;
 import com.example.bankcards.util.encrypt.HashUtil;
 import com.example.bankcards.util.mapper.BlockRequestMapper;
 import com.example.bankcards.util.mapper.CardMapper;
@@ -26,20 +48,25 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.text.DecimalFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 
 @Service
 public class CardServiceImpl implements CardService{
     private static final Logger log = LoggerFactory.getLogger(CardServiceImpl.class);
+    static final int MAX_SCROLL_LIMIT = 1000;
+    static final int STATEMENT_DEFAULT_DAYS = 30;
+    static final int MAX_BATCH_TRANSFERS = 1000;
     private final CardRepo cardRepo;
     private final UserService userService;
     private final AESUtil aesUtil;
@@ -47,8 +74,14 @@ public class CardServiceImpl implements CardService{
     private final CardBlockRequestRepo blockRequestRepo;
     private final CardUtil cardUtil;
     private final BlockRequestMapper blockRequestMapper;
-
-    public CardServiceImpl(CardRepo cardRepo, UserService userService, AESUtil aesUtil, CardMapper cardMapper, CardBlockRequestRepo blockRequestRepo, CardUtil cardUtil, BlockRequestMapper blockRequestMapper) {
+    private final TransferEngine transferEngine;
+    private final LedgerEntryRepo ledgerEntryRepo;
+    private final CardNumberPool cardNumberPool;
+    private final CardFingerprintUtil fingerprintUtil;
+    private final BalanceStreamHub balanceStreamHub;
+    private final OutboxService outboxService;
+
+    public CardServiceImpl(CardRepo cardRepo, UserService userService, AESUtil aesUtil, CardMapper cardMapper, CardBlockRequestRepo blockRequestRepo, CardUtil cardUtil, BlockRequestMapper blockRequestMapper, TransferEngine transferEngine, LedgerEntryRepo ledgerEntryRepo, CardNumberPool cardNumberPool, CardFingerprintUtil fingerprintUtil, BalanceStreamHub balanceStreamHub, OutboxService outboxService) {
         this.cardRepo = cardRepo;
         this.userService = userService;
         this.aesUtil = aesUtil;
@@ -56,14 +89,20 @@ public class CardServiceImpl implements CardService{
         this.blockRequestRepo = blockRequestRepo;
         this.cardUtil = cardUtil;
         this.blockRequestMapper = blockRequestMapper;
+        this.transferEngine = transferEngine;
+        this.ledgerEntryRepo = ledgerEntryRepo;
+        this.cardNumberPool = cardNumberPool;
+        this.fingerprintUtil = fingerprintUtil;
+        this.balanceStreamHub = balanceStreamHub;
+        this.outboxService = outboxService;
     }
 
     @Override
     public Optional<Card> findById(Long id) {
-        log.info("Finding card by id: {}", id);
+        log.debug("Finding card by id: {}", id);
         Optional<Card> optionalCard = cardRepo.findById(id);
         optionalCard.ifPresent(card -> {
-            log.info("Card found with id: {}, populating masked card number", id);
+            log.debug("Card found with id: {}, populating masked card number", id);
             cardUtil.populateMaskedCardNumber(card);
         });
         if (optionalCard.isEmpty()) {
@@ -72,15 +111,21 @@ public class CardServiceImpl implements CardService{
         return optionalCard;
     }
 
+    /**
+     * Looks the card up by its fingerprint and falls back to the legacy SHA-256 hash for cards that
+     * {@link CardBackfillJob} has not moved to the fingerprint yet.
+     */
     @Override
     public Card findByCardNumber(String cardNumber) {
-        String hash = HashUtil.hash(cardNumber);
-        log.debug("Finding card by card number hash: {}", hash);
+        if (!CardReadRules.isWellFormedCardNumber(cardNumber)) {
+            throw new CardNotFoundException(CardReadRules.NOT_FOUND_BY_NUMBER);
+        }
 
-        Card card = cardRepo.findByCardNumberHash(hash)
-                .orElseThrow(() -> new CardNotFoundException("Card with this numbers doesn't exist"));
+        Card card = cardRepo.findByCardNumberFingerprint(fingerprintUtil.fingerprint(cardNumber))
+                .or(() -> cardRepo.findByCardNumberHash(HashUtil.hash(cardNumber)))
+                .orElseThrow(() -> new CardNotFoundException(CardReadRules.NOT_FOUND_BY_NUMBER));
 
-        log.info("Card found, populating masked card number");
+        log.debug("Card found, populating masked card number");
         cardUtil.populateMaskedCardNumber(card);
         return card;
     }
@@ -88,7 +133,8 @@ public class CardServiceImpl implements CardService{
     @Override
     public CardDtoResponse createCard(String ownerName) {
         MyUser owner = userService.getUserByName(ownerName);
-        String cardNumber = CardNumberGenerator.generateCardNumber();
+        CardNumberPool.ReservedNumber reserved = cardNumberPool.take();
+        String cardNumber = reserved.number();
 
         try {
             String encryptedCardNumber = aesUtil.encrypt(cardNumber);
@@ -99,7 +145,10 @@ public class CardServiceImpl implements CardService{
             card.setExpirationDate(LocalDate.now().plusYears(3));
             card.setState(State.ACTIVE);
             card.setBalance(BigDecimal.ZERO);
+            card.setCardNumberFingerprint(reserved.fingerprint());
+            // read by nodes of the previous release during a rolling deploy, see CardBackfillJob
             card.setCardNumberHash(HashUtil.hash(cardNumber));
+            card.setCardNumberLast4(cardUtil.lastFour(cardNumber));
 
             cardRepo.save(card);
 
@@ -121,6 +170,10 @@ public class CardServiceImpl implements CardService{
         }
     }
 
+    /**
+     * Applies the credit with a single conditional {@code UPDATE ... RETURNING}; the card is only read
+     * to explain a rejected update.
+     */
     @Transactional
     @Override
     public void addMoney(Long cardId, BigDecimal amount) {
@@ -129,21 +182,24 @@ public class CardServiceImpl implements CardService{
             throw new IllegalArgumentException("Amount must be greater than zero");
         }
 
-        Card card = getCard(cardId);
-        if (checkInvalidCard(card)){
-            log.warn("Invalid card state detected: {}",
-                    card.getState());
-            throw new InvalidCardStateException("Account replenishment is impossible: card is inactive");
-        }
-
-        BigDecimal newBalance = card.getBalance().add(amount);
-        card.setBalance(newBalance);
-
-        cardRepo.save(card);
+        BigDecimal newBalance = cardRepo.addToBalance(cardId, amount).orElseThrow(() -> {
+            Card card = getCard(cardId);
+            log.warn("Invalid card state detected: {}", card.getState());
+            return new InvalidCardStateException("Account replenishment is impossible: card is inactive");
+        });
+        LedgerEntry entry = LedgerEntry.deposit(cardId, amount);
+        ledgerEntryRepo.insertAll(List.of(entry));
+        outboxService.append(OutboxEventType.CARD_BALANCE_CHANGED, cardId,
+                new CardBalanceChanged(cardId, Operation.DEPOSIT, amount, newBalance, entry.correlationId()));
+        balanceStreamHub.publishAfterCommit(cardId, newBalance);
 
         log.info("Added {} to card {}. New balance: {}", amount, cardId, newBalance);
     }
 
+    /**
+     * Applies the debit with a single conditional {@code UPDATE ... RETURNING} that also checks ownership,
+     * state, expiry and funds; the card is only read to explain a rejected update.
+     */
     @Transactional
     @Override
     public void withdrawMoney(Long cardId, BigDecimal amount) {
@@ -152,26 +208,30 @@ public class CardServiceImpl implements CardService{
             throw new IllegalArgumentException("Amount must be greater than zero");
         }
 
-        Card card = getCard(cardId);
-        checkPermission(card.getOwner());
-
-        if (checkInvalidCard(card)){
-            log.warn("Invalid card state detected: {}",
-                    card.getState());
-            throw new InvalidCardStateException("Withdrawal is not possible: card is inactive");
-        }
+        MyUser currentUser = userService.getCurrentUser();
+        Long ownerId = isAdmin(currentUser) ? null : currentUser.getId();
 
-        if (card.getBalance().compareTo(amount) < 0) {
-            log.warn("Insufficient funds: trying to withdraw {}, but balance is {}", amount, card.getBalance());
-            throw new IllegalStateException("Insufficient funds");
-        }
+        BigDecimal newBalance = cardRepo.withdrawFromBalance(cardId, amount, ownerId)
+                .orElseThrow(() -> rejectedWithdrawal(cardId, amount));
+        LedgerEntry entry = LedgerEntry.withdrawal(cardId, amount);
+        ledgerEntryRepo.insertAll(List.of(entry));
+        outboxService.append(OutboxEventType.CARD_BALANCE_CHANGED, cardId,
+                new CardBalanceChanged(cardId, Operation.WITHDRAWAL, amount.negate(), newBalance, entry.correlationId()));
+        balanceStreamHub.publishAfterCommit(cardId, newBalance);
 
-        BigDecimal newBalance = card.getBalance().subtract(amount);
-        card.setBalance(newBalance);
+        log.info("Withdrew {} from card {}. New balance: {}", amount, cardId, newBalance);
+    }
 
-        cardRepo.save(card);
+    private RuntimeException rejectedWithdrawal(Long cardId, BigDecimal amount) {
+        Card card = getCard(cardId);
+        checkPermission(card.getOwner());
 
-        log.info("Withdrew {} from card {}. New balance: {}", amount, cardId, newBalance);
+        if (checkInvalidCard(card)) {
+            log.warn("Invalid card state detected: {}", card.getState());
+            return new InvalidCardStateException("Withdrawal is not possible: card is inactive");
+        }
+        log.warn("Insufficient funds: trying to withdraw {}, but balance is {}", amount, card.getBalance());
+        return new InsufficientFundsException("Insufficient funds");
     }
 
 
@@ -185,6 +245,7 @@ public class CardServiceImpl implements CardService{
 
         State newState = oldState.equals(State.ACTIVE) ? State.BLOCKED : State.ACTIVE;
         card.setState(newState);
+        outboxService.append(OutboxEventType.CARD_STATE_CHANGED, cardId, new CardStateChanged(cardId, oldState, newState));
         log.info("Card id {} changed state from {} to {}", cardId, oldState, newState);
 
         return newState == State.ACTIVE
@@ -199,22 +260,23 @@ public class CardServiceImpl implements CardService{
         Card card = getCard(cardId);
         blockRequestRepo.deleteAllByCard(card);
         cardRepo.delete(card);
+        outboxService.append(OutboxEventType.CARD_DELETED, cardId,
+                new CardDeleted(cardId, card.getOwner() == null ? null : card.getOwner().getId()));
         log.info("Card with id {} successfully deleted", cardId);
     }
 
     @Transactional(readOnly = true)
     @Override
     public String getBalance(Long cardId) {
-        log.info("Getting balance for card id: {}", cardId);
+        log.debug("Getting balance for card id: {}", cardId);
         Card card = findById(cardId).orElseThrow(() -> {
             log.warn("Card not found for balance check: {}", cardId);
             return new CardNotFoundException("Card with this id doesn't exist");
         });
         checkPermission(card.getOwner());
         BigDecimal balance = card.getBalance();
-        DecimalFormat df = new DecimalFormat("#,##0.00");
-        String formattedBalance = df.format(balance);
-        log.info("Balance for card id {} is {}", cardId, formattedBalance);
+        String formattedBalance = CardReadRules.formatBalance(balance);
+        log.debug("Balance for card id {} is {}", cardId, formattedBalance);
         return formattedBalance;
     }
 
@@ -234,56 +296,69 @@ public class CardServiceImpl implements CardService{
 
         Card card = getCard(cardId);
 
-        if (!card.getOwner().equals(userService.getCurrentUser())){
+        if (!isSameUser(card.getOwner(), userService.getCurrentUser())){
             throw new AccessDeniedException("Only the cardholder can fulfill this request");
         }
 
         CardBlockRequest blockRequest = new CardBlockRequest();
         blockRequest.setCard(card);
-        blockRequest.setRequestedBy(userService.getCurrentUser());
+        blockRequest.setRequestedBy(card.getOwner());
         blockRequest.setRequestDate(LocalDateTime.now());
         blockRequest.setReason(reason.trim());
 
         blockRequestRepo.save(blockRequest);
+        outboxService.append(OutboxEventType.CARD_BLOCK_REQUESTED, cardId,
+                new CardBlockRequested(cardId, blockRequest.getId(), card.getOwner().getId(), blockRequest.getReason()));
 
         log.info("Block request for card id {} saved successfully with reason: {}", cardId, blockRequest.getReason());
     }
 
 
 
-    @Transactional
+    /**
+     * Not transactional on purpose: {@link TransferEngine} runs every attempt in its own transaction
+     * and retries on lock and serialization failures, unless the caller already runs one (an idempotent request).
+     */
     @Override
     public void transferMoney(Long fromCardId, Long toCardId, BigDecimal amount) {
-        log.info("Transferring money: {} from card {} to card {}", amount, fromCardId, toCardId);
-        Card fromCard = findById(fromCardId)
-                .orElseThrow(() -> new CardNotFoundException("Card with this id doesn't exist"));
-        Card toCard = findById(toCardId)
-                .orElseThrow(() -> new CardNotFoundException("Card with this id doesn't exist"));
-
-        if (!fromCard.getOwner().equals(toCard.getOwner())) {
-            log.warn("Access denied: Transfer between cards with different owners. From card owner: {}, To card owner: {}",
-                    fromCard.getOwner().getName(), toCard.getOwner().getName());
-            throw new AccessDeniedException("You can only transfer between your own cards");
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            log.warn("Attempt to transfer invalid amount: {}", amount);
+            throw new IllegalArgumentException("Amount must be greater than zero");
         }
-
-        if (checkInvalidCard(fromCard) || checkInvalidCard(toCard)) {
-            log.warn("Invalid card state detected during transfer. From card state: {}, To card state: {}",
-                    fromCard.getState(), toCard.getState());
-            throw new InvalidCardStateException("Transaction not possible: one or both cards are inactive");
+        if (fromCardId.equals(toCardId)) {
+            throw new IllegalArgumentException("Source and target cards must be different");
         }
 
-        BigDecimal fromCardAmount = fromCard.getBalance().subtract(amount);
-        if (fromCardAmount.compareTo(BigDecimal.ZERO) < 0) {
-            log.warn("Insufficient funds: Card id {}, balance: {}, requested amount: {}", fromCardId, fromCard.getBalance(), amount);
-            throw new InsufficientFundsException("Insufficient funds for transfer");
+        log.debug("Transferring money: {} from card {} to card {}", amount, fromCardId, toCardId);
+        transferEngine.transfer(fromCardId, toCardId, amount);
+        log.info("Transfer successful: {} transferred from card {} to card {}", amount, fromCardId, toCardId);
+    }
+
+    /**
+     * Applies up to {@link #MAX_BATCH_TRANSFERS} transfers between the current user's cards in one transaction.
+     * Invalid transfers are reported per item instead of failing the request.
+     */
+    @Override
+    public BatchTransferResponse transferBatch(BatchTransferRequest request) {
+        List<TransferInstruction> transfers = request == null ? null : request.transfers();
+        if (transfers == null || transfers.isEmpty() || transfers.size() > MAX_BATCH_TRANSFERS) {
+            throw new IllegalArgumentException("A batch must contain between 1 and " + MAX_BATCH_TRANSFERS + " transfers");
+        }
+        if (transfers.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Transfers must not be null");
         }
+        BatchMode mode = request.mode() != null ? request.mode() : BatchMode.ATOMIC;
+        MyUser currentUser = userService.getCurrentUser();
 
-        fromCard.setBalance(fromCardAmount);
-        toCard.setBalance(toCard.getBalance().add(amount));
+        log.info("Executing {} batch of {} transfers for user {}", mode, transfers.size(), currentUser.getName());
+        List<TransferItemResult> results = transferEngine.transferBatch(transfers, currentUser.getId(), mode == BatchMode.ATOMIC);
 
-        cardRepo.save(fromCard);
-        cardRepo.save(toCard);
-        log.info("Transfer successful: {} transferred from card {} to card {}", amount, fromCardId, toCardId);
+        int completed = (int) results.stream().filter(result -> result.status() == TransferItemStatus.COMPLETED).count();
+        int rejected = (int) results.stream().filter(result -> result.status() == TransferItemStatus.REJECTED).count();
+        boolean committed = mode == BatchMode.BEST_EFFORT || rejected == 0;
+        log.info("Batch of {} transfers for user {} finished: {} completed, {} rejected",
+                transfers.size(), currentUser.getName(), completed, rejected);
+        return new BatchTransferResponse(mode, committed, completed, rejected, results);
     }
 
     private boolean checkInvalidCard(Card card) {
@@ -297,25 +372,26 @@ public class CardServiceImpl implements CardService{
     @Transactional(readOnly = true)
     @Override
     public CardPageResponse getUserCards(String ownerName, int limit, int pageNumber) {
-        log.info("Getting cards for user: {}, page: {}, limit: {}", ownerName, pageNumber, limit);
+        log.debug("Getting cards for user: {}, page: {}, limit: {}", ownerName, pageNumber, limit);
         MyUser owner = userService.getUserByName(ownerName);
 
         checkPermission(owner);
 
         PageRequest pageRequest = PageRequest.of(pageNumber, limit);
-        Page<Card> page = cardRepo.findByOwner(owner, pageRequest);
+        Page<CardView> page = cardRepo.findViewsByOwner(owner, pageRequest);
 
-        log.info("Found {} cards for user {}", page.getNumberOfElements(), ownerName);
+        log.debug("Found {} cards for user {}", page.getNumberOfElements(), ownerName);
         return toDto(page);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public BlockRequestPageResponse getBlockRequests(int limit, int pageNumber) {
         PageRequest pageRequest = PageRequest.of(pageNumber, limit);
 
-        Page<CardBlockRequest> page = blockRequestRepo.findAll(pageRequest);
+        Page<BlockRequestView> page = blockRequestRepo.findAllViews(pageRequest);
         return new BlockRequestPageResponse(
-                blockRequestMapper.toDtoList(page.getContent()),
+                blockRequestMapper.viewsToDtoList(page.getContent()),
                 page.isLast(),
                 page.getTotalPages(),
                 page.getTotalElements(),
@@ -327,19 +403,61 @@ public class CardServiceImpl implements CardService{
     @Transactional(readOnly = true)
     @Override
     public CardPageResponse getAllCards(int limit, int pageNumber) {
-        log.info("Getting all cards, page: {}, limit: {}", pageNumber, limit);
+        log.debug("Getting all cards, page: {}, limit: {}", pageNumber, limit);
         PageRequest pageRequest = PageRequest.of(pageNumber, limit);
 
-        Page<Card> page = cardRepo.findAll(pageRequest);
+        Page<CardView> page = cardRepo.findAllViews(pageRequest);
 
-        log.info("Found {} cards total", page.getNumberOfElements());
+        log.debug("Found {} cards total", page.getNumberOfElements());
         return toDto(page);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public CardSliceResponse scrollUserCards(String ownerName, String cursor, int limit, boolean withCount) {
+        long afterId = CursorUtil.decode(cursor);
+        log.debug("Scrolling cards for user: {}, after id: {}, limit: {}", ownerName, afterId, limit);
+        MyUser owner = userService.getUserByName(ownerName);
+
+        checkPermission(owner);
+
+        Slice<CardView> slice = cardRepo.findViewsByOwnerAfter(owner, afterId, scrollRequest(limit));
+        Long total = withCount ? cardRepo.countByOwner(owner) : null;
+        return toSliceDto(slice, total);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public BlockRequestSliceResponse scrollBlockRequests(String cursor, int limit, boolean withCount) {
+        long afterId = CursorUtil.decode(cursor);
+        log.debug("Scrolling block requests after id: {}, limit: {}", afterId, limit);
+
+        Slice<BlockRequestView> slice = blockRequestRepo.findViewsAfter(afterId, scrollRequest(limit));
+        List<BlockRequestView> content = slice.getContent();
+        return new BlockRequestSliceResponse(
+                blockRequestMapper.viewsToDtoList(content),
+                nextCursor(slice, content.isEmpty() ? null : content.get(content.size() - 1).id()),
+                !slice.hasNext(),
+                slice.getNumberOfElements(),
+                withCount ? blockRequestRepo.count() : null
+        );
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CardSliceResponse scrollAllCards(String cursor, int limit, boolean withCount) {
+        long afterId = CursorUtil.decode(cursor);
+        log.debug("Scrolling all cards after id: {}, limit: {}", afterId, limit);
+
+        Slice<CardView> slice = cardRepo.findViewsAfter(afterId, scrollRequest(limit));
+        Long total = withCount ? cardRepo.count() : null;
+        return toSliceDto(slice, total);
+    }
+
     @Transactional(readOnly = true)
     @Override
     public CardDtoForSearchResponse getCardByNumber(String cardNumber) {
-        log.info("Getting card by number");
+        log.debug("Getting card by number");
         Card card = findByCardNumber(cardNumber);
         checkPermission(card.getOwner());
         return cardMapper.toDto(card);
@@ -348,23 +466,69 @@ public class CardServiceImpl implements CardService{
     @Transactional(readOnly = true)
     @Override
     public CardDtoForSearchResponse getCardById(Long cardId) {
-        log.info("Getting card by id: {}", cardId);
+        log.debug("Getting card by id: {}", cardId);
         Card card = findById(cardId).orElseThrow(() -> new CardNotFoundException("Card with this id doesn't exist"));
         checkPermission(card.getOwner());
         return cardMapper.toDto(card);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public StatementResponse getStatement(Long cardId, LocalDate from, LocalDate to, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_SCROLL_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SCROLL_LIMIT);
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(STATEMENT_DEFAULT_DAYS);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        CursorUtil.Position position = CursorUtil.decodePosition(cursor);
+
+        Card card = cardRepo.findById(cardId)
+                .orElseThrow(() -> new CardNotFoundException("Card with this id doesn't exist"));
+        checkPermission(card.getOwner());
+
+        LocalDateTime endExclusive = end.plusDays(1).atStartOfDay();
+        List<LedgerEntry> entries = ledgerEntryRepo.findStatement(cardId, start.atStartOfDay(), endExclusive,
+                position != null ? position.at() : endExclusive,
+                position != null ? position.id() : Long.MAX_VALUE,
+                limit + 1);
+
+        boolean hasNext = entries.size() > limit;
+        List<LedgerEntry> page = hasNext ? entries.subList(0, limit) : entries;
+        LedgerEntry lastEntry = page.isEmpty() ? null : page.get(page.size() - 1);
+        return new StatementResponse(
+                cardId,
+                page.stream().map(entry -> new StatementEntryResponse(entry.id(), entry.createdAt(), entry.amount(),
+                        entry.direction(), entry.operation(), entry.correlationId())).toList(),
+                hasNext ? CursorUtil.encode(lastEntry.createdAt(), lastEntry.id()) : null,
+                !hasNext);
+    }
+
     private void checkPermission(MyUser owner){
         MyUser currentUser = userService.getCurrentUser();
-        if (!currentUser.equals(owner) && currentUser.getRoles().stream().noneMatch(role -> role.equals("ADMIN"))) {
+        if (!CardReadRules.canRead(isSameUser(currentUser, owner), currentUser.getRoles())) {
             log.warn("Access denied for user {} to resource owned by {}", currentUser.getName(), owner.getName());
-            throw new AccessDeniedException("Access denied: you are neither the owner nor the admin");
+            throw new AccessDeniedException(CardReadRules.ACCESS_DENIED);
         }
     }
 
-    private CardPageResponse toDto(Page<Card> page){
+    private boolean isAdmin(MyUser user) {
+        return CardReadRules.isAdmin(user.getRoles());
+    }
+
+    /**
+     * Users are compared by id: the current user usually comes from the user cache and is
+     * not the same instance as an owner loaded together with a card.
+     */
+    private boolean isSameUser(MyUser first, MyUser second) {
+        return first == second || (first != null && second != null && first.getId() != null && first.getId().equals(second.getId()));
+    }
+
+    private CardPageResponse toDto(Page<CardView> page){
         return new CardPageResponse(
-                cardMapper.toDtoList(page.getContent()),
+                cardMapper.viewsToDtoList(page.getContent()),
                 page.isLast(),
                 page.getTotalPages(),
                 page.getTotalElements(),
@@ -373,6 +537,31 @@ public class CardServiceImpl implements CardService{
         );
     }
 
+    private CardSliceResponse toSliceDto(Slice<CardView> slice, Long totalElements) {
+        List<CardView> content = slice.getContent();
+        return new CardSliceResponse(
+                cardMapper.viewsToDtoList(content),
+                nextCursor(slice, content.isEmpty() ? null : content.get(content.size() - 1).id()),
+                !slice.hasNext(),
+                slice.getNumberOfElements(),
+                totalElements
+        );
+    }
+
+    /**
+     * Keyset slices always start at the first row after the cursor, so only the size is taken from the request.
+     */
+    private PageRequest scrollRequest(int limit) {
+        if (limit < 1 || limit > MAX_SCROLL_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SCROLL_LIMIT);
+        }
+        return PageRequest.of(0, limit);
+    }
+
+    private String nextCursor(Slice<?> slice, Long lastId) {
+        return slice.hasNext() && lastId != null ? CursorUtil.encode(lastId) : null;
+    }
+
     private Card getCard(Long cardId) {
         log.debug("Retrieving card with id: {}", cardId);
         return findById(cardId).orElseThrow(() -> {
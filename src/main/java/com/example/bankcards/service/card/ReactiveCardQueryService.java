@@ -0,0 +1,18 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.response.card.pagination.card.CardDtoForSearchResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterparts of the card reads in {@link CardService}, with the same results, masking and errors.
+ * The reading user is passed in explicitly: the security context is bound to the request thread, which is
+ * released while the query runs.
+ */
+public interface ReactiveCardQueryService {
+
+    Mono<String> getBalance(Long cardId, String userName);
+
+    Mono<CardDtoForSearchResponse> getCardById(Long cardId, String userName);
+
+    Mono<CardDtoForSearchResponse> getCardByNumber(String cardNumber, String userName);
+}
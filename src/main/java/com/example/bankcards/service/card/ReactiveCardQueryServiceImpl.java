@@ -0,0 +1,72 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.response.card.pagination.card.CardDtoForSearchResponse;
+import com.example.bankcards.exception.card.CardNotFoundException;
+import com.example.bankcards.repository.CardReactiveRepo;
+import com.example.bankcards.repository.projection.CardAccessView;
+import com.example.bankcards.repository.projection.CardView;
+import com.example.bankcards.util.encrypt.CardFingerprintUtil;
+import com.example.bankcards.util.encrypt.HashUtil;
+import com.example.bankcards.util.mapper.CardMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Service
+public class ReactiveCardQueryServiceImpl implements ReactiveCardQueryService {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveCardQueryServiceImpl.class);
+
+    private final CardReactiveRepo cardReactiveRepo;
+    private final CardMapper cardMapper;
+    private final CardFingerprintUtil fingerprintUtil;
+
+    public ReactiveCardQueryServiceImpl(CardReactiveRepo cardReactiveRepo, CardMapper cardMapper, CardFingerprintUtil fingerprintUtil) {
+        this.cardReactiveRepo = cardReactiveRepo;
+        this.cardMapper = cardMapper;
+        this.fingerprintUtil = fingerprintUtil;
+    }
+
+    @Override
+    public Mono<String> getBalance(Long cardId, String userName) {
+        return cardReactiveRepo.findById(cardId, userName)
+                .switchIfEmpty(Mono.error(() -> new CardNotFoundException(CardReadRules.NOT_FOUND_BY_ID)))
+                .map(view -> CardReadRules.formatBalance(readable(view, userName).balance()));
+    }
+
+    @Override
+    public Mono<CardDtoForSearchResponse> getCardById(Long cardId, String userName) {
+        return cardReactiveRepo.findById(cardId, userName)
+                .switchIfEmpty(Mono.error(() -> new CardNotFoundException(CardReadRules.NOT_FOUND_BY_ID)))
+                .map(view -> toDto(readable(view, userName)));
+    }
+
+    /**
+     * Same lookup order as {@link CardServiceImpl#findByCardNumber}: the fingerprint first, then the legacy hash.
+     */
+    @Override
+    public Mono<CardDtoForSearchResponse> getCardByNumber(String cardNumber, String userName) {
+        if (!CardReadRules.isWellFormedCardNumber(cardNumber)) {
+            return Mono.error(new CardNotFoundException(CardReadRules.NOT_FOUND_BY_NUMBER));
+        }
+        return cardReactiveRepo.findByCardNumberFingerprint(fingerprintUtil.fingerprint(cardNumber), userName)
+                .switchIfEmpty(Mono.defer(() -> cardReactiveRepo.findByCardNumberHash(HashUtil.hash(cardNumber), userName)))
+                .switchIfEmpty(Mono.error(() -> new CardNotFoundException(CardReadRules.NOT_FOUND_BY_NUMBER)))
+                .map(view -> toDto(readable(view, userName)));
+    }
+
+    private CardView readable(CardAccessView view, String userName) {
+        if (!CardReadRules.canRead(view.ownedByCurrentUser(), view.currentUserRoles())) {
+            log.warn("Access denied for user {} to card {}", userName, view.card().id());
+            throw new AccessDeniedException(CardReadRules.ACCESS_DENIED);
+        }
+        return view.card();
+    }
+
+    private CardDtoForSearchResponse toDto(CardView card) {
+        return cardMapper.viewsToDtoList(List.of(card)).get(0);
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.event.CardBalanceChanged;
+import com.example.bankcards.dto.request.transfer.TransferInstruction;
+import com.example.bankcards.dto.response.card.transfer.TransferItemResult;
+import com.example.bankcards.dto.response.card.transfer.TransferItemStatus;
+import com.example.bankcards.exception.card.CardNotFoundException;
+import com.example.bankcards.exception.card.InsufficientFundsException;
+import com.example.bankcards.exception.card.InvalidCardStateException;
+import com.example.bankcards.entity.ledger.LedgerEntry;
+import com.example.bankcards.entity.ledger.Operation;
+import com.example.bankcards.entity.outbox.OutboxEventType;
+import com.example.bankcards.repository.CardBalanceBatchRepo;
+import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.repository.LedgerEntryRepo;
+import com.example.bankcards.repository.projection.CardBalanceView;
+import com.example.bankcards.service.outbox.OutboxService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Moves money between cards of the same owner, one transfer at a time or as a batch.
+ * <p>
+ * Each attempt runs in its own transaction: both card rows are locked in id order, validated, then debited and
+ * credited with conditional updates and journaled in the ledger, so concurrent transfers never lose an update and cannot deadlock on each
+ * other. Lock and serialization failures reported by the database are retried with exponential backoff and
+ * jitter. Retrying is only effective when no transaction is active yet, since an outer transaction would already
+ * be marked for rollback. The new balances are written to the outbox in the same transaction and handed to
+ * {@link BalanceStreamHub}, which sends them to subscribers after the commit.
+ */
+@Component
+public class TransferEngine {
+    private static final Logger log = LoggerFactory.getLogger(TransferEngine.class);
+
+    private final CardRepo cardRepo;
+    private final LedgerEntryRepo ledgerEntryRepo;
+    private final CardBalanceBatchRepo cardBalanceBatchRepo;
+    private final BalanceStreamHub balanceStreamHub;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+
+    public TransferEngine(CardRepo cardRepo,
+                          LedgerEntryRepo ledgerEntryRepo,
+                          CardBalanceBatchRepo cardBalanceBatchRepo,
+                          BalanceStreamHub balanceStreamHub,
+                          OutboxService outboxService,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${card.transfer.max-attempts:5}") int maxAttempts,
+                          @Value("${card.transfer.initial-backoff:PT0.01S}") Duration initialBackoff) {
+        this.cardRepo = cardRepo;
+        this.ledgerEntryRepo = ledgerEntryRepo;
+        this.cardBalanceBatchRepo = cardBalanceBatchRepo;
+        this.balanceStreamHub = balanceStreamHub;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+    }
+
+    public void transfer(Long fromCardId, Long toCardId, BigDecimal amount) {
+        withRetry("Transfer from card " + fromCardId + " to card " + toCardId, () -> {
+            transferOnce(fromCardId, toCardId, amount);
+            return null;
+        });
+    }
+
+    /**
+     * Applies a batch of transfers between cards of {@code ownerId} in one transaction. All referenced cards are
+     * locked in id order with a single query, every transfer is validated against the running balances in memory,
+     * and the net change of each card is written with one JDBC batch. The whole batch is retried on concurrency
+     * failures. An atomic batch with a rejected transfer writes nothing.
+     *
+     * @return one result per instruction, in input order
+     */
+    public List<TransferItemResult> transferBatch(List<TransferInstruction> transfers, Long ownerId, boolean atomic) {
+        return withRetry("Batch of " + transfers.size() + " transfers", () -> transferBatchOnce(transfers, ownerId, atomic));
+    }
+
+    private <T> T withRetry(String description, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // a failed statement dooms the caller's transaction, so only the caller can retry it
+            return work.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("{} failed after {} attempts", description, attempt);
+                    throw e;
+                }
+                long backoff = initialBackoff.toMillis() << (attempt - 1);
+                long delay = backoff + ThreadLocalRandom.current().nextLong(backoff + 1);
+                log.warn("{} hit a concurrency failure, retrying in {} ms (attempt {}/{}): {}",
+                        description, delay, attempt, maxAttempts, e.getMessage());
+                sleep(delay, e);
+            }
+        }
+    }
+
+    private void transferOnce(Long fromCardId, Long toCardId, BigDecimal amount) {
+        List<CardBalanceView> cards = cardRepo.lockBalances(List.of(fromCardId, toCardId));
+        CardBalanceView from = find(cards, fromCardId);
+        CardBalanceView to = find(cards, toCardId);
+
+        if (!Objects.equals(from.getOwnerId(), to.getOwnerId())) {
+            log.warn("Access denied: Transfer between cards with different owners. From card owner id: {}, To card owner id: {}",
+                    from.getOwnerId(), to.getOwnerId());
+            throw new AccessDeniedException("You can only transfer between your own cards");
+        }
+
+        if (!Boolean.TRUE.equals(from.getUsable()) || !Boolean.TRUE.equals(to.getUsable())) {
+            log.warn("Invalid card state detected during transfer from card {} to card {}", fromCardId, toCardId);
+            throw new InvalidCardStateException("Transaction not possible: one or both cards are inactive");
+        }
+
+        // the row is locked, so the conditional debit can only fail if the balance is short
+        if (from.getBalance().compareTo(amount) < 0 || cardRepo.debit(fromCardId, amount) != 1) {
+            log.warn("Insufficient funds: Card id {}, balance: {}, requested amount: {}", fromCardId, from.getBalance(), amount);
+            throw new InsufficientFundsException("Insufficient funds for transfer");
+        }
+        cardRepo.credit(toCardId, amount);
+        List<LedgerEntry> entries = LedgerEntry.transfer(fromCardId, toCardId, amount);
+        ledgerEntryRepo.insertAll(entries);
+        BigDecimal fromBalance = from.getBalance().subtract(amount);
+        BigDecimal toBalance = to.getBalance().add(amount);
+        UUID correlationId = entries.get(0).correlationId();
+        // debit first, so the events are stored in the order of the ledger entries
+        Map<Long, CardBalanceChanged> events = new LinkedHashMap<>();
+        events.put(fromCardId, new CardBalanceChanged(fromCardId, Operation.TRANSFER, amount.negate(), fromBalance, correlationId));
+        events.put(toCardId, new CardBalanceChanged(toCardId, Operation.TRANSFER, amount, toBalance, correlationId));
+        outboxService.appendAll(OutboxEventType.CARD_BALANCE_CHANGED, events);
+        balanceStreamHub.publishAfterCommit(Map.of(fromCardId, fromBalance, toCardId, toBalance));
+    }
+
+    private List<TransferItemResult> transferBatchOnce(List<TransferInstruction> transfers, Long ownerId, boolean atomic) {
+        Set<Long> cardIds = new TreeSet<>();
+        for (TransferInstruction transfer : transfers) {
+            if (transfer.fromCardId() != null && transfer.toCardId() != null) {
+                cardIds.add(transfer.fromCardId());
+                cardIds.add(transfer.toCardId());
+            }
+        }
+        Map<Long, CardBalanceView> cards = new HashMap<>();
+        for (CardBalanceView card : cardIds.isEmpty() ? List.<CardBalanceView>of() : cardRepo.lockBalances(cardIds)) {
+            cards.put(card.getId(), card);
+        }
+
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        cards.values().forEach(card -> balances.put(card.getId(), card.getBalance()));
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        List<LedgerEntry> entries = new ArrayList<>(transfers.size() * 2);
+        List<TransferItemResult> results = new ArrayList<>(transfers.size());
+        boolean anyRejected = false;
+
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferInstruction transfer = transfers.get(i);
+            TransferItemResult rejection = validate(i, transfer, cards, balances, ownerId);
+            if (rejection != null) {
+                results.add(rejection);
+                anyRejected = true;
+                continue;
+            }
+            balances.merge(transfer.fromCardId(), transfer.amount().negate(), BigDecimal::add);
+            balances.merge(transfer.toCardId(), transfer.amount(), BigDecimal::add);
+            deltas.merge(transfer.fromCardId(), transfer.amount().negate(), BigDecimal::add);
+            deltas.merge(transfer.toCardId(), transfer.amount(), BigDecimal::add);
+            entries.addAll(LedgerEntry.transfer(transfer.fromCardId(), transfer.toCardId(), transfer.amount()));
+            results.add(TransferItemResult.completed(i));
+        }
+
+        if (atomic && anyRejected) {
+            return results.stream()
+                    .map(result -> result.status() == TransferItemStatus.COMPLETED ? TransferItemResult.skipped(result.index()) : result)
+                    .toList();
+        }
+        deltas.values().removeIf(delta -> delta.signum() == 0);
+        if (!deltas.isEmpty()) {
+            List<Long> missed = cardBalanceBatchRepo.applyDeltas(deltas);
+            if (!missed.isEmpty()) {
+                throw new IllegalStateException("Balance of locked cards " + missed + " could not be updated");
+            }
+        }
+        if (!entries.isEmpty()) {
+            ledgerEntryRepo.insertAll(entries);
+        }
+        if (!deltas.isEmpty()) {
+            Map<Long, BigDecimal> changed = new TreeMap<>();
+            Map<Long, CardBalanceChanged> events = new TreeMap<>();
+            deltas.forEach((cardId, delta) -> {
+                changed.put(cardId, balances.get(cardId));
+                events.put(cardId, new CardBalanceChanged(cardId, Operation.TRANSFER, delta, balances.get(cardId), null));
+            });
+            outboxService.appendAll(OutboxEventType.CARD_BALANCE_CHANGED, events);
+            balanceStreamHub.publishAfterCommit(changed);
+        }
+        return results;
+    }
+
+    private TransferItemResult validate(int index, TransferInstruction transfer, Map<Long, CardBalanceView> cards,
+                                        Map<Long, BigDecimal> balances, Long ownerId) {
+        if (transfer.fromCardId() == null || transfer.toCardId() == null) {
+            return TransferItemResult.rejected(index, "illegal_argument", "Source and target cards are required");
+        }
+        if (transfer.amount() == null || transfer.amount().signum() <= 0) {
+            return TransferItemResult.rejected(index, "illegal_argument", "Amount must be greater than zero");
+        }
+        if (transfer.fromCardId().equals(transfer.toCardId())) {
+            return TransferItemResult.rejected(index, "illegal_argument", "Source and target cards must be different");
+        }
+        CardBalanceView from = cards.get(transfer.fromCardId());
+        CardBalanceView to = cards.get(transfer.toCardId());
+        if (from == null || to == null) {
+            return TransferItemResult.rejected(index, "card_not_found", "Card with this id doesn't exist");
+        }
+        if (!Objects.equals(from.getOwnerId(), ownerId) || !Objects.equals(to.getOwnerId(), ownerId)) {
+            return TransferItemResult.rejected(index, "access_denied", "You can only transfer between your own cards");
+        }
+        if (!Boolean.TRUE.equals(from.getUsable()) || !Boolean.TRUE.equals(to.getUsable())) {
+            return TransferItemResult.rejected(index, "invalid_card_state", "Transaction not possible: one or both cards are inactive");
+        }
+        if (balances.get(transfer.fromCardId()).compareTo(transfer.amount()) < 0) {
+            return TransferItemResult.rejected(index, "insufficient_funds", "Insufficient funds for transfer");
+        }
+        return null;
+    }
+
+    private CardBalanceView find(List<CardBalanceView> cards, Long cardId) {
+        return cards.stream()
+                .filter(card -> card.getId().equals(cardId))
+                .findFirst()
+                .orElseThrow(() -> new CardNotFoundException("Card with this id doesn't exist"));
+    }
+
+    private void sleep(long millis, RuntimeException cause) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.bankcards.service.idempotency;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    /**
+     * Executes {@code action} at most once per {@code Idempotency-Key} of the current user and replays the
+     * recorded response for every later request with the same key. Without a key the action simply runs.
+     *
+     * @param idempotencyKey value of the {@code Idempotency-Key} header, may be {@code null}
+     * @param request        canonical description of the request; reusing a key for a different request is rejected
+     */
+    ResponseEntity<String> execute(String idempotencyKey, String request, Supplier<ResponseEntity<String>> action);
+}
@@ -0,0 +1,293 @@
+package com.example.bankcards.service.idempotency;
+
+import com.example.bankcards.entity.idempotency.IdempotencyRecord;
+import com.example.bankcards.exception.idempotency.IdempotencyKeyInProgressException;
+import com.example.bankcards.exception.idempotency.IdempotencyKeyReusedException;
+import com.example.bankcards.repository.IdempotencyKeyRepo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Two-level idempotency store. Completed responses are kept in a bounded in-process cache in front of the
+ * {@code idempotency_key} table, so a replay on this node costs no database round trip. Duplicates arriving
+ * while the first request is still running on this node wait for its result instead of executing again;
+ * duplicates running on another node are detected by the claimed row and rejected with a conflict.
+ * <p>
+ * The action runs in a transaction that also records its response, so a response is stored if and only if the
+ * effects of the action committed. A claim that was never completed, because the node died mid-request, holds
+ * the key only for {@code idempotency.lease}; nothing of that request committed, so a retry after the lease
+ * executes it again. When the action throws, the key is released and can be retried right away.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepo idempotencyKeyRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration waitTimeout;
+    private final int purgeBatchSize;
+    private final Cache<CacheKey, IdempotencyRecord> completed;
+    private final ConcurrentMap<CacheKey, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyServiceImpl(IdempotencyKeyRepo idempotencyKeyRepo,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                                  @Value("${idempotency.lease:PT2M}") Duration lease,
+                                  @Value("${idempotency.max-attempts:3}") int maxAttempts,
+                                  @Value("${idempotency.cache.maximum-size:10000}") long maximumSize,
+                                  @Value("${idempotency.wait-timeout:PT30S}") Duration waitTimeout,
+                                  @Value("${idempotency.purge-batch-size:1000}") int purgeBatchSize) {
+        this.idempotencyKeyRepo = idempotencyKeyRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.waitTimeout = waitTimeout;
+        this.purgeBatchSize = purgeBatchSize;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new RecordExpiry())
+                .build();
+    }
+
+    @Override
+    public ResponseEntity<String> execute(String idempotencyKey, String request, Supplier<ResponseEntity<String>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        CacheKey key = new CacheKey(SecurityContextHolder.getContext().getAuthentication().getName(), idempotencyKey);
+        String requestHash = hash(request);
+
+        while (true) {
+            IdempotencyRecord cached = completed.getIfPresent(key);
+            if (cached != null) {
+                return replay(cached, requestHash);
+            }
+            CompletableFuture<IdempotencyRecord> execution = new CompletableFuture<>();
+            CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(key, execution);
+            if (running != null) {
+                IdempotencyRecord result = await(running);
+                if (result != null) {
+                    return replay(result, requestHash);
+                }
+                // the first execution failed and released the key
+                continue;
+            }
+            try {
+                return executeOnce(key, requestHash, action, execution);
+            } finally {
+                inFlight.remove(key, execution);
+            }
+        }
+    }
+
+    private ResponseEntity<String> executeOnce(CacheKey key, String requestHash, Supplier<ResponseEntity<String>> action,
+                                               CompletableFuture<IdempotencyRecord> execution) {
+        // the claim is identified by this timestamp, at the precision the database keeps
+        LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        IdempotencyRecord existing;
+        try {
+            existing = claim(key, requestHash, claimedAt);
+        } catch (RuntimeException e) {
+            execution.complete(null);
+            throw e;
+        }
+        if (existing != null) {
+            completed.put(key, existing);
+            execution.complete(existing);
+            return replay(existing, requestHash);
+        }
+
+        Recorded recorded;
+        try {
+            recorded = executeAndRecord(key, requestHash, claimedAt, action);
+        } catch (RuntimeException | Error e) {
+            release(key, claimedAt);
+            execution.complete(null);
+            throw e;
+        }
+        completed.put(key, recorded.record());
+        execution.complete(recorded.record());
+        return recorded.response();
+    }
+
+    /**
+     * Runs the action and records its response in one transaction; the action's own transactional methods join
+     * it. A concurrency failure rolls both back, so the whole transaction is retried.
+     */
+    private Recorded executeAndRecord(CacheKey key, String requestHash, LocalDateTime claimedAt,
+                                               Supplier<ResponseEntity<String>> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    ResponseEntity<String> response = action.get();
+                    LocalDateTime now = LocalDateTime.now();
+                    IdempotencyRecord record = new IdempotencyRecord(key.owner(), key.key(), requestHash,
+                            response.getStatusCode().value(), response.getBody(), claimedAt, now.plus(ttl));
+                    if (!idempotencyKeyRepo.complete(key.owner(), key.key(), claimedAt, record.responseStatus(),
+                            record.responseBody(), record.expiresAt())) {
+                        // the lease ran out and another request took the key over; its execution wins
+                        throw inProgress();
+                    }
+                    return new Recorded(response, record);
+                });
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.warn("Request with idempotency key {} hit a concurrency failure, retrying (attempt {}/{}): {}",
+                        key.key(), attempt, maxAttempts, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Claims the key in the database.
+     *
+     * @return {@code null} if the caller now owns the key, or the completed record of an earlier request
+     */
+    private IdempotencyRecord claim(CacheKey key, String requestHash, LocalDateTime claimedAt) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            if (idempotencyKeyRepo.claim(key.owner(), key.key(), requestHash, claimedAt, now.plus(lease))) {
+                return null;
+            }
+            Optional<IdempotencyRecord> stored = idempotencyKeyRepo.find(key.owner(), key.key());
+            if (stored.isEmpty()) {
+                // released by a failed request in the meantime
+                continue;
+            }
+            IdempotencyRecord record = stored.get();
+            if (record.isExpired(now)) {
+                idempotencyKeyRepo.deleteIfExpired(key.owner(), key.key(), now);
+                continue;
+            }
+            if (!record.requestHash().equals(requestHash)) {
+                throw reused();
+            }
+            if (!record.isCompleted()) {
+                throw inProgress();
+            }
+            return record;
+        }
+        throw inProgress();
+    }
+
+    private void release(CacheKey key, LocalDateTime claimedAt) {
+        try {
+            idempotencyKeyRepo.release(key.owner(), key.key(), claimedAt);
+        } catch (RuntimeException e) {
+            logger.error("Failed to release idempotency key {}: {}", key.key(), e.getMessage(), e);
+        }
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        } catch (TimeoutException | ExecutionException e) {
+            throw inProgress();
+        }
+    }
+
+    private ResponseEntity<String> replay(IdempotencyRecord record, String requestHash) {
+        if (!record.requestHash().equals(requestHash)) {
+            throw reused();
+        }
+        return ResponseEntity.status(record.responseStatus())
+                .header(REPLAYED_HEADER, "true")
+                .body(record.responseBody());
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = idempotencyKeyRepo.deleteExpired(now, purgeBatchSize);
+            purged += deleted;
+        } while (deleted == purgeBatchSize);
+        if (purged > 0) {
+            logger.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private static IdempotencyKeyReusedException reused() {
+        return new IdempotencyKeyReusedException("Idempotency-Key was already used for a different request");
+    }
+
+    private static IdempotencyKeyInProgressException inProgress() {
+        return new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still being processed");
+    }
+
+    static String hash(String request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM", e);
+        }
+    }
+
+    private record CacheKey(String owner, String key) {
+    }
+
+    private record Recorded(ResponseEntity<String> response, IdempotencyRecord record) {
+    }
+
+    private static class RecordExpiry implements Expiry<CacheKey, IdempotencyRecord> {
+        @Override
+        public long expireAfterCreate(CacheKey key, IdempotencyRecord record, long currentTime) {
+            Duration left = Duration.between(LocalDateTime.now(), record.expiresAt());
+            return left.isNegative() ? 0 : left.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(CacheKey key, IdempotencyRecord record, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, record, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(CacheKey key, IdempotencyRecord record, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.bankcards.service.ledger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Keeps monthly {@code ledger_entry} partitions created ahead of time, so inserts never land in the default
+ * partition (a month cannot be attached as a partition once the default partition holds rows of that month).
+ * Runs at startup and then daily; creating an existing partition is a no-op.
+ */
+@Component
+public class LedgerPartitionMaintainer {
+    private static final Logger logger = LoggerFactory.getLogger(LedgerPartitionMaintainer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+
+    public LedgerPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                     @Value("${ledger.partitions.months-ahead:2}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${ledger.partitions.maintenance-cron:0 0 3 * * *}")
+    public void ensurePartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= monthsAhead; i++) {
+            jdbcTemplate.queryForObject("SELECT ledger_entry_create_partition(?)::TEXT", String.class,
+                    Date.valueOf(month.plusMonths(i)));
+        }
+        logger.debug("Ledger partitions ensured up to {}", month.plusMonths(monthsAhead));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.bankcards.service.outbox;
+
+import com.example.bankcards.entity.outbox.OutboxEvent;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends published events to a local file, one JSON object per line, for local runs and tests. Each batch is
+ * written with a single append and forced to disk before the relay deletes it from the outbox. Nothing consumes
+ * the file, so it is only available in the {@code local} and {@code it} profiles.
+ */
+@Component
+@Profile({"local", "it"})
+@ConditionalOnProperty(name = "outbox.publisher.type", havingValue = "file")
+public class FileOutboxPublisher implements OutboxPublisher {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileOutboxPublisher(ObjectMapper objectMapper,
+                               @Value("${outbox.publisher.file.path:outbox-events.ndjson}") Path path) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        try {
+            ByteBuffer lines = ByteBuffer.wrap(toLines(events));
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (lines.hasRemaining()) {
+                    channel.write(lines);
+                }
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Outbox events cannot be written to " + path, e);
+        }
+    }
+
+    private byte[] toLines(List<OutboxEvent> events) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(events.size() * 256);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            for (OutboxEvent event : events) {
+                json.writeStartObject();
+                json.writeNumberField("id", event.id());
+                json.writeStringField("aggregateType", event.aggregateType());
+                json.writeNumberField("aggregateId", event.aggregateId());
+                json.writeStringField("eventType", event.eventType().name());
+                json.writeStringField("createdAt", event.createdAt().toString());
+                json.writeFieldName("payload");
+                // stored as JSON by OutboxService
+                json.writeRawValue(event.payload());
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+        }
+        return out.toByteArray();
+    }
+}
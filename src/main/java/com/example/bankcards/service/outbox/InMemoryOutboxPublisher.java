@@ -0,0 +1,50 @@
+package com.example.bankcards.service.outbox;
+
+import com.example.bankcards.entity.outbox.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the newest published events in memory, for local runs and tests. The oldest events are dropped once
+ * {@code outbox.publisher.memory.capacity} is reached, so it is only available in the {@code local} and {@code it}
+ * profiles.
+ */
+@Component
+@Profile({"local", "it"})
+@ConditionalOnProperty(name = "outbox.publisher.type", havingValue = "memory")
+public class InMemoryOutboxPublisher implements OutboxPublisher {
+
+    private final Deque<OutboxEvent> events = new ArrayDeque<>();
+    private final int capacity;
+
+    public InMemoryOutboxPublisher(@Value("${outbox.publisher.memory.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> batch) {
+        for (OutboxEvent event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    /**
+     * Published events, oldest first.
+     */
+    public synchronized List<OutboxEvent> events() {
+        return List.copyOf(events);
+    }
+
+    public synchronized void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.bankcards.service.outbox;
+
+import com.example.bankcards.entity.outbox.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Hands outbox events to downstream consumers. Exactly one implementation is active, chosen by
+ * {@code outbox.publisher.type}; a broker-backed publisher is added as another implementation.
+ * <p>
+ * {@link #publish} is called inside the relay transaction that deletes the batch afterwards. Throwing leaves the
+ * whole batch in the outbox for the next run, so delivery is at least once: consumers deduplicate by event id.
+ */
+public interface OutboxPublisher {
+
+    /**
+     * Publishes the batch in id order and returns once the events are durably handed over.
+     */
+    void publish(List<OutboxEvent> events);
+}
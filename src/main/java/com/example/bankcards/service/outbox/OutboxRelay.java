@@ -0,0 +1,113 @@
+package com.example.bankcards.service.outbox;
+
+import com.example.bankcards.entity.outbox.OutboxEvent;
+import com.example.bankcards.repository.OutboxEventRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Drains the {@code outbox_event} table into the active {@link OutboxPublisher}.
+ * <p>
+ * Each batch runs in its own short transaction: the oldest events are locked with {@code FOR UPDATE SKIP LOCKED},
+ * published and deleted. Several nodes can relay at the same time without waiting for each other, and the card
+ * tables are never touched. A failed publish rolls the batch back and ends the run; the events are retried on the
+ * next run. Events of one node are published in id order; across nodes, batches may interleave.
+ * <p>
+ * The relay is off unless {@code outbox.relay.enabled} is set, and refuses to start without an
+ * {@link OutboxPublisher}: relaying into nowhere would delete the events.
+ */
+@Component
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepo outboxEventRepo;
+    private final OutboxPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter published;
+    private final Counter failures;
+
+    public OutboxRelay(OutboxEventRepo outboxEventRepo,
+                       Optional<OutboxPublisher> publisher,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.enabled:false}") boolean enabled,
+                       @Value("${outbox.relay.batch-size:200}") int batchSize,
+                       @Value("${outbox.relay.max-batches-per-run:50}") int maxBatchesPerRun) {
+        if (enabled && publisher.isEmpty()) {
+            throw new IllegalStateException("outbox.relay.enabled is set, but no OutboxPublisher bean is configured");
+        }
+        this.outboxEventRepo = outboxEventRepo;
+        this.publisher = publisher.orElse(null);
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.published = Counter.builder("bank.outbox.published")
+                .description("Outbox events handed to the publisher")
+                .register(meterRegistry);
+        this.failures = Counter.builder("bank.outbox.publish.failures")
+                .description("Outbox batches that failed to publish and were left for the next run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${outbox.relay.initial-delay:PT5S}",
+            fixedDelayString = "${outbox.relay.interval:PT1S}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int relayed;
+            try {
+                relayed = relayBatch();
+            } catch (RuntimeException e) {
+                failures.increment();
+                logger.warn("Outbox batch could not be published, retrying on the next run: {}", e.getMessage());
+                break;
+            }
+            total += relayed;
+            if (relayed < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.debug("Relayed {} outbox events", total);
+        }
+    }
+
+    /**
+     * Publishes and deletes one batch.
+     *
+     * @return number of events relayed, less than the batch size once the outbox is drained
+     */
+    int relayBatch() {
+        if (publisher == null) {
+            throw new IllegalStateException("No OutboxPublisher is configured");
+        }
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepo.lockBatch(batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            publisher.publish(events);
+            outboxEventRepo.deleteAll(events.stream().map(OutboxEvent::id).toList());
+            return events.size();
+        });
+        int count = relayed == null ? 0 : relayed;
+        published.increment(count);
+        return count;
+    }
+}
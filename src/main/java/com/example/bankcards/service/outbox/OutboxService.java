@@ -0,0 +1,19 @@
+package com.example.bankcards.service.outbox;
+
+import com.example.bankcards.entity.outbox.OutboxEventType;
+
+import java.util.Map;
+
+public interface OutboxService {
+
+    /**
+     * Records a change of the card as an outbox event of the current transaction. The payload is stored as JSON;
+     * fails if no transaction is active, since the event must commit together with the change.
+     */
+    void append(OutboxEventType eventType, Long cardId, Object payload);
+
+    /**
+     * Same as {@link #append} for several cards, written with a single JDBC batch in the iteration order of the map.
+     */
+    void appendAll(OutboxEventType eventType, Map<Long, ?> payloadsByCardId);
+}
@@ -0,0 +1,50 @@
+package com.example.bankcards.service.outbox;
+
+import com.example.bankcards.entity.outbox.OutboxEvent;
+import com.example.bankcards.entity.outbox.OutboxEventType;
+import com.example.bankcards.repository.OutboxEventRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    private final OutboxEventRepo outboxEventRepo;
+    private final ObjectMapper objectMapper;
+
+    public OutboxServiceImpl(OutboxEventRepo outboxEventRepo, ObjectMapper objectMapper) {
+        this.outboxEventRepo = outboxEventRepo;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(OutboxEventType eventType, Long cardId, Object payload) {
+        outboxEventRepo.insertAll(List.of(OutboxEvent.card(cardId, eventType, toJson(payload))));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(OutboxEventType eventType, Map<Long, ?> payloadsByCardId) {
+        List<OutboxEvent> events = new ArrayList<>(payloadsByCardId.size());
+        payloadsByCardId.forEach((cardId, payload) -> events.add(OutboxEvent.card(cardId, eventType, toJson(payload))));
+        if (!events.isEmpty()) {
+            outboxEventRepo.insertAll(events);
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outbox payload cannot be serialized: " + payload.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.bankcards.service.user;
+
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.MyUserRepo;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Size-bounded, TTL-based cache in front of {@link MyUserRepo#findByName(String)}.
+ * <p>
+ * Cached users are detached and shared between requests, so they must be treated as read-only:
+ * code that modifies a user loads it from the repository and calls {@link #invalidate(String)}
+ * afterwards. Invalidation is local to this node; other nodes see the change once the TTL expires.
+ * <p>
+ * A miss is loaded on the calling thread outside of the cache's internal locks: concurrent misses for the same
+ * name wait for the one load in flight instead of querying again. Loading inside {@code Cache.get} would run the
+ * query under a {@code ConcurrentHashMap} bin lock, which pins a virtual thread to its carrier for the whole call.
+ */
+@Component
+public class UserCache {
+    private final MyUserRepo userRepo;
+    private final AsyncCache<String, MyUser> cache;
+
+    public UserCache(MyUserRepo userRepo,
+                     @Value("${users.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${users.cache.ttl:PT1M}") Duration ttl) {
+        this.userRepo = userRepo;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public Optional<MyUser> findByName(String name) {
+        CompletableFuture<MyUser> loading = new CompletableFuture<>();
+        // the mapping function only installs the future; the query runs below, outside the cache's lock
+        CompletableFuture<MyUser> cached = cache.get(name, (key, executor) -> loading);
+        if (cached != loading) {
+            return Optional.ofNullable(join(cached));
+        }
+        try {
+            MyUser user = userRepo.findByName(name).orElse(null);
+            // a null value or a failure removes the entry, so unknown names are not cached
+            loading.complete(user);
+            return Optional.ofNullable(user);
+        } catch (Throwable e) {
+            // an Error too, or every later lookup of the name would wait on this future forever
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the user immediately and once more after the surrounding transaction commits,
+     * so a concurrent reader cannot put back the state that was visible before the commit.
+     */
+    public void invalidate(String name) {
+        cache.synchronous().invalidate(name);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.synchronous().invalidate(name);
+                }
+            });
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public Cache<String, MyUser> getCache() {
+        return cache.synchronous();
+    }
+
+    private static MyUser join(CompletableFuture<MyUser> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
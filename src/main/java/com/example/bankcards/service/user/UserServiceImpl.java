@@ -4,13 +4,17 @@ package com.example.bankcards.service.user;
 import com.example.bankcards.dto.request.AuthRequest;
 import com.example.bankcards.dto.request.UserDtoRequest;
 import com.example.bankcards.dto.request.UserPatchRequest;
+import com.example.bankcards.dto.event.CardDeleted;
 import com.example.bankcards.dto.response.auth.AuthResponse;
+import com.example.bankcards.entity.outbox.OutboxEventType;
 import com.example.bankcards.entity.user.MyUser;
 import com.example.bankcards.exception.user.UserAlreadyExist;
 import com.example.bankcards.exception.user.UserDeletionException;
 import com.example.bankcards.repository.CardBlockRequestRepo;
 import com.example.bankcards.repository.MyUserRepo;
 import com.example.bankcards.security.service.jwt.JwtService;
+import com.example.bankcards.security.service.jwt.UserVersionDenylist;
+import com.example.bankcards.service.outbox.OutboxService;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +34,8 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class UserServiceImpl implements UserService{
@@ -40,14 +46,20 @@ public class UserServiceImpl implements UserService{
     private final UserDetailsService userDetailsService;
     private final JwtService jwtService;
     private final CardBlockRequestRepo cardBlockRequestRepo;
+    private final UserVersionDenylist userVersionDenylist;
+    private final UserCache userCache;
+    private final OutboxService outboxService;
 
-    public UserServiceImpl(MyUserRepo userRepo, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, UserDetailsService userDetailsService, JwtService jwtService, CardBlockRequestRepo cardBlockRequestRepo) {
+    public UserServiceImpl(MyUserRepo userRepo, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, UserDetailsService userDetailsService, JwtService jwtService, CardBlockRequestRepo cardBlockRequestRepo, UserVersionDenylist userVersionDenylist, UserCache userCache, OutboxService outboxService) {
         this.userRepo = userRepo;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.userDetailsService = userDetailsService;
         this.jwtService = jwtService;
         this.cardBlockRequestRepo = cardBlockRequestRepo;
+        this.userVersionDenylist = userVersionDenylist;
+        this.userCache = userCache;
+        this.outboxService = outboxService;
     }
 
     @Transactional
@@ -112,32 +124,42 @@ public class UserServiceImpl implements UserService{
     @Transactional
     @Override
     public void delUser(String name){
-        MyUser user = getUserByName(name);
+        MyUser user = getUserForUpdate(name);
         cardBlockRequestRepo.deleteAllByRequestedBy(user);
+        // the cards go with the user through the cascade, so their events are written here
+        Map<Long, CardDeleted> deletedCards = new TreeMap<>();
+        user.getCards().forEach(card -> deletedCards.put(card.getId(), new CardDeleted(card.getId(), user.getId())));
+        outboxService.appendAll(OutboxEventType.CARD_DELETED, deletedCards);
         try {
             userRepo.delete(user);
         }catch (Exception e){
             logger.error("User deletion error");
             throw new UserDeletionException("Failed to delete user", e);
         }
+        userVersionDenylist.revokeDeletedUser(user.getId());
+        userCache.invalidate(user.getName());
     }
 
     @Transactional
     @Override
     public void updateUser(UserPatchRequest userPatchRequest) {
-        MyUser user = getCurrentUser();
+        MyUser user = getUserForUpdate(currentUserName());
+        String oldName = user.getName();
 
         userPatchRequest.name().ifPresent(name -> {
             if (name.trim().isEmpty()) {
                 throw new IllegalArgumentException("Name cannot be blank");
             }
-            if(getUserByName(name)!=null){
+            if(userRepo.existsByNameIgnoreCase(name)){
                 throw new UserAlreadyExist("User with this name already exist");
             }
             user.setName(name);
+            revokeTokens(user);
         });
 
         userRepo.save(user);
+        userCache.invalidate(oldName);
+        userCache.invalidate(user.getName());
     }
 
 
@@ -147,18 +169,20 @@ public class UserServiceImpl implements UserService{
                           LocalDateTime unlockAt,
                           String reason) {
 
-        MyUser user = getCurrentUser();
+        MyUser user = getUserForUpdate(currentUserName());
 
         user.setEnable(false);
         user.setUnlockAt(unlockAt);
         user.setBlockReason(reason);
+        revokeTokens(user);
         userRepo.save(user);
+        userCache.invalidate(user.getName());
     }
 
     @Transactional
     @Override
     public String toggleUserAuthorities(String userName) {
-        MyUser user = getUserByName(userName);
+        MyUser user = getUserForUpdate(userName);
         logger.info("Toggling ADMIN role for user '{}'", userName);
 
         List<String> roles = new ArrayList<>(user.getRoles());
@@ -186,7 +210,9 @@ public class UserServiceImpl implements UserService{
         }
 
         user.setRoles(roles);
+        revokeTokens(user);
         userRepo.save(user);
+        userCache.invalidate(user.getName());
         logger.debug("Updated roles for user '{}': {}", userName, roles);
 
         if (roleRemoved) {
@@ -202,21 +228,45 @@ public class UserServiceImpl implements UserService{
     @Transactional
     @Override
     public void unblockUser(String userName) {
-        MyUser user = getCurrentUser();
+        MyUser user = getUserForUpdate(currentUserName());
 
         user.setEnable(true);
         user.setUnlockAt(LocalDateTime.now());
         userRepo.save(user);
+        userCache.invalidate(user.getName());
+    }
+
+    /**
+     * Invalidates every access token issued to the user so far. Only matters when tokens
+     * are trusted without a database lookup (see {@code jwt.stateless.enabled}).
+     */
+    private void revokeTokens(MyUser user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        user.setTokenVersionChangedAt(LocalDateTime.now());
+        userVersionDenylist.revokeAfterCommit(user.getId(), user.getTokenVersion());
     }
 
     @Override
     public MyUser getCurrentUser(){
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return getUserByName(authentication.getName());
+        return getUserByName(currentUserName());
     }
 
     @Override
     public MyUser getUserByName(String userName) {
+        return userCache.findByName(userName)
+                .orElseThrow(() -> new UsernameNotFoundException("User with this name doesn't exist"));
+    }
+
+    private String currentUserName() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication.getName();
+    }
+
+    /**
+     * Loads a managed copy of the user, bypassing {@link UserCache}: cached instances are
+     * shared between requests and must not be modified.
+     */
+    private MyUser getUserForUpdate(String userName) {
         return userRepo.findByName(userName)
                 .orElseThrow(() -> new UsernameNotFoundException("User with this name doesn't exist"));
     }
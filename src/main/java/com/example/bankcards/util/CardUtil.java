@@ -1,23 +1,89 @@
 package com.example.bankcards.util;
 
 import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.repository.projection.CardView;
 import com.example.bankcards.util.encrypt.AESUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
 @Component
 public class CardUtil {
     private final static Logger logger = LoggerFactory.getLogger(CardUtil.class);
     private final AESUtil aesUtil;
 
+    /** Per-card debug events are logged for one card in this many; a page of cards would otherwise flood the log. */
+    @Value("${card.logging.debug-sample-rate:100}")
+    private int debugSampleRate = 100;
+
     public CardUtil(AESUtil aesUtil) {
         this.aesUtil = aesUtil;
     }
 
     public void populateMaskedCardNumber(Card card) {
-        String masked = getMaskedCardNumberOrDefault(card.getEncryptedCardNumber());
-        card.setMaskedCardNumber(masked);
+        card.setMaskedCardNumber(maskCardNumber(card.getCardNumberLast4(), card.getEncryptedCardNumber()));
+    }
+
+    /**
+     * Masked number of a single card row: from the stored last four digits, or by decrypting the number of a card
+     * that was not backfilled yet.
+     */
+    public String maskCardNumber(String lastFour, String encryptedCardNumber) {
+        return lastFour != null ? maskCardNumber(lastFour) : getMaskedCardNumberOrDefault(encryptedCardNumber);
+    }
+
+    /**
+     * Populates masked numbers of a whole page. Cards with a stored last-four column are masked
+     * without decryption; the remaining ones (not yet backfilled) are decrypted in a single batch.
+     * Cards that already have a masked number are skipped.
+     */
+    public void populateMaskedCardNumbers(List<Card> cards) {
+        List<Card> pending = cards.stream()
+                .filter(card -> card.getMaskedCardNumber() == null)
+                .toList();
+        List<String> masked = maskCardNumbers(
+                pending.stream().map(Card::getCardNumberLast4).toList(),
+                pending.stream().map(Card::getEncryptedCardNumber).toList());
+        for (int i = 0; i < pending.size(); i++) {
+            pending.get(i).setMaskedCardNumber(masked.get(i));
+        }
+    }
+
+    /**
+     * Same as {@link #populateMaskedCardNumbers(List)} for listing projections; returns the masks in input order.
+     */
+    public List<String> maskCardNumbers(List<CardView> cards) {
+        return maskCardNumbers(
+                cards.stream().map(CardView::cardNumberLast4).toList(),
+                cards.stream().map(CardView::encryptedCardNumber).toList());
+    }
+
+    private List<String> maskCardNumbers(List<String> lastFours, List<String> encryptedCardNumbers) {
+        List<String> masked = new ArrayList<>(lastFours.size());
+        List<Integer> pendingIndexes = new ArrayList<>();
+        List<String> pendingEncrypted = new ArrayList<>();
+        for (int i = 0; i < lastFours.size(); i++) {
+            String lastFour = lastFours.get(i);
+            masked.add(lastFour == null ? null : maskCardNumber(lastFour));
+            if (lastFour == null) {
+                pendingIndexes.add(i);
+                pendingEncrypted.add(encryptedCardNumbers.get(i));
+            }
+        }
+        if (pendingIndexes.isEmpty()) {
+            return masked;
+        }
+        List<String> decrypted = aesUtil.decryptAll(pendingEncrypted);
+        for (int i = 0; i < pendingIndexes.size(); i++) {
+            String cardNumber = decrypted.get(i);
+            masked.set(pendingIndexes.get(i), cardNumber == null ? "**** **** **** ****" : maskCardNumber(cardNumber));
+        }
+        return masked;
     }
 
     private String getMaskedCardNumberOrDefault(String encryptedCardNumber) {
@@ -25,23 +91,34 @@ public class CardUtil {
             return "**** **** **** ****";
         }
         try {
-            logger.debug("Trying to decrypt: {}", encryptedCardNumber);
-            String decrypted = aesUtil.decrypt(encryptedCardNumber);
-            logger.debug("Decrypted card number: {}", decrypted);
-            return maskCardNumber(decrypted);
+            String masked = maskCardNumber(aesUtil.decrypt(encryptedCardNumber));
+            if (sampleDebug()) {
+                logger.debug("Card number decrypted for masking as {} (sampled 1/{})", masked, debugSampleRate);
+            }
+            return masked;
         } catch (Exception e) {
             logger.error("Failed to decrypt card number: {}", e.getMessage(), e);
             return "**** **** **** ****";
         }
     }
 
+    public String lastFour(String cardNumber) {
+        return cardNumber.substring(cardNumber.length() - 4);
+    }
+
     public String maskCardNumber(String cardNumber) {
         if (cardNumber == null || cardNumber.length() < 4) {
             logger.warn("Card number is null or too short to mask: {}", cardNumber);
             return cardNumber;
         }
         String masked = "**** **** **** " + cardNumber.substring(cardNumber.length() - 4);
-        logger.debug("Card number masked as: {}", masked);
+        if (sampleDebug()) {
+            logger.debug("Card number masked as: {} (sampled 1/{})", masked, debugSampleRate);
+        }
         return masked;
     }
+
+    private boolean sampleDebug() {
+        return logger.isDebugEnabled() && (debugSampleRate <= 1 || ThreadLocalRandom.current().nextInt(debugSampleRate) == 0);
+    }
 }
@@ -0,0 +1,80 @@
+package com.example.bankcards.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque cursors for keyset pagination. A cursor wraps the id of the last returned row,
+ * so clients cannot rely on its format and it can change without breaking the API.
+ */
+public final class CursorUtil {
+    private static final String PREFIX = "id:";
+    private static final String POSITION_PREFIX = "at:";
+
+    private CursorUtil() {
+    }
+
+    public static String encode(long afterId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + afterId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the id to continue after, {@code 0} for a missing cursor (first slice)
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode(long)}
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            long afterId = Long.parseLong(value.substring(PREFIX.length()));
+            if (afterId < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return afterId;
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and base64 errors are IllegalArgumentExceptions as well
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Cursor for listings ordered by a timestamp and then by id.
+     */
+    public static String encode(LocalDateTime at, long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((POSITION_PREFIX + at + "/" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the position to continue after, {@code null} for a missing cursor (first slice)
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode(LocalDateTime, long)}
+     */
+    public static Position decodePosition(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('/');
+            if (!value.startsWith(POSITION_PREFIX) || separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new Position(
+                    LocalDateTime.parse(value.substring(POSITION_PREFIX.length(), separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public record Position(LocalDateTime at, long id) {
+    }
+}
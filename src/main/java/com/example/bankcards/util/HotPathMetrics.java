@@ -0,0 +1,42 @@
+package com.example.bankcards.util;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers of the per-request crypto and authentication steps.
+ * <p>
+ * They live on Micrometer's global registry, which Spring Boot links to the Prometheus registry, because
+ * {@code HashUtil} is static and {@code AESUtil} and {@code JwtServiceImpl} are also built directly in tests and
+ * benchmarks. Outside a Spring context the global registry is empty and recording costs next to nothing.
+ */
+public final class HotPathMetrics {
+    public static final Timer AES_ENCRYPT = crypto("aes", "encrypt");
+    public static final Timer AES_DECRYPT = crypto("aes", "decrypt");
+    public static final Timer SHA256_HASH = crypto("sha256", "hash");
+
+    /** {@code JwtRequestFilter}: reading the claims of the token, from the claims cache or by verifying it. */
+    public static final Timer JWT_PARSE = auth("parse");
+    /** Signature verification on a claims cache miss; counted within {@link #JWT_PARSE}. */
+    public static final Timer JWT_VERIFY = auth("verify");
+    /** {@code JwtRequestFilter}: the user details, from the database or, in stateless mode, from the claims. */
+    public static final Timer JWT_USER_LOAD = auth("user_load");
+
+    private HotPathMetrics() {
+    }
+
+    private static Timer crypto(String algorithm, String operation) {
+        return Timer.builder("bank.crypto")
+                .description("Card number encryption and hashing")
+                .tag("algorithm", algorithm)
+                .tag("operation", operation)
+                .register(Metrics.globalRegistry);
+    }
+
+    private static Timer auth(String stage) {
+        return Timer.builder("bank.auth.token")
+                .description("Access token authentication of a request")
+                .tag("stage", stage)
+                .register(Metrics.globalRegistry);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.bankcards.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of reusable objects that are not thread-safe, such as a {@code Cipher}, {@code Mac} or
+ * {@code MessageDigest}. Unlike a {@link ThreadLocal} it keeps paying off when every request runs on its own
+ * short-lived virtual thread: an instance goes back to the pool instead of dying with the thread.
+ * <p>
+ * {@link #acquire()} never waits: when the pool is empty a new instance is created. At most {@code capacity}
+ * idle instances are kept, the rest are left to the garbage collector.
+ */
+public final class ObjectPool<T> {
+    /** Twice the cores: crypto calls never block, so hardly more of them are in flight at once. */
+    public static final int DEFAULT_CAPACITY = 2 * Runtime.getRuntime().availableProcessors();
+
+    // guarded by a ReentrantLock rather than a monitor, so a virtual thread is never pinned on it
+    private final BlockingQueue<T> idle;
+    private final Supplier<T> factory;
+
+    public ObjectPool(int capacity, Supplier<T> factory) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+    }
+
+    public T acquire() {
+        T instance = idle.poll();
+        return instance != null ? instance : factory.get();
+    }
+
+    /**
+     * Returns an instance taken by {@link #acquire()}. It must be back in its initial state, or be reset
+     * by its next user, and must not be used by the caller afterwards.
+     */
+    public void release(T instance) {
+        idle.offer(instance);
+    }
+}
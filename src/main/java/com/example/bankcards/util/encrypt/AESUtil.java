@@ -1,16 +1,30 @@
 package com.example.bankcards.util.encrypt;
 
+import com.example.bankcards.util.HotPathMetrics;
+import com.example.bankcards.util.ObjectPool;
+
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Base64;
-
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AES-GCM encryption of card numbers. The key is derived once at startup and {@link Cipher} instances
+ * are reused through an {@link ObjectPool}, re-initialised with a fresh IV per call.
+ * The stored format is {@code base64(iv || ciphertext || tag)}.
+ */
 @Component
 public class AESUtil {
     private static final String AES = "AES";
@@ -18,48 +32,88 @@ public class AESUtil {
     private static final int GCM_TAG_LENGTH = 128;
     private static final int IV_LENGTH = 12;
 
+    private static final ObjectPool<Cipher> CIPHERS = new ObjectPool<>(ObjectPool.DEFAULT_CAPACITY, AESUtil::newCipher);
+
     private final SecureRandom secureRandom = new SecureRandom();
 
     @Value("${encryption.key}")
     private String key;
 
-    public String encrypt(String data) throws Exception {
-        byte[] iv = new byte[IV_LENGTH];
-        secureRandom.nextBytes(iv);
-        GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
+    private SecretKey secretKey;
 
-        Cipher cipher = Cipher.getInstance(AES_GCM_NO_PADDING);
-        cipher.init(Cipher.ENCRYPT_MODE, getSecretKey(), spec);
+    @PostConstruct
+    void init() {
+        secretKey = new SecretKeySpec(String.format("%-16s", key).substring(0, 16).getBytes(StandardCharsets.UTF_8), AES);
+    }
 
-        byte[] encrypted = cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
+    public String encrypt(String data) throws Exception {
+        long start = System.nanoTime();
+        byte[] plain = data.getBytes(StandardCharsets.UTF_8);
 
-        byte[] encryptedWithIv = new byte[IV_LENGTH + encrypted.length];
-        System.arraycopy(iv, 0, encryptedWithIv, 0, IV_LENGTH);
-        System.arraycopy(encrypted, 0, encryptedWithIv, IV_LENGTH, encrypted.length);
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
 
-        return Base64.getEncoder().encodeToString(encryptedWithIv);
+        byte[] encryptedWithIv;
+        Cipher cipher = CIPHERS.acquire();
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+            encryptedWithIv = new byte[IV_LENGTH + cipher.getOutputSize(plain.length)];
+            System.arraycopy(iv, 0, encryptedWithIv, 0, IV_LENGTH);
+            cipher.doFinal(plain, 0, plain.length, encryptedWithIv, IV_LENGTH);
+        } finally {
+            // every use starts with init, so a cipher left mid-operation by a failure is still reusable
+            CIPHERS.release(cipher);
+        }
+
+        String encrypted = Base64.getEncoder().encodeToString(encryptedWithIv);
+        HotPathMetrics.AES_ENCRYPT.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return encrypted;
     }
 
     public String decrypt(String encryptedData) throws Exception {
+        long start = System.nanoTime();
         byte[] decoded = Base64.getDecoder().decode(encryptedData);
 
-        byte[] iv = new byte[IV_LENGTH];
-        System.arraycopy(decoded, 0, iv, 0, IV_LENGTH);
-
-        GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-
-        Cipher cipher = Cipher.getInstance(AES_GCM_NO_PADDING);
-        cipher.init(Cipher.DECRYPT_MODE, getSecretKey(), spec);
-
-        byte[] encryptedBytes = new byte[decoded.length - IV_LENGTH];
-        System.arraycopy(decoded, IV_LENGTH, encryptedBytes, 0, encryptedBytes.length);
-
-        byte[] decrypted = cipher.doFinal(encryptedBytes);
+        int plainLength;
+        Cipher cipher = CIPHERS.acquire();
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH, decoded, 0, IV_LENGTH));
+            plainLength = cipher.doFinal(decoded, IV_LENGTH, decoded.length - IV_LENGTH, decoded, 0);
+        } finally {
+            CIPHERS.release(cipher);
+        }
+
+        String plain = new String(decoded, 0, plainLength, StandardCharsets.UTF_8);
+        HotPathMetrics.AES_DECRYPT.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return plain;
+    }
 
-        return new String(decrypted, StandardCharsets.UTF_8);
+    /**
+     * Decrypts a whole page of values.
+     * The result has the same order as the input; values that are {@code null} or cannot be
+     * decrypted are returned as {@code null}.
+     */
+    public List<String> decryptAll(List<String> encryptedData) {
+        List<String> result = new ArrayList<>(encryptedData.size());
+        for (String value : encryptedData) {
+            if (value == null) {
+                result.add(null);
+                continue;
+            }
+            try {
+                result.add(decrypt(value));
+            } catch (Exception e) {
+                result.add(null);
+            }
+        }
+        return result;
     }
 
-    private SecretKey getSecretKey(){
-        return new SecretKeySpec( String.format("%-16s", key).substring(0, 16).getBytes(StandardCharsets.UTF_8), AES);
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(AES_GCM_NO_PADDING);
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            throw new IllegalStateException("AES/GCM is not supported by the JVM", e);
+        }
     }
 }
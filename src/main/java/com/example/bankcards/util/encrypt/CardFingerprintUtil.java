@@ -0,0 +1,106 @@
+package com.example.bankcards.util.encrypt;
+
+import com.example.bankcards.util.ObjectPool;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Keyed fingerprint of a card number, used to find and deduplicate cards without decrypting them.
+ * <p>
+ * An unkeyed hash of a 16-digit number can be reversed by enumerating the account digits, so the fingerprint is an
+ * HMAC-SHA256 under a dedicated key. Initialised {@link Mac} instances are reused through an {@link ObjectPool},
+ * each with its own buffer the digits are fed through without converting them to a {@code String} first.
+ */
+@Component
+public class CardFingerprintUtil {
+    public static final int FINGERPRINT_LENGTH = 32;
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final int MIN_KEY_LENGTH = 32;
+    private static final int MAX_CARD_NUMBER_LENGTH = 19;
+
+    private final ObjectPool<Hmac> hmacs = new ObjectPool<>(ObjectPool.DEFAULT_CAPACITY, this::newHmac);
+
+    @Value("${encryption.fingerprint-key}")
+    private String key;
+
+    private SecretKey secretKey;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length < MIN_KEY_LENGTH) {
+            throw new IllegalStateException("encryption.fingerprint-key must be at least " + MIN_KEY_LENGTH + " bytes");
+        }
+        secretKey = new SecretKeySpec(keyBytes, HMAC_SHA256);
+    }
+
+    public byte[] fingerprint(CharSequence cardNumber) {
+        int length = checkLength(cardNumber.length());
+        Hmac hmac = hmacs.acquire();
+        try {
+            for (int i = 0; i < length; i++) {
+                hmac.buffer()[i] = digit(cardNumber.charAt(i));
+            }
+            return hmac.digest(length);
+        } finally {
+            hmacs.release(hmac);
+        }
+    }
+
+    public byte[] fingerprint(char[] cardNumber) {
+        int length = checkLength(cardNumber.length);
+        Hmac hmac = hmacs.acquire();
+        try {
+            for (int i = 0; i < length; i++) {
+                hmac.buffer()[i] = digit(cardNumber[i]);
+            }
+            return hmac.digest(length);
+        } finally {
+            hmacs.release(hmac);
+        }
+    }
+
+    private static int checkLength(int length) {
+        if (length == 0 || length > MAX_CARD_NUMBER_LENGTH) {
+            throw new IllegalArgumentException("Card number must have 1 to " + MAX_CARD_NUMBER_LENGTH + " digits");
+        }
+        return length;
+    }
+
+    private static byte digit(char c) {
+        if (c < '0' || c > '9') {
+            throw new IllegalArgumentException("Card number must contain only digits");
+        }
+        return (byte) c;
+    }
+
+    private Hmac newHmac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(secretKey);
+            return new Hmac(mac, new byte[MAX_CARD_NUMBER_LENGTH]);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /**
+     * An initialised {@link Mac} with the buffer its input is written to. Nothing is fed to the {@code Mac} before
+     * the digits are validated, and {@code doFinal} resets it, so it is back in its initial state after every call.
+     */
+    private record Hmac(Mac mac, byte[] buffer) {
+        byte[] digest(int length) {
+            mac.update(buffer, 0, length);
+            return mac.doFinal();
+        }
+    }
+}
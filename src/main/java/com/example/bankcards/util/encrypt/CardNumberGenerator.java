@@ -1,39 +1,133 @@
 package com.example.bankcards.util.encrypt;
 
-import java.util.Random;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Generates Luhn-valid card numbers inside configured BIN ranges.
+ * <p>
+ * Random digits come from {@link ThreadLocalRandom}, so concurrent callers never contend on a shared seed,
+ * and the number is assembled and check-summed in a single {@code char[]} without intermediate strings.
+ * Uniqueness is not checked here; see {@code CardNumberPool}.
+ */
 public class CardNumberGenerator {
-    private static final Random random = new Random();
+    public static final BinRange DEFAULT_RANGE = BinRange.parse("400000");
 
-    private static final String BIN = "400000";
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
 
     public static String generateCardNumber() {
-        StringBuilder cardNumber = new StringBuilder(BIN);
+        return generateCardNumber(DEFAULT_RANGE);
+    }
 
-        for (int i = 0; i < 9; i++) {
-            cardNumber.append(random.nextInt(10));
-        }
+    /**
+     * Picks one of the ranges uniformly, then a BIN inside it, then the account digits.
+     */
+    public static String generateCardNumber(List<BinRange> ranges) {
+        return new String(generateDigits(ranges));
+    }
 
-        int checkDigit = getCheckDigit(cardNumber.toString());
-        cardNumber.append(checkDigit);
+    public static String generateCardNumber(BinRange range) {
+        return new String(generateDigits(range));
+    }
 
-        return cardNumber.toString();
+    /**
+     * Same as {@link #generateCardNumber(List)}, for callers that fingerprint the digits before building a string.
+     */
+    public static char[] generateDigits(List<BinRange> ranges) {
+        return generateDigits(ranges.get(ThreadLocalRandom.current().nextInt(ranges.size())));
     }
 
-    private static int getCheckDigit(String number) {
+    public static char[] generateDigits(BinRange range) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] digits = new char[range.length()];
+
+        long bin = range.from() == range.to() ? range.from() : random.nextLong(range.from(), range.to() + 1);
+        writeDigits(digits, 0, range.binLength(), bin);
+
+        int accountLength = range.length() - range.binLength() - 1;
+        writeDigits(digits, range.binLength(), accountLength, random.nextLong(POWERS_OF_TEN[accountLength]));
+
+        digits[digits.length - 1] = (char) ('0' + checkDigit(digits, digits.length - 1));
+        return digits;
+    }
+
+    /**
+     * Luhn check digit of the first {@code length} digits.
+     */
+    public static int checkDigit(char[] digits, int length) {
         int sum = 0;
-        boolean alternate = true;
-        for (int i = number.length() - 1; i >= 0; i--) {
-            int n = Integer.parseInt(number.substring(i, i + 1));
-            if (alternate) {
+        boolean doubled = true;
+        for (int i = length - 1; i >= 0; i--) {
+            int n = digits[i] - '0';
+            if (doubled) {
                 n *= 2;
                 if (n > 9) n -= 9;
             }
             sum += n;
-            alternate = !alternate;
+            doubled = !doubled;
         }
-        int mod = sum % 10;
-        return (mod == 0) ? 0 : 10 - mod;
+        return (10 - sum % 10) % 10;
     }
 
+    public static boolean isValid(String cardNumber) {
+        if (cardNumber == null || cardNumber.length() < 2) {
+            return false;
+        }
+        char[] digits = cardNumber.toCharArray();
+        for (char digit : digits) {
+            if (digit < '0' || digit > '9') {
+                return false;
+            }
+        }
+        return digits[digits.length - 1] - '0' == checkDigit(digits, digits.length - 1);
+    }
+
+    private static void writeDigits(char[] target, int offset, int count, long value) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            target[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * Inclusive range of BINs of equal length, e.g. {@code 400000-400099}, with the total card number length.
+     * Written as {@code from[-to][:length]}; the length defaults to 16.
+     */
+    public record BinRange(long from, long to, int binLength, int length) {
+        public BinRange {
+            if (from < 0 || to < from) {
+                throw new IllegalArgumentException("Invalid BIN range " + from + "-" + to);
+            }
+            if (String.valueOf(to).length() > binLength) {
+                throw new IllegalArgumentException("BIN " + to + " is longer than " + binLength + " digits");
+            }
+            if (length < 12 || length > 19 || length - binLength < 2) {
+                throw new IllegalArgumentException("Card number length " + length + " does not fit BIN length " + binLength);
+            }
+        }
+
+        public static BinRange parse(String value) {
+            String range = value.trim();
+            int length = 16;
+            int colon = range.indexOf(':');
+            if (colon >= 0) {
+                length = Integer.parseInt(range.substring(colon + 1).trim());
+                range = range.substring(0, colon).trim();
+            }
+            int dash = range.indexOf('-');
+            String from = dash >= 0 ? range.substring(0, dash).trim() : range;
+            String to = dash >= 0 ? range.substring(dash + 1).trim() : range;
+            if (from.length() != to.length()) {
+                throw new IllegalArgumentException("BIN range bounds must have the same length: " + value);
+            }
+            return new BinRange(Long.parseLong(from), Long.parseLong(to), from.length(), length);
+        }
+    }
 }
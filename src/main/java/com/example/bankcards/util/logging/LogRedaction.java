@@ -0,0 +1,181 @@
+package com.example.bankcards.util.logging;
+
+/**
+ * Removes card numbers and JWTs from log output, whatever the log statement passed in.
+ * <p>
+ * A card number is a run of 13 to 19 digits, optionally grouped by single spaces or dashes, that passes the Luhn
+ * check, also when other numbers stand right next to it; all but its last four digits are replaced by {@code *}.
+ * A JWT ({@code eyJ...}{@code .}...{@code .}...) is replaced as a whole. The text is scanned without regular
+ * expressions and returned as the same instance when nothing had to be redacted, which is the case for almost every
+ * line.
+ */
+public final class LogRedaction {
+    static final String REDACTED_TOKEN = "[REDACTED_JWT]";
+    private static final int MIN_PAN_DIGITS = 13;
+    private static final int MAX_PAN_DIGITS = 19;
+
+    private LogRedaction() {
+    }
+
+    public static String redact(String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder out = null;
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            int end;
+            if (isDigit(c) && (i == 0 || !Character.isLetterOrDigit(value.charAt(i - 1)))) {
+                end = digitRunEnd(value, i);
+                boolean[] mask = cardNumberMask(value, i, end);
+                if (mask != null) {
+                    out = startCopy(out, value, i);
+                    for (int j = i; j < end; j++) {
+                        out.append(mask[j - i] ? '*' : value.charAt(j));
+                    }
+                } else if (out != null) {
+                    out.append(value, i, end);
+                }
+                i = end;
+                continue;
+            }
+            if (c == 'e' && value.startsWith("eyJ", i) && (end = tokenEnd(value, i)) > 0) {
+                out = startCopy(out, value, i);
+                out.append(REDACTED_TOKEN);
+                i = end;
+                continue;
+            }
+            if (out != null) {
+                out.append(c);
+            }
+            i++;
+        }
+        return out == null ? value : out.toString();
+    }
+
+    private static StringBuilder startCopy(StringBuilder out, String value, int upTo) {
+        if (out != null) {
+            return out;
+        }
+        return new StringBuilder(value.length()).append(value, 0, upTo);
+    }
+
+    /** End of a run of digit groups separated by single spaces or dashes. */
+    private static int digitRunEnd(String value, int start) {
+        int length = value.length();
+        int i = start;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (isDigit(c)) {
+                i++;
+            } else if ((c == ' ' || c == '-') && i + 1 < length && isDigit(value.charAt(i + 1))) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Marks the digits to hide in the run {@code [start, end)}, or returns null if it holds no card number.
+     * <p>
+     * The run may join a card number with amounts or ids around it ({@code "card 4111... 100"}), so every window of
+     * whole groups with 13 to 19 digits is checked on its own. Each window that passes Luhn gets all but its last
+     * four digits marked; overlapping windows therefore never reveal more than the last four digits of a number.
+     */
+    private static boolean[] cardNumberMask(String value, int start, int end) {
+        if (end - start < MIN_PAN_DIGITS) {
+            return null;
+        }
+        int[] groupStarts = new int[(end - start + 1) / 2];
+        int[] groupEnds = new int[groupStarts.length];
+        int groups = 0;
+        for (int i = start; i < end; ) {
+            groupStarts[groups] = i;
+            while (i < end && isDigit(value.charAt(i))) {
+                i++;
+            }
+            groupEnds[groups++] = i;
+            i++;
+        }
+        // a number glued to a word, such as an id with a suffix, is not a card number
+        boolean lastGroupUsable = end == value.length() || !Character.isLetter(value.charAt(end));
+        boolean[] mask = null;
+        for (int first = 0; first < groups; first++) {
+            int digits = 0;
+            for (int last = first; last < groups; last++) {
+                digits += groupEnds[last] - groupStarts[last];
+                if (digits > MAX_PAN_DIGITS || (last == groups - 1 && !lastGroupUsable)) {
+                    break;
+                }
+                if (digits >= MIN_PAN_DIGITS && passesLuhn(value, groupStarts[first], groupEnds[last])) {
+                    if (mask == null) {
+                        mask = new boolean[end - start];
+                    }
+                    markAllButLastFour(value, mask, start, groupStarts[first], groupEnds[last]);
+                }
+            }
+        }
+        return mask;
+    }
+
+    private static boolean passesLuhn(String value, int start, int end) {
+        int digits = 0;
+        int sum = 0;
+        for (int i = end - 1; i >= start; i--) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                continue;
+            }
+            int digit = c - '0';
+            if (digits % 2 == 1) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            digits++;
+        }
+        return sum % 10 == 0;
+    }
+
+    private static void markAllButLastFour(String value, boolean[] mask, int runStart, int start, int end) {
+        int kept = 0;
+        for (int i = end - 1; i >= start; i--) {
+            if (isDigit(value.charAt(i)) && kept++ >= 4) {
+                mask[i - runStart] = true;
+            }
+        }
+    }
+
+    /** End of a {@code header.payload.signature} token starting at {@code start}, or -1 if there is none. */
+    private static int tokenEnd(String value, int start) {
+        int length = value.length();
+        int dots = 0;
+        int i = start;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (++dots > 2) {
+                    break;
+                }
+            } else if (!isBase64Url(c)) {
+                break;
+            }
+            i++;
+        }
+        return dots == 2 ? i : -1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isBase64Url(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '-' || c == '_';
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.bankcards.util.logging;
+
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * {@code %m} / {@code %msg} / {@code %message} of the text log patterns, with {@link LogRedaction} applied.
+ */
+public class RedactingMessageConverter extends MessageConverter {
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        return LogRedaction.redact(super.convert(event));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.bankcards.util.logging;
+
+import com.fasterxml.jackson.core.JsonStreamContext;
+import net.logstash.logback.mask.ValueMasker;
+
+/**
+ * Applies {@link LogRedaction} to every string value of the JSON log output: message, arguments, MDC and stack trace.
+ */
+public class RedactingValueMasker implements ValueMasker {
+
+    @Override
+    public Object mask(JsonStreamContext context, Object value) {
+        if (value instanceof String text) {
+            String redacted = LogRedaction.redact(text);
+            // null keeps the original value
+            return redacted == text ? null : redacted;
+        }
+        return null;
+    }
+}
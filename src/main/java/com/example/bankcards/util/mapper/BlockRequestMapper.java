@@ -1,11 +1,14 @@
 package com.example.bankcards.util.mapper;
 
 
+import com.example.bankcards.dto.response.card.pagination.card.CardDtoForSearchResponse;
 import com.example.bankcards.dto.response.card.pagination.cardBlockRequest.BlockRequestResponse;
 import com.example.bankcards.entity.card.Card;
 import com.example.bankcards.entity.card.CardBlockRequest;
+import com.example.bankcards.repository.projection.BlockRequestView;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -25,4 +28,16 @@ public class BlockRequestMapper {
     public List<BlockRequestResponse> toDtoList(List<CardBlockRequest> blockRequests){
         return blockRequests.stream().map(this::toDto).toList();
     }
+
+    public List<BlockRequestResponse> viewsToDtoList(List<BlockRequestView> blockRequests){
+        List<CardDtoForSearchResponse> cards = cardMapper.viewsToDtoList(
+                blockRequests.stream().map(BlockRequestView::card).toList());
+        List<BlockRequestResponse> result = new ArrayList<>(blockRequests.size());
+        for (int i = 0; i < blockRequests.size(); i++) {
+            BlockRequestView blockRequest = blockRequests.get(i);
+            result.add(new BlockRequestResponse(cards.get(i), blockRequest.requestedByName(),
+                    blockRequest.requestDate(), blockRequest.reason()));
+        }
+        return result;
+    }
 }
@@ -3,9 +3,11 @@ package com.example.bankcards.util.mapper;
 
 import com.example.bankcards.dto.response.card.pagination.card.CardDtoForSearchResponse;
 import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.repository.projection.CardView;
 import com.example.bankcards.util.CardUtil;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Component
@@ -17,20 +19,34 @@ public class CardMapper {
     }
 
     public CardDtoForSearchResponse toDto(Card card){
+        if (card.getMaskedCardNumber() == null) {
+            cardUtil.populateMaskedCardNumber(card);
+        }
         return new CardDtoForSearchResponse(
                 card.getId(),
-                cardUtil.maskCardNumber(card.getMaskedCardNumber()),
+                card.getMaskedCardNumber(),
                 card.getExpirationDate(),
                 card.getState(),
                 card.getBalance());
     }
 
     public List<CardDtoForSearchResponse> toDtoList(List<Card> cards){
-        return cards.stream().map(card->{
-            if (card.getMaskedCardNumber()==null){
-                cardUtil.populateMaskedCardNumber(card);
-            }
-            return toDto(card);
-        }).toList();
+        cardUtil.populateMaskedCardNumbers(cards);
+        return cards.stream().map(this::toDto).toList();
+    }
+
+    public List<CardDtoForSearchResponse> viewsToDtoList(List<CardView> cards){
+        List<String> masked = cardUtil.maskCardNumbers(cards);
+        List<CardDtoForSearchResponse> result = new ArrayList<>(cards.size());
+        for (int i = 0; i < cards.size(); i++) {
+            CardView card = cards.get(i);
+            result.add(new CardDtoForSearchResponse(
+                    card.id(),
+                    masked.get(i),
+                    card.expirationDate(),
+                    card.state(),
+                    card.balance()));
+        }
+        return result;
     }
 }
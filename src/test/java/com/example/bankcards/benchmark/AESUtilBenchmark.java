@@ -0,0 +1,137 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.encrypt.AESUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link AESUtil} with the implementation it replaced (one {@code Cipher.getInstance}
+ * and one key derivation per call) on pages of 1, 10 and 1000 card numbers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AESUtilBenchmark {
+    private static final String KEY = "N123221593dd45lKg_28Dh";
+
+    @Param({"1", "10", "1000"})
+    private int cards;
+
+    private AESUtil aesUtil;
+    private LegacyAESUtil legacyAesUtil;
+    private List<String> encryptedPage;
+
+    @Setup
+    public void setUp() throws Exception {
+        aesUtil = new AESUtil();
+        ReflectionTestUtils.setField(aesUtil, "key", KEY);
+        ReflectionTestUtils.invokeMethod(aesUtil, "init");
+        legacyAesUtil = new LegacyAESUtil(KEY);
+
+        encryptedPage = new ArrayList<>(cards);
+        for (int i = 0; i < cards; i++) {
+            encryptedPage.add(aesUtil.encrypt(String.format("4000001234%06d", i)));
+        }
+    }
+
+    @Benchmark
+    public void legacyDecryptPage(Blackhole blackhole) throws Exception {
+        for (String value : encryptedPage) {
+            blackhole.consume(legacyAesUtil.decrypt(value));
+        }
+    }
+
+    @Benchmark
+    public void decryptPage(Blackhole blackhole) throws Exception {
+        for (String value : encryptedPage) {
+            blackhole.consume(aesUtil.decrypt(value));
+        }
+    }
+
+    @Benchmark
+    public List<String> decryptAllPage() {
+        return aesUtil.decryptAll(encryptedPage);
+    }
+
+    @Benchmark
+    public void legacyEncryptPage(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < cards; i++) {
+            blackhole.consume(legacyAesUtil.encrypt("4000001234567890"));
+        }
+    }
+
+    @Benchmark
+    public void encryptPage(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < cards; i++) {
+            blackhole.consume(aesUtil.encrypt("4000001234567890"));
+        }
+    }
+
+    /**
+     * The previous {@code AESUtil} implementation, kept as the baseline.
+     */
+    static class LegacyAESUtil {
+        private static final int GCM_TAG_LENGTH = 128;
+        private static final int IV_LENGTH = 12;
+
+        private final SecureRandom secureRandom = new SecureRandom();
+        private final String key;
+
+        LegacyAESUtil(String key) {
+            this.key = key;
+        }
+
+        String encrypt(String data) throws Exception {
+            byte[] iv = new byte[IV_LENGTH];
+            secureRandom.nextBytes(iv);
+            GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
+
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, getSecretKey(), spec);
+
+            byte[] encrypted = cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
+
+            byte[] encryptedWithIv = new byte[IV_LENGTH + encrypted.length];
+            System.arraycopy(iv, 0, encryptedWithIv, 0, IV_LENGTH);
+            System.arraycopy(encrypted, 0, encryptedWithIv, IV_LENGTH, encrypted.length);
+
+            return Base64.getEncoder().encodeToString(encryptedWithIv);
+        }
+
+        String decrypt(String encryptedData) throws Exception {
+            byte[] decoded = Base64.getDecoder().decode(encryptedData);
+
+            byte[] iv = new byte[IV_LENGTH];
+            System.arraycopy(decoded, 0, iv, 0, IV_LENGTH);
+
+            GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
+
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, getSecretKey(), spec);
+
+            byte[] encryptedBytes = new byte[decoded.length - IV_LENGTH];
+            System.arraycopy(decoded, IV_LENGTH, encryptedBytes, 0, encryptedBytes.length);
+
+            return new String(cipher.doFinal(encryptedBytes), StandardCharsets.UTF_8);
+        }
+
+        private SecretKey getSecretKey() {
+            return new SecretKeySpec(String.format("%-16s", key).substring(0, 16).getBytes(StandardCharsets.UTF_8), "AES");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.bankcards.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmarks run without Spring Boot, where Logback falls back to printing everything at DEBUG.
+ * The measured methods log on every call, so without this the console would be measured instead.
+ */
+final class BenchmarkLogging {
+
+    private BenchmarkLogging() {
+    }
+
+    static void infoOnly() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+    }
+}
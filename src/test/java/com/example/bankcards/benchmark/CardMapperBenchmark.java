@@ -0,0 +1,70 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.dto.response.card.pagination.card.CardDtoForSearchResponse;
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.util.CardUtil;
+import com.example.bankcards.util.encrypt.AESUtil;
+import com.example.bankcards.util.mapper.CardMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CardMapper#toDtoList} on pages of 10, 100 and 1000 cards, either with the stored last four digits
+ * ({@code last4}) or with only the encrypted number, as cards look before the backfill ({@code encrypted}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardMapperBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int cards;
+
+    @Param({"last4", "encrypted"})
+    private String source;
+
+    private CardMapper cardMapper;
+    private List<Card> page;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkLogging.infoOnly();
+        AESUtil aesUtil = new AESUtil();
+        ReflectionTestUtils.setField(aesUtil, "key", "N123221593dd45lKg_28Dh");
+        ReflectionTestUtils.invokeMethod(aesUtil, "init");
+        cardMapper = new CardMapper(new CardUtil(aesUtil));
+
+        page = new ArrayList<>(cards);
+        for (int i = 0; i < cards; i++) {
+            String number = String.format("4000001234%06d", i);
+            Card card = new Card();
+            card.setId((long) i);
+            card.setEncryptedCardNumber(aesUtil.encrypt(number));
+            if (source.equals("last4")) {
+                card.setCardNumberLast4(number.substring(12));
+            }
+            card.setExpirationDate(LocalDate.of(2030, 1, 1));
+            card.setState(com.example.bankcards.entity.card.State.ACTIVE);
+            card.setBalance(BigDecimal.valueOf(i));
+            page.add(card);
+        }
+    }
+
+    @Benchmark
+    public List<CardDtoForSearchResponse> toDtoList() {
+        // masks are cached on the entity; clear them so every call masks the page like a freshly loaded one
+        for (Card card : page) {
+            card.setMaskedCardNumber(null);
+        }
+        return cardMapper.toDtoList(page);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.encrypt.CardNumberGenerator;
+import com.example.bankcards.util.encrypt.CardNumberGenerator.BinRange;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card numbers per second of {@link CardNumberGenerator} against the implementation it replaced
+ * (one shared {@link Random}, Luhn digit computed through substrings) at 1 to 32 threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardNumberGeneratorBenchmark {
+    private final List<BinRange> ranges = List.of(BinRange.parse("400000-400099"));
+
+    @Benchmark
+    @Threads(1)
+    public String legacy01() {
+        return LegacyCardNumberGenerator.generateCardNumber();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String legacy04() {
+        return LegacyCardNumberGenerator.generateCardNumber();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String legacy08() {
+        return LegacyCardNumberGenerator.generateCardNumber();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String legacy16() {
+        return LegacyCardNumberGenerator.generateCardNumber();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public String legacy32() {
+        return LegacyCardNumberGenerator.generateCardNumber();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String generate01() {
+        return CardNumberGenerator.generateCardNumber(ranges);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generate04() {
+        return CardNumberGenerator.generateCardNumber(ranges);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String generate08() {
+        return CardNumberGenerator.generateCardNumber(ranges);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String generate16() {
+        return CardNumberGenerator.generateCardNumber(ranges);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public String generate32() {
+        return CardNumberGenerator.generateCardNumber(ranges);
+    }
+
+    /**
+     * The previous {@code CardNumberGenerator} implementation, kept as the baseline.
+     */
+    static class LegacyCardNumberGenerator {
+        private static final Random random = new Random();
+
+        private static final String BIN = "400000";
+
+        static String generateCardNumber() {
+            StringBuilder cardNumber = new StringBuilder(BIN);
+
+            for (int i = 0; i < 9; i++) {
+                cardNumber.append(random.nextInt(10));
+            }
+
+            int checkDigit = getCheckDigit(cardNumber.toString());
+            cardNumber.append(checkDigit);
+
+            return cardNumber.toString();
+        }
+
+        private static int getCheckDigit(String number) {
+            int sum = 0;
+            boolean alternate = true;
+            for (int i = number.length() - 1; i >= 0; i--) {
+                int n = Integer.parseInt(number.substring(i, i + 1));
+                if (alternate) {
+                    n *= 2;
+                    if (n > 9) n -= 9;
+                }
+                sum += n;
+                alternate = !alternate;
+            }
+            int mod = sum % 10;
+            return (mod == 0) ? 0 : 10 - mod;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.CardUtil;
+import com.example.bankcards.util.encrypt.AESUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CardUtil#maskCardNumber} on a full card number (cards not backfilled yet) and on the stored last four digits.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardUtilBenchmark {
+    private CardUtil cardUtil;
+    private String cardNumber;
+    private String lastFour;
+
+    @Setup
+    public void setUp() {
+        BenchmarkLogging.infoOnly();
+        cardUtil = new CardUtil(new AESUtil());
+        // not constants, so the JIT cannot fold the substring away
+        cardNumber = new StringBuilder("4000001234567899").toString();
+        lastFour = new StringBuilder("7899").toString();
+    }
+
+    @Benchmark
+    public String maskCardNumber() {
+        return cardUtil.maskCardNumber(cardNumber);
+    }
+
+    @Benchmark
+    public String maskLastFour() {
+        return cardUtil.maskCardNumber(lastFour);
+    }
+}
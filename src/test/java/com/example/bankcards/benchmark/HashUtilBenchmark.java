@@ -0,0 +1,48 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.encrypt.CardFingerprintUtil;
+import com.example.bankcards.util.encrypt.HashUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link HashUtil#hash} on a card number (legacy card lookups) and on an access token (claims cache key),
+ * and the keyed {@link CardFingerprintUtil#fingerprint} that replaced the former for card lookups.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HashUtilBenchmark {
+    private static final String CARD_NUMBER = "4000001234567899";
+    // the size of an access token with a user id, version and one role
+    private static final String TOKEN = "eyJhbGciOiJIUzI1NiJ9." + "x".repeat(220) + "." + "y".repeat(43);
+
+    private CardFingerprintUtil fingerprintUtil;
+
+    @Setup
+    public void setUp() {
+        fingerprintUtil = new CardFingerprintUtil();
+        ReflectionTestUtils.setField(fingerprintUtil, "key", "fingerprint-key-for-benchmarks-only!");
+        ReflectionTestUtils.invokeMethod(fingerprintUtil, "init");
+    }
+
+    @Benchmark
+    public String hashCardNumber() {
+        return HashUtil.hash(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String hashToken() {
+        return HashUtil.hash(TOKEN);
+    }
+
+    @Benchmark
+    public byte[] fingerprintCardNumber() {
+        return fingerprintUtil.fingerprint(CARD_NUMBER);
+    }
+}
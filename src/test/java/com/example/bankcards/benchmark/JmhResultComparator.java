@@ -0,0 +1,135 @@
+package com.example.bankcards.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH result files written with {@code -rf json} and fails when a benchmark got slower.
+ * <p>
+ * A benchmark counts as regressed when its score is worse than the baseline by more than the threshold
+ * (in percent) and the difference is larger than the two error margins together, so noise alone does not fail
+ * the build. Benchmarks present in only one of the files are reported but never fail.
+ * <p>
+ * Usage: {@code JmhResultComparator <current.json> <thresholdPercent> [baseline.json]}; without a baseline
+ * the comparison is skipped.
+ */
+public final class JmhResultComparator {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+    private JmhResultComparator() {
+    }
+
+    public record Result(String mode, String unit, double score, double error) {
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+    }
+
+    public record Comparison(String benchmark, Result baseline, Result current, double changePercent,
+                             boolean regression) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || args[2].isBlank()) {
+            System.out.println("No JMH baseline given (-Djmh.baseline), skipping comparison");
+            return;
+        }
+        double threshold = args[1].isBlank() ? DEFAULT_THRESHOLD_PERCENT : Double.parseDouble(args[1]);
+
+        List<Comparison> comparisons = compare(read(new File(args[2])), read(new File(args[0])), threshold);
+        comparisons.forEach(c -> System.out.println(format(c)));
+
+        long regressions = comparisons.stream().filter(Comparison::regression).count();
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+        System.out.printf("No benchmark regressed by more than %.1f%%%n", threshold);
+    }
+
+    public static List<Comparison> compare(Map<String, Result> baseline, Map<String, Result> current,
+                                           double thresholdPercent) {
+        List<Comparison> comparisons = new ArrayList<>();
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result before = baseline.get(entry.getKey());
+            Result after = entry.getValue();
+            if (before == null || !before.mode().equals(after.mode()) || !before.unit().equals(after.unit())) {
+                comparisons.add(new Comparison(entry.getKey(), before, after, Double.NaN, false));
+                continue;
+            }
+            double change = (after.score() - before.score()) / before.score() * 100;
+            double worsening = after.higherIsBetter() ? -change : change;
+            boolean outsideNoise = Math.abs(after.score() - before.score()) > before.error() + after.error();
+            comparisons.add(new Comparison(entry.getKey(), before, after, change,
+                    worsening > thresholdPercent && outsideNoise));
+        }
+        for (Map.Entry<String, Result> entry : baseline.entrySet()) {
+            if (!current.containsKey(entry.getKey())) {
+                comparisons.add(new Comparison(entry.getKey(), entry.getValue(), null, Double.NaN, false));
+            }
+        }
+        return comparisons;
+    }
+
+    /**
+     * Reads a JMH JSON result file, keyed by benchmark name and its parameters.
+     */
+    public static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : MAPPER.readTree(file)) {
+            JsonNode metric = run.path("primaryMetric");
+            results.put(key(run), new Result(
+                    run.path("mode").asText(),
+                    metric.path("scoreUnit").asText(),
+                    number(metric.path("score")),
+                    number(metric.path("scoreError"))));
+        }
+        return results;
+    }
+
+    private static String key(JsonNode run) {
+        String benchmark = run.path("benchmark").asText();
+        JsonNode params = run.path("params");
+        if (params.isMissingNode() || params.isEmpty()) {
+            return benchmark;
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            sorted.put(field.getKey(), field.getValue().asText());
+        }
+        return benchmark + sorted;
+    }
+
+    // JMH writes "NaN" as a string when a single iteration leaves no error estimate
+    private static double number(JsonNode node) {
+        double value = node.isNumber() ? node.asDouble() : Double.NaN;
+        return Double.isNaN(value) ? 0 : value;
+    }
+
+    private static String format(Comparison c) {
+        if (c.baseline() == null) {
+            return String.format("NEW        %s: %.3f %s", c.benchmark(), c.current().score(), c.current().unit());
+        }
+        if (c.current() == null) {
+            return String.format("REMOVED    %s", c.benchmark());
+        }
+        if (Double.isNaN(c.changePercent())) {
+            return String.format("CHANGED    %s: mode or unit differs, not compared", c.benchmark());
+        }
+        return String.format("%-10s %s: %.3f -> %.3f %s (%+.1f%%)",
+                c.regression() ? "REGRESSED" : "OK",
+                c.benchmark(), c.baseline().score(), c.current().score(), c.current().unit(), c.changePercent());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.benchmark.JmhResultComparator.Comparison;
+import com.example.bankcards.benchmark.JmhResultComparator.Result;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JmhResultComparatorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void read_ShouldKeyResultsByBenchmarkAndParams() throws Exception {
+        Path file = dir.resolve("result.json");
+        Files.writeString(file, """
+                [
+                  {"benchmark": "b.CardMapperBenchmark.toDtoList", "mode": "avgt",
+                   "params": {"source": "last4", "cards": "10"},
+                   "primaryMetric": {"score": 1.5, "scoreError": "NaN", "scoreUnit": "us/op"}},
+                  {"benchmark": "b.HashUtilBenchmark.hashToken", "mode": "avgt",
+                   "primaryMetric": {"score": 300.0, "scoreError": 4.0, "scoreUnit": "ns/op"}}
+                ]
+                """);
+
+        Map<String, Result> results = JmhResultComparator.read(file.toFile());
+
+        assertEquals(new Result("avgt", "us/op", 1.5, 0),
+                results.get("b.CardMapperBenchmark.toDtoList{cards=10, source=last4}"));
+        assertEquals(new Result("avgt", "ns/op", 300.0, 4.0), results.get("b.HashUtilBenchmark.hashToken"));
+    }
+
+    @Test
+    void compare_ShouldFlagSlowerAverageTimeBeyondThresholdAndNoise() {
+        List<Comparison> comparisons = JmhResultComparator.compare(
+                Map.of("a", new Result("avgt", "ns/op", 100, 2)),
+                Map.of("a", new Result("avgt", "ns/op", 120, 2)),
+                10);
+
+        assertEquals(1, comparisons.size());
+        assertTrue(comparisons.get(0).regression());
+        assertEquals(20.0, comparisons.get(0).changePercent(), 1e-9);
+    }
+
+    @Test
+    void compare_ShouldIgnoreDifferenceWithinErrorMargins() {
+        List<Comparison> comparisons = JmhResultComparator.compare(
+                Map.of("a", new Result("avgt", "ns/op", 100, 15)),
+                Map.of("a", new Result("avgt", "ns/op", 120, 10)),
+                10);
+
+        assertFalse(comparisons.get(0).regression());
+    }
+
+    @Test
+    void compare_ShouldTreatLowerThroughputAsRegression() {
+        List<Comparison> slower = JmhResultComparator.compare(
+                Map.of("a", new Result("thrpt", "ops/s", 1000, 10)),
+                Map.of("a", new Result("thrpt", "ops/s", 800, 10)),
+                10);
+        List<Comparison> faster = JmhResultComparator.compare(
+                Map.of("a", new Result("thrpt", "ops/s", 1000, 10)),
+                Map.of("a", new Result("thrpt", "ops/s", 1300, 10)),
+                10);
+
+        assertTrue(slower.get(0).regression());
+        assertFalse(faster.get(0).regression());
+    }
+
+    @Test
+    void compare_ShouldReportAddedAndRemovedBenchmarksWithoutFailing() {
+        List<Comparison> comparisons = JmhResultComparator.compare(
+                Map.of("removed", new Result("avgt", "ns/op", 100, 1)),
+                Map.of("added", new Result("avgt", "ns/op", 100, 1)),
+                10);
+
+        assertEquals(2, comparisons.size());
+        assertTrue(comparisons.stream().noneMatch(Comparison::regression));
+    }
+
+    @Test
+    void read_ShouldFailOnMissingFile() {
+        assertThrows(Exception.class, () -> JmhResultComparator.read(new File(dir.toFile(), "missing.json")));
+    }
+}
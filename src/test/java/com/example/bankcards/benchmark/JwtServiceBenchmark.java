@@ -0,0 +1,67 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.security.model.MyUserDetails;
+import com.example.bankcards.security.service.jwt.JwtClaimsCache;
+import com.example.bankcards.security.service.jwt.JwtServiceImpl;
+import com.example.bankcards.util.encrypt.HashUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtServiceImpl} access token generation and validation as done by the request filter, once with the
+ * claims already cached (a client polling with the same token) and once with signature verification every time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+    private JwtServiceImpl jwtService;
+    private JwtClaimsCache claimsCache;
+    private MyUserDetails userDetails;
+    private String token;
+    private String tokenKey;
+
+    @Setup
+    public void setUp() {
+        BenchmarkLogging.infoOnly();
+        claimsCache = new JwtClaimsCache(10_000);
+        jwtService = new JwtServiceImpl(null, claimsCache);
+        ReflectionTestUtils.setField(jwtService, "secret_key", "MySuperSecretKeyWith32+Characters!");
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        MyUser user = new MyUser("benchmark-user", List.of("USER"), "pw", true, null);
+        user.setId(42L);
+        userDetails = new MyUserDetails(user);
+        token = jwtService.generateAccessToken(userDetails);
+        tokenKey = HashUtil.hash(token);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public Claims parseAccessTokenCached() {
+        return jwtService.parseAccessToken(token);
+    }
+
+    @Benchmark
+    public Claims parseAccessTokenUncached() {
+        claimsCache.getCache().invalidate(tokenKey);
+        return jwtService.parseAccessToken(token);
+    }
+
+    @Benchmark
+    public Boolean validateAccessToken() {
+        return jwtService.validateAccessToken(token, userDetails);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.encrypt.AESUtil;
+import com.example.bankcards.util.encrypt.CardFingerprintUtil;
+import com.example.bankcards.util.encrypt.HashUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The crypto utilities called once per thread, the way every request calls them when it runs on its own virtual
+ * thread. Java 17 has no virtual threads, so each call starts a platform thread instead; {@link #threadOnly}
+ * measures the thread itself and is subtracted from the other results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+// starting a thread is noisy next to the microseconds being compared
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class ThreadPerRequestCryptoBenchmark {
+    private static final String CARD_NUMBER = "4000001234567899";
+
+    private AESUtil aesUtil;
+    private CardFingerprintUtil fingerprintUtil;
+    private String encrypted;
+
+    @Setup
+    public void setUp() throws Exception {
+        aesUtil = new AESUtil();
+        ReflectionTestUtils.setField(aesUtil, "key", "N123221593dd45lKg_28Dh");
+        ReflectionTestUtils.invokeMethod(aesUtil, "init");
+        fingerprintUtil = new CardFingerprintUtil();
+        ReflectionTestUtils.setField(fingerprintUtil, "key", "fingerprint-key-for-benchmarks-only!");
+        ReflectionTestUtils.invokeMethod(fingerprintUtil, "init");
+        encrypted = aesUtil.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public void threadOnly(Blackhole blackhole) throws InterruptedException {
+        onNewThread(() -> blackhole.consume(CARD_NUMBER));
+    }
+
+    @Benchmark
+    public void decrypt(Blackhole blackhole) throws InterruptedException {
+        onNewThread(() -> {
+            try {
+                blackhole.consume(aesUtil.decrypt(encrypted));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Benchmark
+    public void fingerprint(Blackhole blackhole) throws InterruptedException {
+        onNewThread(() -> blackhole.consume(fingerprintUtil.fingerprint(CARD_NUMBER)));
+    }
+
+    @Benchmark
+    public void hash(Blackhole blackhole) throws InterruptedException {
+        onNewThread(() -> blackhole.consume(HashUtil.hash(CARD_NUMBER)));
+    }
+
+    private static void onNewThread(Runnable task) throws InterruptedException {
+        Thread thread = new Thread(task);
+        thread.start();
+        thread.join();
+    }
+}
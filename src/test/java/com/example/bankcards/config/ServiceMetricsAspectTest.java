@@ -0,0 +1,70 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.exception.card.InsufficientFundsException;
+import com.example.bankcards.exception.card.InvalidCardStateException;
+import com.example.bankcards.service.card.CardService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ServiceMetricsAspectTest {
+
+    private SimpleMeterRegistry registry;
+    private CardService cardService;
+    private CardService proxy;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cardService = mock(CardService.class);
+        AspectJProxyFactory factory = new AspectJProxyFactory(cardService);
+        factory.addAspect(new ServiceMetricsAspect(registry));
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    void time_ShouldTagSuccessfulCall() {
+        when(cardService.getBalance(1L)).thenReturn("10.00");
+
+        assertEquals("10.00", proxy.getBalance(1L));
+
+        assertEquals(1, timer("getBalance", "success").count());
+    }
+
+    @Test
+    void time_ShouldTagBusinessFailureAndRethrow() {
+        doThrow(new InsufficientFundsException("Insufficient funds for transfer"))
+                .when(cardService).transferMoney(1L, 2L, BigDecimal.TEN);
+
+        assertThrows(InsufficientFundsException.class, () -> proxy.transferMoney(1L, 2L, BigDecimal.TEN));
+
+        assertEquals(1, timer("transferMoney", "insufficient_funds").count());
+        assertNull(registry.find(ServiceMetricsAspect.TIMER).tag("outcome", "success").timer());
+    }
+
+    @Test
+    void outcome_ShouldMapKnownExceptions() {
+        assertEquals("invalid_state", ServiceMetricsAspect.outcome(new InvalidCardStateException("inactive")));
+        assertEquals("access_denied", ServiceMetricsAspect.outcome(new AccessDeniedException("denied")));
+        assertEquals("unauthenticated", ServiceMetricsAspect.outcome(new BadCredentialsException("bad")));
+        assertEquals("invalid_request", ServiceMetricsAspect.outcome(new IllegalArgumentException("bad")));
+        assertEquals("error", ServiceMetricsAspect.outcome(new IllegalStateException("boom")));
+    }
+
+    private Timer timer(String method, String outcome) {
+        Timer timer = registry.find(ServiceMetricsAspect.TIMER)
+                .tags("service", "CardService", "method", method, "outcome", outcome)
+                .timer();
+        assertNotNull(timer, method + "/" + outcome);
+        return timer;
+    }
+}
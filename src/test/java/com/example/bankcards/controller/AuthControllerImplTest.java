@@ -6,6 +6,7 @@ import com.example.bankcards.dto.request.UserDtoRequest;
 import com.example.bankcards.dto.response.auth.AuthResponse;
 import com.example.bankcards.security.service.MyUserDetailsService;
 import com.example.bankcards.security.service.jwt.JwtServiceImpl;
+import com.example.bankcards.security.service.jwt.UserVersionDenylist;
 import com.example.bankcards.service.user.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -40,6 +41,9 @@ class AuthControllerImplTest {
     @MockBean
     private MyUserDetailsService myUserDetailsService;
 
+    @MockBean
+    private UserVersionDenylist userVersionDenylist;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Test
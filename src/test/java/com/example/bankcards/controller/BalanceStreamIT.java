@@ -0,0 +1,146 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.security.service.jwt.JwtService;
+import com.example.bankcards.service.card.CardService;
+import com.example.bankcards.service.user.UserCache;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A subscriber receives the current balance and then every committed deposit and transfer over server-sent events,
+ * through the full security chain.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BalanceStreamIT extends PostgresIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private UserDetailsService userDetailsService;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE ledger_entry, card_block_request, card, my_user_roles, my_user CASCADE");
+        userCache.getCache().invalidateAll();
+        userRepo.save(new MyUser("owner", List.of("USER"), "pw", true, null));
+        userRepo.save(new MyUser("other", List.of("USER"), "pw", true, null));
+    }
+
+    @Test
+    void stream_ShouldSendSnapshotAndCommittedChanges() throws Exception {
+        Long from = cardService.createCard("owner").id();
+        Long to = cardService.createCard("owner").id();
+        cardService.addMoney(from, new BigDecimal("100"));
+
+        HttpResponse<InputStream> response = stream("owner", from);
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            assertBalance(nextData(reader), from);
+
+            cardService.addMoney(from, new BigDecimal("50"));
+            assertBalance(nextData(reader), from);
+
+            cardService.transferMoney(from, to, new BigDecimal("30"));
+            assertBalance(nextData(reader), from);
+        }
+    }
+
+    @Test
+    void stream_ShouldAnswerErrorsAsJsonBeforeOpening() throws Exception {
+        Long cardId = cardService.createCard("owner").id();
+
+        HttpResponse<InputStream> denied = stream("other", cardId);
+        assertEquals(403, denied.statusCode());
+        assertTrue(new String(denied.body().readAllBytes(), StandardCharsets.UTF_8).contains("\"error\":\"access_denied\""));
+        assertEquals(404, stream("owner", cardId + 1000).statusCode());
+    }
+
+    private HttpResponse<InputStream> stream(String username, Long cardId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/v1/card/" + cardId + "/balance/stream"))
+                .header("Accept", "text/event-stream")
+                .header("Authorization", "Bearer "
+                        + jwtService.generateAccessToken(userDetailsService.loadUserByUsername(username)))
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    /**
+     * Data line of the next {@code balance} event, skipping heartbeats.
+     */
+    private String nextData(BufferedReader reader) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                List<String> fields = new ArrayList<>();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isEmpty()) {
+                        fields.add(line);
+                        continue;
+                    }
+                    if (fields.contains("event:balance")) {
+                        return fields.stream().filter(field -> field.startsWith("data:")).findFirst().orElseThrow();
+                    }
+                    fields.clear();
+                }
+                throw new IllegalStateException("Stream closed");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).get(Duration.ofSeconds(10).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void assertBalance(String data, Long cardId) {
+        UserDetails owner = userDetailsService.loadUserByUsername("owner");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(owner, null, owner.getAuthorities()));
+        try {
+            assertEquals("data:{\"cardId\":" + cardId + ",\"balance\":\"" + cardService.getBalance(cardId) + "\"}", data);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -1,23 +1,51 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.controller.card.CardControllerImpl;
+import com.example.bankcards.dto.request.export.CardExportFormat;
+import com.example.bankcards.dto.request.issuance.IssuanceOrder;
+import com.example.bankcards.dto.request.transfer.BatchMode;
 import com.example.bankcards.dto.response.card.CardDtoResponse;
+import com.example.bankcards.dto.response.card.issuance.CardIssuanceEvent;
+import com.example.bankcards.dto.response.card.pagination.card.CardSliceResponse;
+import com.example.bankcards.dto.response.card.statement.StatementResponse;
+import com.example.bankcards.dto.response.card.transfer.BatchTransferResponse;
+import com.example.bankcards.dto.response.card.transfer.TransferItemResult;
 import com.example.bankcards.entity.card.State;
 import com.example.bankcards.security.service.MyUserDetailsService;
 import com.example.bankcards.security.service.jwt.JwtService;
+import com.example.bankcards.security.service.jwt.UserVersionDenylist;
+import com.example.bankcards.service.card.BalanceStreamHub;
+import com.example.bankcards.service.card.CardExportService;
+import com.example.bankcards.service.card.CardIssuanceService;
 import com.example.bankcards.service.card.CardService;
+import com.example.bankcards.service.idempotency.IdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -39,6 +67,27 @@ class CardControllerImplTest {
     @MockBean
     private MyUserDetailsService myUserDetailsService;
 
+    @MockBean
+    private UserVersionDenylist userVersionDenylist;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private CardIssuanceService cardIssuanceService;
+
+    @MockBean
+    private CardExportService cardExportService;
+
+    @MockBean
+    private BalanceStreamHub balanceStreamHub;
+
+    @BeforeEach
+    void setUp() {
+        when(idempotencyService.execute(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ResponseEntity<String>>>getArgument(2).get());
+    }
+
     @Test
     @WithMockUser(username = "user", roles = "USER")
     void testAddMoney() throws Exception {
@@ -137,4 +186,151 @@ class CardControllerImplTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void scrollAllCards_ShouldPassCursorAndReturnNextCursor() throws Exception {
+        when(cardService.scrollAllCards("abc", 5, false))
+                .thenReturn(new CardSliceResponse(List.of(), "def", false, 0, null));
+
+        mockMvc.perform(get("/api/v1/card/all/scroll")
+                        .param("cursor", "abc")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("def"))
+                .andExpect(jsonPath("$.last").value(false));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getStatement_ShouldParseDatesAndUseDefaultLimit() throws Exception {
+        when(cardService.getStatement(1L, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31), null, 50))
+                .thenReturn(new StatementResponse(1L, List.of(), null, true));
+
+        mockMvc.perform(get("/api/v1/card/1/statement")
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cardId").value(1))
+                .andExpect(jsonPath("$.last").value(true));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void transferMoney_ShouldPassIdempotencyKeyAndCanonicalRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/card/transfer").with(csrf())
+                        .header("Idempotency-Key", "key-1")
+                        .param("fromCardId", "1")
+                        .param("toCardId", "2")
+                        .param("amount", "10.50"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Transfer completed successfully"));
+
+        verify(idempotencyService).execute(eq("key-1"), eq("transfer|1|2|10.5"), any());
+        verify(cardService).transferMoney(1L, 2L, new BigDecimal("10.50"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void transferBatch_ShouldReturnUnprocessableEntityWhenAtomicBatchIsRolledBack() throws Exception {
+        when(cardService.transferBatch(any())).thenReturn(new BatchTransferResponse(BatchMode.ATOMIC, false, 0, 1,
+                List.of(TransferItemResult.rejected(0, "insufficient_funds", "Insufficient funds for transfer"))));
+
+        mockMvc.perform(post("/api/v1/card/transfers/batch").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"transfers\":[{\"fromCardId\":1,\"toCardId\":2,\"amount\":1000}]}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.results[0].error").value("insufficient_funds"));
+
+        verify(cardService).transferBatch(argThat(request -> request.mode() == null
+                && request.transfers().get(0).amount().compareTo(new BigDecimal("1000")) == 0));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void createCards_ShouldStreamOneJsonLinePerChunk() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<CardIssuanceEvent> listener = invocation.getArgument(1);
+            listener.accept(CardIssuanceEvent.progress("alice", 1, 2, List.of(
+                    new CardDtoResponse(1L, "4000001234567899", "**** **** **** 7899", LocalDate.of(2029, 1, 1), State.ACTIVE, BigDecimal.ZERO))));
+            listener.accept(CardIssuanceEvent.progress("alice", 2, 2, List.of()));
+            return null;
+        }).when(cardIssuanceService).issue(eq(List.of(new IssuanceOrder("alice", 2))), any());
+
+        MvcResult result = mockMvc.perform(post("/api/v1/card/create/bulk").with(csrf())
+                        .param("ownerName", "alice")
+                        .param("count", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"cardNumber\":\"4000001234567899\""));
+        assertTrue(lines[1].contains("\"issued\":2"));
+        verify(cardIssuanceService).validate(List.of(new IssuanceOrder("alice", 2)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void createCards_ShouldAnswerValidationErrorsBeforeStreaming() throws Exception {
+        doThrow(new IllegalArgumentException("Count must be positive for owner alice"))
+                .when(cardIssuanceService).validate(any());
+
+        mockMvc.perform(post("/api/v1/card/create/bulk").with(csrf())
+                        .param("ownerName", "alice")
+                        .param("count", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("illegal_argument"));
+        verify(cardIssuanceService, never()).issue(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportCards_ShouldStreamGzippedCsvAttachment() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("id\n1\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(cardExportService).export(eq(CardExportFormat.CSV), any());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/card/export")
+                        .param("format", "csv")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Disposition", containsString("cards.csv")))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("id\n1\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportCards_ShouldRejectUnknownFormatBeforeStreaming() throws Exception {
+        mockMvc.perform(get("/api/v1/card/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("illegal_argument"));
+        verifyNoInteractions(cardExportService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportCards_ShouldNotCompressWhenGzipIsRefused() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/card/export").header("Accept-Encoding", "gzip;q=0, identity"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().doesNotExist("Content-Encoding"));
+        verify(cardExportService).export(eq(CardExportFormat.NDJSON), any());
+    }
 }
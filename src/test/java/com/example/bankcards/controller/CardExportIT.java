@@ -0,0 +1,131 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.request.issuance.IssuanceOrder;
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.CardExportRepo;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.security.service.jwt.JwtService;
+import com.example.bankcards.service.card.CardIssuanceService;
+import com.example.bankcards.service.user.UserCache;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The export streams every card through the security chain as gzip-compressed NDJSON or CSV, and the cursor behind
+ * it refuses to run outside a transaction.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CardExportIT extends PostgresIntegrationTest {
+    private static final int CARDS = 2500;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private CardIssuanceService cardIssuanceService;
+    @Autowired
+    private CardExportRepo cardExportRepo;
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private UserDetailsService userDetailsService;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE ledger_entry, card_block_request, card, my_user_roles, my_user CASCADE");
+        userCache.getCache().invalidateAll();
+        userRepo.save(new MyUser("owner", List.of("USER"), "pw", true, null));
+        userRepo.save(new MyUser("admin", List.of("ADMIN"), "pw", true, null));
+        cardIssuanceService.issue(List.of(new IssuanceOrder("owner", CARDS)), event -> { });
+    }
+
+    @Test
+    void export_ShouldStreamEveryCardAsGzippedNdjson() throws Exception {
+        HttpResponse<InputStream> response = export("admin", "ndjson", true);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        Set<Long> ids = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(response.body()), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode card = objectMapper.readTree(line);
+                assertEquals("owner", card.get("owner").asText());
+                assertTrue(card.get("cardNumber").asText().startsWith("**** **** **** "), line);
+                ids.add(card.get("id").asLong());
+            }
+        }
+        assertEquals(CARDS, ids.size());
+    }
+
+    @Test
+    void export_ShouldStreamCsvWithoutCompressionWhenNotAccepted() throws Exception {
+        HttpResponse<InputStream> response = export("admin", "csv", false);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+        List<String> lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            lines = reader.lines().toList();
+        }
+        assertEquals("id,owner_id,owner,card_number,expiration_date,state,balance", lines.get(0));
+        assertEquals(CARDS + 1, lines.size());
+    }
+
+    @Test
+    void export_ShouldRejectNonAdminsAndUnknownFormats() throws Exception {
+        assertEquals(403, export("owner", "ndjson", true).statusCode());
+        assertEquals(400, export("admin", "xml", true).statusCode());
+    }
+
+    @Test
+    void forEach_ShouldRequireTransaction() {
+        // the repository translates the IllegalStateException into Spring's DataAccessException hierarchy
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> cardExportRepo.forEach(card -> { }));
+    }
+
+    private HttpResponse<InputStream> export(String username, String format, boolean gzip) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/v1/card/export?format=" + format))
+                .header("Authorization", "Bearer "
+                        + jwtService.generateAccessToken(userDetailsService.loadUserByUsername(username)));
+        if (gzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        return httpClient.send(request.GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.security.service.jwt.JwtService;
+import com.example.bankcards.service.card.CardService;
+import com.example.bankcards.service.user.UserCache;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The scrape endpoint is reachable without a token on the management port only, and carries the service, token,
+ * crypto, pool and Hibernate metrics, with outcome tags and SLO buckets.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability(tracing = false)
+class PrometheusEndpointIT extends PostgresIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private UserDetailsService userDetailsService;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @LocalManagementPort
+    private int managementPort;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE ledger_entry, card_block_request, card, my_user_roles, my_user CASCADE");
+        userCache.getCache().invalidateAll();
+        userRepo.save(new MyUser("owner", List.of("USER"), "pw", true, null));
+    }
+
+    @Test
+    void scrape_ShouldExposeHotPathMetricsWithOutcomes() {
+        Long from = cardService.createCard("owner").id();
+        Long to = cardService.createCard("owner").id();
+        cardService.addMoney(from, new BigDecimal("10"));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtService.generateAccessToken(userDetailsService.loadUserByUsername("owner")));
+        assertEquals(HttpStatus.OK, restTemplate.exchange("/api/v1/card/balance/" + from, HttpMethod.GET,
+                new HttpEntity<>(headers), String.class).getStatusCode());
+        ResponseEntity<String> rejected = restTemplate.exchange(
+                "/api/v1/card/transfer?fromCardId=" + from + "&toCardId=" + to + "&amount=100",
+                HttpMethod.POST, new HttpEntity<>(headers), String.class);
+        assertNotEquals(HttpStatus.OK, rejected.getStatusCode());
+
+        ResponseEntity<String> scrape = restTemplate.getForEntity(
+                "http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+
+        assertEquals(HttpStatus.OK, scrape.getStatusCode());
+        String body = scrape.getBody();
+        assertNotNull(body);
+        assertTrue(body.contains("bank_service_seconds_count{application=\"bank-rest\",method=\"getBalance\",outcome=\"success\",service=\"CardService\"}"), body);
+        assertTrue(body.contains("method=\"transferMoney\",outcome=\"insufficient_funds\",service=\"CardService\""), body);
+        assertTrue(body.contains("bank_service_seconds_bucket{application=\"bank-rest\",method=\"getBalance\",outcome=\"success\",service=\"CardService\",le=\"0.005\"}"), body);
+        assertTrue(body.contains("bank_auth_token_seconds_count{application=\"bank-rest\",stage=\"parse\"}"), body);
+        assertTrue(body.contains("bank_auth_token_seconds_count{application=\"bank-rest\",stage=\"user_load\"}"), body);
+        assertTrue(body.contains("bank_crypto_seconds_count{algorithm=\"aes\",application=\"bank-rest\",operation=\"encrypt\"}"), body);
+        assertTrue(body.contains("hikaricp_connections_active"), body);
+        assertTrue(body.contains("hibernate_statements_total"), body);
+    }
+
+    @Test
+    void actuator_ShouldNotBeServedOnTheApplicationPort() {
+        assertEquals(HttpStatus.FORBIDDEN, restTemplate.getForEntity("/actuator/prometheus", String.class).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, restTemplate.getForEntity("/actuator/health", String.class).getStatusCode());
+        assertEquals(HttpStatus.OK, restTemplate.getForEntity(
+                "http://localhost:" + managementPort + "/actuator/health", String.class).getStatusCode());
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.security.service.jwt.JwtService;
+import com.example.bankcards.service.card.CardService;
+import com.example.bankcards.service.user.UserCache;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.util.encrypt.AESUtil;
+import com.example.bankcards.util.encrypt.HashUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The reactive read endpoints answer exactly like their blocking counterparts, through the full security chain.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReactiveCardApiIT extends PostgresIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private UserDetailsService userDetailsService;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private AESUtil aesUtil;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MyUser owner;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE ledger_entry, card_block_request, card, my_user_roles, my_user CASCADE");
+        userCache.getCache().invalidateAll();
+        owner = userRepo.save(new MyUser("owner", List.of("USER"), "pw", true, null));
+        userRepo.save(new MyUser("other", List.of("USER"), "pw", true, null));
+        userRepo.save(new MyUser("admin", List.of("ADMIN"), "pw", true, null));
+    }
+
+    @Test
+    void balance_ShouldMatchBlockingEndpoint() {
+        Long cardId = cardService.createCard("owner").id();
+        cardService.addMoney(cardId, new BigDecimal("1234.5"));
+
+        ResponseEntity<String> blocking = get("owner", "/api/v1/card/balance/" + cardId);
+        ResponseEntity<String> reactive = get("owner", "/api/v1/reactive/card/balance/" + cardId);
+
+        assertEquals(HttpStatus.OK, reactive.getStatusCode());
+        assertEquals(blocking.getBody(), reactive.getBody());
+        assertEquals(HttpStatus.OK, get("admin", "/api/v1/reactive/card/balance/" + cardId).getStatusCode());
+    }
+
+    @Test
+    void errors_ShouldMatchBlockingEndpoint() {
+        Long cardId = cardService.createCard("owner").id();
+
+        for (String path : List.of("/balance/" + cardId, "/search/by-id/" + cardId, "/balance/" + (cardId + 1000))) {
+            ResponseEntity<String> blocking = get("other", "/api/v1/card" + path);
+            ResponseEntity<String> reactive = get("other", "/api/v1/reactive/card" + path);
+
+            assertTrue(blocking.getStatusCode().is4xxClientError(), path);
+            assertEquals(blocking.getStatusCode(), reactive.getStatusCode(), path);
+            assertEquals(blocking.getBody(), reactive.getBody(), path);
+        }
+        assertEquals(restTemplate.getForEntity("/api/v1/card/balance/" + cardId, String.class).getStatusCode(),
+                restTemplate.getForEntity("/api/v1/reactive/card/balance/" + cardId, String.class).getStatusCode());
+    }
+
+    @Test
+    void search_ShouldMaskLikeBlockingEndpoint() throws Exception {
+        String number = cardService.createCard("owner").cardNumber();
+        String legacyNumber = "4000001234567899";
+        jdbcTemplate.update("""
+                INSERT INTO card (id, encrypted_card_number, card_number_hash, expiration_date, owner_id, state, balance)
+                VALUES (nextval('card_id_seq'), ?, ?, CURRENT_DATE + 365, ?, 'ACTIVE', 0)
+                """, aesUtil.encrypt(legacyNumber), HashUtil.hash(legacyNumber), owner.getId());
+        Long legacyId = jdbcTemplate.queryForObject("SELECT id FROM card WHERE card_number_hash = ?", Long.class,
+                HashUtil.hash(legacyNumber));
+
+        for (String path : List.of("/search/by-number/" + number, "/search/by-number/" + legacyNumber, "/search/by-id/" + legacyId)) {
+            ResponseEntity<String> blocking = get("owner", "/api/v1/card" + path);
+            ResponseEntity<String> reactive = get("owner", "/api/v1/reactive/card" + path);
+
+            assertEquals(HttpStatus.OK, reactive.getStatusCode(), path);
+            assertEquals(blocking.getBody(), reactive.getBody(), path);
+        }
+        assertTrue(get("owner", "/api/v1/reactive/card/search/by-number/" + legacyNumber).getBody().contains("**** **** **** 7899"));
+    }
+
+    private ResponseEntity<String> get(String user, String path) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtService.generateAccessToken(userDetailsService.loadUserByUsername(user)));
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}
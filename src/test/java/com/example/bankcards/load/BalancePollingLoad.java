@@ -0,0 +1,274 @@
+package com.example.bankcards.load;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.State;
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.security.service.jwt.JwtService;
+import com.example.bankcards.service.user.UserCache;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import reactor.core.publisher.Hooks;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Closed-loop polling of {@code GET /api/v1/card/balance/{id}} by {@code load.connections} clients (5000 by default),
+ * each sending its next request as soon as the previous one is answered, for {@code load.duration} after a ramp-up.
+ * <p>
+ * Reports throughput, latency percentiles and the peak number of requests the server worked on at the same time.
+ * With platform threads that peak is capped by the Tomcat worker pool; run once more on a Java 21 build with
+ * {@code -Pjava21 -Dspring.threads.virtual.enabled=true} to compare against virtual threads, or with
+ * {@code -Dload.balance-path=/api/v1/reactive/card/balance/} to compare against the non-blocking read API.
+ * The numbers are also written to {@code <load.report-dir>/balance-polling.json}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BalancePollingLoad extends PostgresIntegrationTest {
+    private static final Logger log = LoggerFactory.getLogger(BalancePollingLoad.class);
+    private static final int USERS = 100;
+
+    @LocalServerPort
+    private int port;
+    @Value("${load.connections:5000}")
+    private int connections;
+    @Value("${load.duration:PT30S}")
+    private Duration duration;
+    @Value("${load.ramp-up:PT10S}")
+    private Duration rampUp;
+    @Value("${load.balance-path:/api/v1/card/balance/}")
+    private String balancePath;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    @Value("${load.report-dir:target/load-reports}")
+    private String reportDir;
+
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private CardRepo cardRepo;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private UserDetailsService userDetailsService;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private InFlightRequests inFlightRequests;
+
+    private final List<String> tokens = new ArrayList<>();
+    private final List<Long> cardIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // spring-security-test hooks every Reactor operator to propagate the test security context; production has no such hook
+        Hooks.resetOnLastOperator();
+        jdbcTemplate.execute("TRUNCATE ledger_entry, card_block_request, card, my_user_roles, my_user CASCADE");
+        userCache.getCache().invalidateAll();
+        for (int i = 0; i < USERS; i++) {
+            MyUser user = userRepo.save(new MyUser("load" + i, List.of("USER"), "pw", true, null));
+            Card card = new Card();
+            card.setOwner(user);
+            card.setEncryptedCardNumber("not-used");
+            card.setCardNumberLast4(String.format("%04d", i));
+            card.setExpirationDate(LocalDate.now().plusYears(3));
+            card.setState(State.ACTIVE);
+            card.setBalance(BigDecimal.valueOf(100));
+            cardIds.add(cardRepo.save(card).getId());
+            tokens.add(jwtService.generateAccessToken(userDetailsService.loadUserByUsername(user.getName())));
+        }
+    }
+
+    @Test
+    void balancePolling() throws Exception {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        ScheduledExecutorService starter = Executors.newSingleThreadScheduledExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(clientExecutor)
+                .build();
+
+        long measureFrom = System.nanoTime() + rampUp.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        LoadReport report = new LoadReport(List.of("balance"));
+        AtomicInteger started = new AtomicInteger();
+        List<CompletableFuture<Void>> clients = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            int user = i % USERS;
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + balancePath + cardIds.get(user)))
+                    .header("Authorization", "Bearer " + tokens.get(user))
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            clients.add(done);
+            // spread connection setup over the ramp-up instead of hitting the accept queue with all of them at once
+            starter.schedule(() -> {
+                started.incrementAndGet();
+                poll(client, request, measureFrom, measureUntil, report, done);
+            }, rampUp.toNanos() / 2 * i / connections, TimeUnit.NANOSECONDS);
+        }
+        inFlightRequests.resetAt(measureFrom);
+
+        CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).get(duration.plus(rampUp).toSeconds() + 120, TimeUnit.SECONDS);
+        starter.shutdownNow();
+        clientExecutor.shutdownNow();
+
+        String threads = virtualThreads && Runtime.version().feature() >= 21 ? "virtual" : "platform";
+        LoadReport.OperationStats stats = report.summarize(duration).get("balance");
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("path", balancePath);
+        settings.put("connections", connections);
+        settings.put("durationSeconds", duration.toSeconds());
+        settings.put("threads", threads);
+        settings.put("java", Runtime.version().feature());
+        settings.put("peakInProgress", inFlightRequests.peak());
+        Path file = LoadReport.write(reportDir, "balance-polling", settings, Map.of("balance", stats));
+        log.info("""
+                        Balance polling of {}, {} connections, {} threads on Java {}:
+                          requests: {} ({} req/s), errors: {}
+                          latency ms: p50 {}, p99 {}, p999 {}, max {}
+                          peak requests in progress on the server: {}
+                          report: {}""",
+                balancePath, connections, threads, Runtime.version().feature(),
+                stats.requests(), stats.throughput(), stats.errors(),
+                stats.p50Ms(), stats.p99Ms(), stats.p999Ms(), stats.maxMs(),
+                inFlightRequests.peak(), file.toAbsolutePath());
+
+        assertTrue(started.get() == connections, "started " + started.get());
+        assertTrue(stats.requests() > 0, "no request completed in the measurement window");
+        assertTrue(stats.errors() <= stats.requests() / 100, "errors: " + stats.errors());
+    }
+
+    private void poll(HttpClient client, HttpRequest request, long measureFrom, long measureUntil,
+                      LoadReport report, CompletableFuture<Void> done) {
+        long start = System.nanoTime();
+        if (start >= measureUntil) {
+            done.complete(null);
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            long end = System.nanoTime();
+            // counted by completion time: under overload a request may have been queued since before the window
+            if (end >= measureFrom && end <= measureUntil) {
+                if (failure != null || response.statusCode() != 200) {
+                    report.error("balance");
+                } else {
+                    report.success("balance", end - start);
+                }
+            }
+            poll(client, request, measureFrom, measureUntil, report, done);
+        });
+    }
+
+    /**
+     * Counts the requests between entering the servlet filter chain and completing the response,
+     * including the time an async request spends off the request thread.
+     */
+    static class InFlightRequests {
+        private final AtomicInteger current = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+        private volatile long countFrom = Long.MAX_VALUE;
+
+        void resetAt(long nanoTime) {
+            countFrom = nanoTime;
+        }
+
+        int peak() {
+            return peak.get();
+        }
+
+        Filter filter() {
+            return (request, response, chain) -> {
+                int now = current.incrementAndGet();
+                if (System.nanoTime() >= countFrom) {
+                    peak.accumulateAndGet(now, Math::max);
+                }
+                boolean async = false;
+                try {
+                    chain.doFilter(request, response);
+                    async = request.isAsyncStarted();
+                } finally {
+                    if (async) {
+                        request.getAsyncContext().addListener(new AsyncListener() {
+                            @Override
+                            public void onComplete(AsyncEvent event) {
+                                current.decrementAndGet();
+                            }
+
+                            @Override
+                            public void onTimeout(AsyncEvent event) {
+                            }
+
+                            @Override
+                            public void onError(AsyncEvent event) {
+                            }
+
+                            @Override
+                            public void onStartAsync(AsyncEvent event) {
+                                event.getAsyncContext().addListener(this);
+                            }
+                        });
+                    } else {
+                        current.decrementAndGet();
+                    }
+                }
+            };
+        }
+    }
+
+    @TestConfiguration
+    static class LoadConfig {
+        @Bean
+        InFlightRequests inFlightRequests() {
+            return new InFlightRequests();
+        }
+
+        @Bean
+        FilterRegistrationBean<Filter> inFlightRequestsFilter(InFlightRequests inFlightRequests) {
+            FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>(inFlightRequests.filter());
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            registration.setDispatcherTypes(DispatcherType.REQUEST);
+            return registration;
+        }
+    }
+}
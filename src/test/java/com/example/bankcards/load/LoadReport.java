@@ -0,0 +1,114 @@
+package com.example.bankcards.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and errors per operation of a load test, written as JSON to {@code <load.report-dir>/<name>.json}
+ * so runs can be compared by scripts instead of by reading logs.
+ */
+class LoadReport {
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+
+    LoadReport(List<String> operationNames) {
+        operationNames.forEach(name -> operations.put(name, new Operation()));
+    }
+
+    void success(String operation, long latencyNanos) {
+        operations.get(operation).latencies.add(latencyNanos);
+    }
+
+    void error(String operation) {
+        operations.get(operation).errors.increment();
+    }
+
+    /**
+     * Summaries per operation plus a {@code total} over all of them, for a measurement window of the given length.
+     */
+    Map<String, OperationStats> summarize(Duration window) {
+        Map<String, OperationStats> stats = new LinkedHashMap<>();
+        long errors = 0;
+        for (Map.Entry<String, Operation> entry : operations.entrySet()) {
+            long[] sorted = entry.getValue().sortedLatencies();
+            stats.put(entry.getKey(), OperationStats.of(sorted, entry.getValue().errors.sum(), window));
+            errors += entry.getValue().errors.sum();
+        }
+        if (operations.size() > 1) {
+            long[] all = operations.values().stream()
+                    .flatMap(operation -> operation.latencies.stream())
+                    .mapToLong(Long::longValue)
+                    .sorted()
+                    .toArray();
+            stats.put("total", OperationStats.of(all, errors, window));
+        }
+        return stats;
+    }
+
+    /**
+     * Writes the settings of the run and the summaries to {@code <reportDir>/<name>.json} and returns the file.
+     */
+    static Path write(String reportDir, String name, Map<String, Object> settings,
+                      Map<String, OperationStats> stats) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scenario", name);
+        report.put("settings", settings);
+        report.put("operations", stats);
+        Path file = Path.of(reportDir).resolve(name + ".json");
+        Files.createDirectories(file.getParent());
+        MAPPER.writeValue(file.toFile(), report);
+        return file;
+    }
+
+    /**
+     * Latencies in milliseconds, throughput in requests per second of the measurement window.
+     */
+    record OperationStats(long requests, long errors, double throughput,
+                          double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+
+        static OperationStats of(long[] sorted, long errors, Duration window) {
+            double seconds = window.toNanos() / 1e9;
+            return new OperationStats(sorted.length, errors, round(sorted.length / seconds),
+                    millis(percentile(sorted, 0.5)), millis(percentile(sorted, 0.99)),
+                    millis(percentile(sorted, 0.999)), millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+        }
+
+        private static double millis(long nanos) {
+            return round(nanos / 1e6);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 1000) / 1000.0;
+        }
+    }
+
+    private static final class Operation {
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final LongAdder errors = new LongAdder();
+
+        long[] sortedLatencies() {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
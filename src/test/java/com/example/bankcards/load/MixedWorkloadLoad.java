@@ -0,0 +1,269 @@
+package com.example.bankcards.load;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.State;
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.security.service.jwt.JwtService;
+import com.example.bankcards.service.user.UserCache;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Hooks;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Closed-loop mix of the main user journeys: {@code load.concurrency} clients each pick the next operation by the
+ * weights in {@code load.mix} and send it as soon as the previous one is answered.
+ * <p>
+ * {@code load.users} users with {@code load.cards-per-user} cards each, plus one admin, are seeded through the
+ * repositories. Operations: {@code login} ({@code POST /auth/login}), {@code my} ({@code GET /api/v1/card/my}),
+ * {@code balance} ({@code GET /api/v1/card/balance/{id}}), {@code transfer} ({@code POST /api/v1/card/transfer}
+ * between two cards of the same user) and {@code all} ({@code GET /api/v1/card/all} as the admin).
+ * Throughput and p50/p99/p999 latency per operation are logged and written to
+ * {@code <load.report-dir>/mixed-workload.json}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MixedWorkloadLoad extends PostgresIntegrationTest {
+    private static final Logger log = LoggerFactory.getLogger(MixedWorkloadLoad.class);
+    private static final List<String> OPERATIONS = List.of("login", "my", "balance", "transfer", "all");
+    private static final String PASSWORD = "load-password";
+    private static final String ADMIN = "load-admin";
+
+    @LocalServerPort
+    private int port;
+    @Value("${load.concurrency:64}")
+    private int concurrency;
+    @Value("${load.users:200}")
+    private int users;
+    @Value("${load.cards-per-user:5}")
+    private int cardsPerUser;
+    @Value("${load.mix:login=5,my=25,balance=45,transfer=20,all=5}")
+    private String mix;
+    @Value("${load.duration:PT30S}")
+    private Duration duration;
+    @Value("${load.ramp-up:PT10S}")
+    private Duration rampUp;
+    @Value("${load.report-dir:target/load-reports}")
+    private String reportDir;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private CardRepo cardRepo;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private UserDetailsService userDetailsService;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<String> userNames = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    private final List<List<Long>> cardIds = new ArrayList<>();
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() {
+        // spring-security-test hooks every Reactor operator to propagate the test security context; production has no such hook
+        Hooks.resetOnLastOperator();
+        jdbcTemplate.execute("TRUNCATE ledger_entry, card_block_request, card, my_user_roles, my_user CASCADE");
+        userCache.getCache().invalidateAll();
+
+        String password = passwordEncoder.encode(PASSWORD);
+        for (int i = 0; i < users; i++) {
+            MyUser user = userRepo.save(new MyUser("load" + i, List.of("USER"), password, true, null));
+            List<Card> cards = new ArrayList<>(cardsPerUser);
+            for (int j = 0; j < cardsPerUser; j++) {
+                Card card = new Card();
+                card.setOwner(user);
+                card.setEncryptedCardNumber("not-used");
+                card.setCardNumberLast4(String.format("%04d", (i * cardsPerUser + j) % 10_000));
+                card.setExpirationDate(LocalDate.now().plusYears(3));
+                card.setState(State.ACTIVE);
+                // enough that the random transfers between a user's cards never run a card dry
+                card.setBalance(BigDecimal.valueOf(1_000_000));
+                cards.add(card);
+            }
+            cardIds.add(cardRepo.saveAll(cards).stream().map(Card::getId).toList());
+            userNames.add(user.getName());
+            tokens.add(jwtService.generateAccessToken(userDetailsService.loadUserByUsername(user.getName())));
+        }
+        userRepo.save(new MyUser(ADMIN, List.of("ADMIN"), password, true, null));
+        adminToken = jwtService.generateAccessToken(userDetailsService.loadUserByUsername(ADMIN));
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        assertTrue(cardsPerUser >= 2, "transfers need at least two cards per user");
+        Map<String, Integer> weights = parseMix(mix);
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(clientExecutor)
+                .build();
+
+        long measureFrom = System.nanoTime() + rampUp.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        LoadReport report = new LoadReport(OPERATIONS);
+        List<CompletableFuture<Void>> clients = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            clients.add(done);
+            next(client, weights, totalWeight, measureFrom, measureUntil, report, done);
+        }
+
+        CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).get(duration.plus(rampUp).toSeconds() + 120, TimeUnit.SECONDS);
+        clientExecutor.shutdownNow();
+
+        Map<String, LoadReport.OperationStats> stats = report.summarize(duration);
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("concurrency", concurrency);
+        settings.put("users", users);
+        settings.put("cards", users * cardsPerUser);
+        settings.put("mix", weights);
+        settings.put("durationSeconds", duration.toSeconds());
+        settings.put("threads", virtualThreads && Runtime.version().feature() >= 21 ? "virtual" : "platform");
+        settings.put("java", Runtime.version().feature());
+        Path file = LoadReport.write(reportDir, "mixed-workload", settings, stats);
+
+        StringBuilder table = new StringBuilder();
+        stats.forEach((operation, s) -> table.append(String.format("%n  %-9s %8d req %9.1f req/s %6d errors   p50 %8.2f  p99 %8.2f  p999 %8.2f  max %8.2f ms",
+                operation, s.requests(), s.throughput(), s.errors(), s.p50Ms(), s.p99Ms(), s.p999Ms(), s.maxMs())));
+        log.info("Mixed workload, {} clients, {} users with {} cards each:{}\n  report: {}",
+                concurrency, users, cardsPerUser, table, file.toAbsolutePath());
+
+        LoadReport.OperationStats total = stats.get("total");
+        assertTrue(total.requests() > 0, "no request completed in the measurement window");
+        assertTrue(total.errors() <= total.requests() / 100, "errors: " + total.errors());
+    }
+
+    private void next(HttpClient client, Map<String, Integer> weights, int totalWeight, long measureFrom,
+                      long measureUntil, LoadReport report, CompletableFuture<Void> done) {
+        long start = System.nanoTime();
+        if (start >= measureUntil) {
+            done.complete(null);
+            return;
+        }
+        String operation = pick(weights, totalWeight);
+        client.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            long end = System.nanoTime();
+            // counted by completion time: under overload a request may have been queued since before the window
+            if (end >= measureFrom && end <= measureUntil) {
+                if (failure != null || response.statusCode() != 200) {
+                    report.error(operation);
+                } else {
+                    report.success(operation, end - start);
+                }
+            }
+            next(client, weights, totalWeight, measureFrom, measureUntil, report, done);
+        });
+    }
+
+    private HttpRequest request(String operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int user = random.nextInt(users);
+        List<Long> cards = cardIds.get(user);
+        return switch (operation) {
+            case "login" -> builder("/auth/login", null)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"username\":\"" + userNames.get(user) + "\",\"password\":\"" + PASSWORD + "\"}"))
+                    .build();
+            case "my" -> get("/api/v1/card/my?limit=10", tokens.get(user));
+            case "balance" -> get("/api/v1/card/balance/" + cards.get(random.nextInt(cards.size())), tokens.get(user));
+            case "transfer" -> {
+                int from = random.nextInt(cards.size());
+                int to = (from + 1 + random.nextInt(cards.size() - 1)) % cards.size();
+                yield builder("/api/v1/card/transfer?fromCardId=" + cards.get(from) + "&toCardId=" + cards.get(to)
+                        + "&amount=1.00", tokens.get(user))
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build();
+            }
+            case "all" -> get("/api/v1/card/all?limit=10&pageNumber="
+                    + random.nextInt(Math.max(1, users * cardsPerUser / 10)), adminToken);
+            default -> throw new IllegalArgumentException("Unknown operation " + operation);
+        };
+    }
+
+    private HttpRequest get(String path, String token) {
+        return builder(path, token).GET().build();
+    }
+
+    private HttpRequest.Builder builder(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(60));
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    private static String pick(Map<String, Integer> weights, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Weights do not add up to " + totalWeight);
+    }
+
+    /**
+     * Parses {@code login=5,my=25,...}; operations left out are not sent.
+     */
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2 || !OPERATIONS.contains(pair[0].trim())) {
+                throw new IllegalArgumentException("load.mix entries must be <operation>=<weight> with operations "
+                        + OPERATIONS + ", got '" + part + "'");
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(pair[0].trim(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no operation with a positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.CardBlockRequest;
+import com.example.bankcards.entity.card.State;
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.support.RecordingStatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Every statement produced by the repository methods on the request path must be answerable from an index.
+ * <p>
+ * Each method is called on a seeded dataset, the SQL Hibernate sent is captured and planned again with
+ * {@code EXPLAIN (GENERIC_PLAN)} and sequential scans disabled: the planner then only picks a sequential scan
+ * when no index can serve the query at all.
+ */
+@TestPropertySource(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.bankcards.support.RecordingStatementInspector")
+class RepositoryIndexUsageIT extends PostgresIntegrationTest {
+    private static final int USERS = 200;
+
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private CardRepo cardRepo;
+    @Autowired
+    private CardBlockRequestRepo blockRequestRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    private MyUser user;
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE card_block_request, card, my_user_roles, my_user CASCADE");
+        for (int i = 0; i < USERS; i++) {
+            MyUser saved = userRepo.save(new MyUser("user" + i, List.of("USER"), "pw", true, null));
+            Card savedCard = new Card();
+            savedCard.setOwner(saved);
+            savedCard.setEncryptedCardNumber("not-used");
+            savedCard.setCardNumberHash("hash-" + i);
+            savedCard.setCardNumberFingerprint(HexFormat.of().parseHex(String.format("%064x", i)));
+            savedCard.setCardNumberLast4(String.format("%04d", i));
+            savedCard.setExpirationDate(LocalDate.now().plusYears(3));
+            savedCard.setState(State.ACTIVE);
+            savedCard.setBalance(BigDecimal.TEN);
+            savedCard = cardRepo.save(savedCard);
+
+            CardBlockRequest blockRequest = new CardBlockRequest();
+            blockRequest.setCard(savedCard);
+            blockRequest.setRequestedBy(saved);
+            blockRequest.setRequestDate(LocalDateTime.now());
+            blockRequest.setReason("lost");
+            blockRequestRepo.save(blockRequest);
+
+            if (i == USERS / 2) {
+                user = saved;
+                card = savedCard;
+            }
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void myUserRepo_ShouldUseIndexes() {
+        assertIndexed(() -> userRepo.findByName(user.getName()));
+        assertIndexed(() -> userRepo.existsByNameIgnoreCase(user.getName().toUpperCase()));
+        assertIndexed(() -> userRepo.findByTokenVersionChangedAtAfter(LocalDateTime.now().minusMinutes(15)));
+    }
+
+    @Test
+    void cardRepo_ShouldUseIndexes() {
+        assertIndexed(() -> cardRepo.findByCardNumberHash(card.getCardNumberHash()));
+        assertIndexed(() -> cardRepo.findByCardNumberFingerprint(card.getCardNumberFingerprint()));
+        assertIndexed(() -> cardRepo.findExistingFingerprints(List.of(card.getCardNumberFingerprint(), new byte[32])));
+        assertIndexed(() -> cardRepo.findExistingHashes(List.of(card.getCardNumberHash(), "missing")));
+        assertIndexed(() -> cardRepo.findViewsByOwner(user, PageRequest.of(1, 1)));
+        assertIndexed(() -> cardRepo.findViewsByOwnerAfter(user, 0L, PageRequest.of(0, 10)));
+        assertIndexed(() -> cardRepo.findViewsAfter(card.getId(), PageRequest.of(0, 10)));
+        assertIndexed(() -> cardRepo.countByOwner(user));
+    }
+
+    @Test
+    void cardBlockRequestRepo_ShouldUseIndexes() {
+        assertIndexed(() -> blockRequestRepo.findViewsAfter(10L, PageRequest.of(0, 10)));
+        assertIndexed(() -> blockRequestRepo.deleteAllByCard(card));
+        assertIndexed(() -> blockRequestRepo.deleteAllByRequestedBy(user));
+    }
+
+    private void assertIndexed(Runnable repositoryCall) {
+        RecordingStatementInspector.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            repositoryCall.run();
+            status.setRollbackOnly();
+        });
+        List<String> statements = RecordingStatementInspector.statements();
+        assertFalse(statements.isEmpty(), "no statement was recorded");
+
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertFalse(plan.contains("Seq Scan"), () -> "Sequential scan for:\n" + sql + "\n" + plan);
+        }
+    }
+
+    /**
+     * Runs on its own connection in the simple query protocol: with the extended protocol the driver would treat
+     * the {@code $n} markers as parameters of the EXPLAIN statement itself.
+     */
+    private String explain(String sql) {
+        Properties properties = new Properties();
+        properties.setProperty("user", dataSourceProperties.determineUsername());
+        properties.setProperty("password", dataSourceProperties.determinePassword());
+        properties.setProperty("preferQueryMode", "simple");
+        try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            List<String> lines = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numberParameters(sql))) {
+                while (resultSet.next()) {
+                    lines.add(resultSet.getString(1));
+                }
+            }
+            return String.join("\n", lines);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not explain: " + sql, e);
+        }
+    }
+
+    /**
+     * Hibernate uses JDBC {@code ?} markers; {@code GENERIC_PLAN} needs numbered {@code $n} parameters.
+     */
+    private static String numberParameters(String sql) {
+        StringBuilder result = new StringBuilder(sql.length() + 8);
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                result.append('$').append(++parameter);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.bankcards.security.service.jwt;
+
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.exception.jwt.InvalidJwtTokenException;
+import com.example.bankcards.security.model.MyUserDetails;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtServiceImplTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private JwtClaimsCache claimsCache;
+    private JwtServiceImpl jwtService;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        claimsCache = new JwtClaimsCache(100);
+        jwtService = new JwtServiceImpl(userDetailsService, claimsCache);
+        ReflectionTestUtils.setField(jwtService, "secret_key", "MySuperSecretKeyWith32+Characters!");
+        jwtService.init();
+
+        userDetails = User.withUsername("ivan").password("pwd").roles("USER").build();
+    }
+
+    @Test
+    void parseAccessToken_ShouldReturnClaims() {
+        String token = jwtService.generateAccessToken(userDetails);
+
+        Claims claims = jwtService.parseAccessToken(token);
+
+        assertEquals("ivan", claims.getSubject());
+        assertTrue(jwtService.validateAccessToken(token, userDetails));
+    }
+
+    @Test
+    void parseAccessToken_ShouldUseCache_OnRepeatedCalls() {
+        String token = jwtService.generateAccessToken(userDetails);
+
+        Claims first = jwtService.parseAccessToken(token);
+        Claims second = jwtService.parseAccessToken(token);
+        jwtService.extractUsername(token);
+
+        assertSame(first, second);
+        assertEquals(1, claimsCache.getCache().stats().missCount());
+        assertEquals(2, claimsCache.getCache().stats().hitCount());
+    }
+
+    @Test
+    void generateAccessToken_ShouldEmbedRolesAndTokenVersion() {
+        MyUser user = new MyUser("ivan", List.of("ADMIN"), "pwd", true, null);
+        user.setId(7L);
+        user.setTokenVersion(3);
+
+        Claims claims = jwtService.parseAccessToken(jwtService.generateAccessToken(new MyUserDetails(user)));
+
+        assertEquals(List.of("ROLE_ADMIN"), claims.get(JwtService.ROLES_CLAIM, List.class));
+        assertEquals(7L, claims.get(JwtService.USER_ID_CLAIM, Long.class));
+        assertEquals(3L, claims.get(JwtService.TOKEN_VERSION_CLAIM, Long.class));
+    }
+
+    @Test
+    void parseAccessToken_ShouldRejectRefreshToken() {
+        String token = jwtService.generateRefreshToken(userDetails);
+
+        assertThrows(InvalidJwtTokenException.class, () -> jwtService.parseAccessToken(token));
+    }
+
+    @Test
+    void parseAccessToken_ShouldRejectTamperedToken() {
+        String token = jwtService.generateAccessToken(userDetails);
+        jwtService.parseAccessToken(token);
+
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char replacement = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signatureStart) + replacement + token.substring(signatureStart + 1);
+
+        assertThrows(InvalidJwtTokenException.class, () -> jwtService.parseAccessToken(tampered));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.bankcards.security.service.jwt;
+
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.repository.RevokedUserRepo;
+import com.example.bankcards.service.user.UserCache;
+import com.example.bankcards.service.user.UserService;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserVersionDenylistIT extends PostgresIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private RevokedUserRepo revokedUserRepo;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE revoked_user, card_block_request, card, my_user_roles, my_user CASCADE");
+        userCache.getCache().invalidateAll();
+    }
+
+    @Test
+    void refresh_ShouldRevokeTokensOfUsersDeletedOnAnotherNode() {
+        Long userId = userRepo.save(new MyUser("owner", List.of("USER"), "pw", true, null)).getId();
+        UserVersionDenylist otherNode = new UserVersionDenylist(userRepo, revokedUserRepo, true);
+        otherNode.refresh();
+        assertFalse(otherNode.isRevoked(userId, 0));
+
+        userService.delUser("owner");
+        otherNode.refresh();
+
+        assertTrue(otherNode.isRevoked(userId, 0));
+    }
+
+    @Test
+    void purgeRevokedUsers_ShouldKeepDeletionsWithinTheTokenLifetime() {
+        jdbcTemplate.update("INSERT INTO revoked_user (user_id, revoked_at) VALUES (1, now() - INTERVAL '1 day'), (2, now())");
+
+        new UserVersionDenylist(userRepo, revokedUserRepo, true).purgeRevokedUsers();
+
+        assertEquals(List.of(2L), jdbcTemplate.queryForList("SELECT user_id FROM revoked_user", Long.class));
+    }
+}
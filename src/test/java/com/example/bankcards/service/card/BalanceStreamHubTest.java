@@ -0,0 +1,190 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.response.card.balance.BalanceEvent;
+import com.example.bankcards.exception.card.BalanceStreamLimitException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceStreamHubTest {
+
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private BalanceStreamHub hub;
+
+    @BeforeEach
+    void setUp() {
+        hub = new BalanceStreamHub(new SimpleMeterRegistry(), 3, 2, Duration.ofMinutes(1), 1) {
+            @Override
+            SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        hub.shutdown();
+    }
+
+    @Test
+    void subscribe_ShouldSendSnapshotThenCommittedChangesOnly() throws InterruptedException {
+        hub.subscribe(1L, "owner", () -> "10.00");
+        RecordingEmitter emitter = emitters.get(0);
+        emitter.awaitEvents(1);
+
+        completeTransaction(() -> hub.publishAfterCommit(1L, new BigDecimal("99")), false);
+        completeTransaction(() -> hub.publishAfterCommit(1L, new BigDecimal("25")), true);
+        hub.publishAfterCommit(2L, new BigDecimal("1"));
+
+        emitter.awaitEvents(2);
+        Thread.sleep(50);
+        assertEquals(List.of("10.00", CardReadRules.formatBalance(new BigDecimal("25"))), emitter.balances());
+    }
+
+    @Test
+    void publish_ShouldKeepOnlyNewestPendingChange() throws InterruptedException {
+        hub.subscribe(1L, "owner", () -> "10.00");
+        RecordingEmitter emitter = emitters.get(0);
+        emitter.awaitEvents(1);
+        CountDownLatch release = emitter.blockNextSend();
+
+        // the sender is busy with this change while the next three arrive
+        hub.publishAfterCommit(1L, new BigDecimal("1"));
+        emitter.awaitEvents(2);
+        TransactionSynchronizationManager.initSynchronization();
+        hub.publishAfterCommit(1L, new BigDecimal("2"));
+        List<TransactionSynchronization> older = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        hub.publishAfterCommit(1L, new BigDecimal("3"));
+        hub.publishAfterCommit(1L, new BigDecimal("4"));
+        // the change with the lower sequence commits last and must not overwrite the newer balance
+        older.forEach(TransactionSynchronization::afterCommit);
+        release.countDown();
+
+        emitter.awaitEvents(3);
+        Thread.sleep(50);
+        assertEquals(List.of("10.00", CardReadRules.formatBalance(BigDecimal.ONE), CardReadRules.formatBalance(new BigDecimal("4"))),
+                emitter.balances());
+    }
+
+    @Test
+    void subscribe_ShouldEnforceConnectionLimits() {
+        hub.subscribe(1L, "owner", () -> "1.00");
+        hub.subscribe(2L, "owner", () -> "1.00");
+
+        BalanceStreamLimitException perUser = assertThrows(BalanceStreamLimitException.class,
+                () -> hub.subscribe(3L, "owner", () -> "1.00"));
+        assertTrue(perUser.getMessage().contains("per user"));
+
+        hub.subscribe(3L, "other", () -> "1.00");
+        assertThrows(BalanceStreamLimitException.class, () -> hub.subscribe(4L, "third", () -> "1.00"));
+        assertEquals(3, hub.connections());
+    }
+
+    @Test
+    void subscribe_ShouldReleaseSlotWhenSnapshotFails() {
+        assertThrows(AccessDeniedException.class, () -> hub.subscribe(1L, "owner", () -> {
+            throw new AccessDeniedException("denied");
+        }));
+
+        assertEquals(0, hub.connections());
+        hub.publishAfterCommit(1L, BigDecimal.ONE);
+        assertTrue(emitters.get(0).balances().isEmpty());
+    }
+
+    @Test
+    void send_ShouldDropSubscriptionOfClosedConnection() throws InterruptedException {
+        hub.subscribe(1L, "owner", () -> "1.00");
+        emitters.get(0).failSends();
+
+        hub.publishAfterCommit(1L, BigDecimal.TEN);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hub.connections() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, hub.connections());
+    }
+
+    private void completeTransaction(Runnable work, boolean commit) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                if (commit) {
+                    synchronization.afterCommit();
+                }
+                synchronization.afterCompletion(commit
+                        ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> balances = new CopyOnWriteArrayList<>();
+        private volatile CountDownLatch blockNextSend;
+        private volatile boolean failing;
+
+        CountDownLatch blockNextSend() {
+            blockNextSend = new CountDownLatch(1);
+            return blockNextSend;
+        }
+
+        void failSends() {
+            failing = true;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            builder.build().stream()
+                    .filter(data -> data.getData() instanceof BalanceEvent)
+                    .forEach(data -> balances.add(((BalanceEvent) data.getData()).balance()));
+            CountDownLatch latch = blockNextSend;
+            if (latch != null) {
+                blockNextSend = null;
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        List<String> balances() {
+            return List.copyOf(balances);
+        }
+
+        void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (balances.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(balances.size() >= count, "events: " + balances);
+        }
+    }
+}
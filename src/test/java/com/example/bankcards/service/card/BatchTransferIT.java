@@ -0,0 +1,154 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.request.transfer.BatchMode;
+import com.example.bankcards.dto.request.transfer.BatchTransferRequest;
+import com.example.bankcards.dto.request.transfer.TransferInstruction;
+import com.example.bankcards.dto.response.card.transfer.BatchTransferResponse;
+import com.example.bankcards.dto.response.card.transfer.TransferItemStatus;
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.State;
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.service.user.UserCache;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchTransferIT extends PostgresIntegrationTest {
+    private static final Logger log = LoggerFactory.getLogger(BatchTransferIT.class);
+    private static final int CARDS = 100;
+    private static final int BATCH_SIZE = 1000;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private CardRepo cardRepo;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> cardIds = new ArrayList<>();
+    private Long otherOwnersCardId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE ledger_entry, card_block_request, card, my_user_roles, my_user CASCADE");
+        userCache.getCache().invalidateAll();
+        MyUser owner = userRepo.save(new MyUser("owner", List.of("USER"), "pw", true, null));
+        MyUser other = userRepo.save(new MyUser("other", List.of("USER"), "pw", true, null));
+        for (int i = 0; i < CARDS; i++) {
+            cardIds.add(saveCard(owner, i).getId());
+        }
+        otherOwnersCardId = saveCard(other, CARDS).getId();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("owner", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void bestEffortBatch_ShouldApplyValidTransfersAndJournalThem() {
+        int valid = BATCH_SIZE - 100;
+        List<TransferInstruction> transfers = new ArrayList<>(ringOfTransfers(valid, BigDecimal.ONE));
+        transfers.add(new TransferInstruction(cardIds.get(0), otherOwnersCardId, BigDecimal.ONE));
+        transfers.add(new TransferInstruction(cardIds.get(1), cardIds.get(2), new BigDecimal("100000.00")));
+
+        BatchTransferResponse response = cardService.transferBatch(new BatchTransferRequest(BatchMode.BEST_EFFORT, transfers));
+
+        assertTrue(response.committed());
+        assertEquals(valid, response.completed());
+        assertEquals(2, response.rejected());
+        assertEquals("access_denied", response.results().get(valid).error());
+        assertEquals("insufficient_funds", response.results().get(valid + 1).error());
+        assertEquals(valid * 2, jdbcTemplate.queryForObject("SELECT count(*) FROM ledger_entry", Integer.class));
+        // every card sends and receives the same number of transfers of the same amount
+        for (Card card : cardRepo.findAll()) {
+            assertEquals(0, INITIAL_BALANCE.compareTo(card.getBalance()), "card " + card.getId());
+        }
+    }
+
+    @Test
+    void atomicBatch_ShouldWriteNothingWhenOneTransferIsRejected() {
+        List<TransferInstruction> transfers = new ArrayList<>(ringOfTransfers(10, BigDecimal.TEN));
+        transfers.add(new TransferInstruction(cardIds.get(0), cardIds.get(1), new BigDecimal("100000.00")));
+
+        BatchTransferResponse response = cardService.transferBatch(new BatchTransferRequest(BatchMode.ATOMIC, transfers));
+
+        assertFalse(response.committed());
+        assertEquals(TransferItemStatus.SKIPPED, response.results().get(0).status());
+        assertEquals(TransferItemStatus.REJECTED, response.results().get(10).status());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM ledger_entry", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM card WHERE balance <> 1000.00", Integer.class));
+    }
+
+    @Test
+    void batch_ShouldBeMuchFasterThanSingleTransfers() {
+        List<TransferInstruction> transfers = ringOfTransfers(BATCH_SIZE, BigDecimal.ONE);
+        // warm up both paths
+        cardService.transferBatch(new BatchTransferRequest(BatchMode.ATOMIC, transfers));
+        for (TransferInstruction transfer : transfers.subList(0, 100)) {
+            cardService.transferMoney(transfer.fromCardId(), transfer.toCardId(), transfer.amount());
+        }
+
+        long singleStart = System.nanoTime();
+        for (TransferInstruction transfer : transfers) {
+            cardService.transferMoney(transfer.fromCardId(), transfer.toCardId(), transfer.amount());
+        }
+        long singleNanos = System.nanoTime() - singleStart;
+
+        long batchStart = System.nanoTime();
+        BatchTransferResponse response = cardService.transferBatch(new BatchTransferRequest(BatchMode.ATOMIC, transfers));
+        long batchNanos = System.nanoTime() - batchStart;
+
+        assertTrue(response.committed());
+        double speedup = (double) singleNanos / batchNanos;
+        log.info("{} transfers: single {} ms, batch {} ms, speedup {}x",
+                BATCH_SIZE, singleNanos / 1_000_000, batchNanos / 1_000_000, String.format("%.1f", speedup));
+        assertTrue(speedup > 10, "batch speedup was only " + speedup + "x");
+    }
+
+    /**
+     * Card {@code i} sends to card {@code i + 1}, wrapping around, so balances are unchanged after whole rounds.
+     */
+    private List<TransferInstruction> ringOfTransfers(int count, BigDecimal amount) {
+        List<TransferInstruction> transfers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transfers.add(new TransferInstruction(cardIds.get(i % CARDS), cardIds.get((i + 1) % CARDS), amount));
+        }
+        return transfers;
+    }
+
+    private Card saveCard(MyUser owner, int index) {
+        Card card = new Card();
+        card.setOwner(owner);
+        card.setEncryptedCardNumber("not-used");
+        card.setCardNumberHash("hash-" + index);
+        card.setCardNumberLast4(String.format("%04d", index));
+        card.setExpirationDate(LocalDate.now().plusYears(3));
+        card.setState(State.ACTIVE);
+        card.setBalance(INITIAL_BALANCE);
+        return cardRepo.save(card);
+    }
+}
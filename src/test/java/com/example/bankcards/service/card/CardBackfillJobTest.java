@@ -0,0 +1,64 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.util.CardUtil;
+import com.example.bankcards.util.encrypt.AESUtil;
+import com.example.bankcards.util.encrypt.CardFingerprintUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardBackfillJobTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private AESUtil aesUtil;
+    @Mock
+    private CardUtil cardUtil;
+    @Mock
+    private CardFingerprintUtil fingerprintUtil;
+
+    @Test
+    void run_shouldKeepRunningWhileCardsAreFilled() {
+        CardBackfillJob job = job(Duration.ofHours(1));
+        doReturn(new CardBackfillJob.BatchResult(10, 10, 0), (Object) null).when(job).backfillBatch(0);
+        doReturn(null).when(job).backfillBatch(10);
+
+        job.run();
+        job.run();
+
+        verify(job, times(2)).backfillBatch(0);
+    }
+
+    @Test
+    void run_shouldOnlyPauseAfterAnEmptyRun() {
+        // rows locked by regular traffic, or inserted by an older node, show up after the pause
+        CardBackfillJob pausing = job(Duration.ofHours(1));
+        doReturn(null).when(pausing).backfillBatch(anyLong());
+        pausing.run();
+        pausing.run();
+        verify(pausing, times(1)).backfillBatch(anyLong());
+
+        CardBackfillJob resuming = job(Duration.ZERO);
+        doReturn(null).when(resuming).backfillBatch(anyLong());
+        resuming.run();
+        resuming.run();
+        verify(resuming, times(2)).backfillBatch(anyLong());
+    }
+
+    private CardBackfillJob job(Duration idleInterval) {
+        return spy(new CardBackfillJob(jdbcTemplate, transactionTemplate, aesUtil, cardUtil, fingerprintUtil,
+                true, 500, idleInterval));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.request.export.CardExportFormat;
+import com.example.bankcards.entity.card.State;
+import com.example.bankcards.repository.CardExportRepo;
+import com.example.bankcards.repository.projection.CardExportView;
+import com.example.bankcards.util.CardUtil;
+import com.example.bankcards.util.encrypt.AESUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class CardExportServiceImplTest {
+
+    @Mock
+    private CardExportRepo cardExportRepo;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private AESUtil aesUtil;
+    private CardExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        aesUtil = new AESUtil();
+        ReflectionTestUtils.setField(aesUtil, "key", "N123221593dd45lKg_28Dh");
+        ReflectionTestUtils.invokeMethod(aesUtil, "init");
+        exportService = new CardExportServiceImpl(cardExportRepo, new CardUtil(aesUtil), objectMapper);
+    }
+
+    @Test
+    void export_ShouldWriteOneMaskedJsonObjectPerLine() throws Exception {
+        rows(new CardExportView(1L, 7L, "alice", "7899", null, LocalDate.of(2029, 1, 31), State.ACTIVE, new BigDecimal("10.50")),
+                new CardExportView(2L, null, null, null, aesUtil.encrypt("4000001234561111"), null, State.BLOCKED, BigDecimal.ZERO));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, exportService.export(CardExportFormat.NDJSON, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1, first.get("id").asLong());
+        assertEquals("alice", first.get("owner").asText());
+        assertEquals("**** **** **** 7899", first.get("cardNumber").asText());
+        assertEquals("2029-01-31", first.get("expirationDate").asText());
+        assertTrue(lines[0].contains("\"balance\":10.50"), lines[0]);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertTrue(second.get("ownerId").isNull());
+        assertEquals("**** **** **** 1111", second.get("cardNumber").asText());
+        assertEquals("BLOCKED", second.get("state").asText());
+    }
+
+    @Test
+    void export_ShouldWriteCsvWithHeaderAndEscapedFields() throws IOException {
+        rows(new CardExportView(1L, 7L, "Doe, \"J\"", "7899", null, LocalDate.of(2029, 1, 31), State.ACTIVE, new BigDecimal("10.50")),
+                new CardExportView(2L, 8L, "=cmd()", "1111", null, LocalDate.of(2030, 2, 28), State.EXPIRED, BigDecimal.ZERO));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, exportService.export(CardExportFormat.CSV, out));
+
+        assertEquals("""
+                id,owner_id,owner,card_number,expiration_date,state,balance
+                1,7,"Doe, ""J\"\"",**** **** **** 7899,2029-01-31,ACTIVE,10.50
+                2,8,'=cmd(),**** **** **** 1111,2030-02-28,EXPIRED,0
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void export_ShouldPropagateClientDisconnect() {
+        rows(new CardExportView(1L, 7L, "alice", "7899", null, LocalDate.of(2029, 1, 31), State.ACTIVE, BigDecimal.ONE));
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        IOException error = assertThrows(IOException.class, () -> exportService.export(CardExportFormat.CSV, broken));
+        assertEquals("Broken pipe", error.getMessage());
+    }
+
+    private void rows(CardExportView... views) {
+        doAnswer(invocation -> {
+            Consumer<CardExportView> consumer = invocation.getArgument(0);
+            List.of(views).forEach(consumer);
+            return null;
+        }).when(cardExportRepo).forEach(any());
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.service.user.UserCache;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.util.encrypt.AESUtil;
+import com.example.bankcards.util.encrypt.CardFingerprintUtil;
+import com.example.bankcards.util.encrypt.HashUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardFingerprintIT extends PostgresIntegrationTest {
+    private static final Logger log = LoggerFactory.getLogger(CardFingerprintIT.class);
+
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private CardBackfillJob backfillJob;
+    @Autowired
+    private CardFingerprintUtil fingerprintUtil;
+    @Autowired
+    private AESUtil aesUtil;
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MyUser owner;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE ledger_entry, card_block_request, card, my_user_roles, my_user CASCADE");
+        userCache.getCache().invalidateAll();
+        owner = userRepo.save(new MyUser("owner", List.of("USER"), "pw", true, null));
+    }
+
+    @Test
+    void createdCard_ShouldKeepLegacyHashForPreviousRelease() {
+        String number = cardService.createCard("owner").cardNumber();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT card_number_hash, card_number_fingerprint FROM card");
+        assertEquals(HashUtil.hash(number), row.get("card_number_hash"));
+        assertArrayEquals(fingerprintUtil.fingerprint(number), (byte[]) row.get("card_number_fingerprint"));
+        assertEquals(number.substring(12), cardService.findByCardNumber(number).getMaskedCardNumber().substring(15));
+    }
+
+    @Test
+    void legacyCard_ShouldBeFoundBeforeAndAfterBackfill() throws Exception {
+        String number = "4000001234567899";
+        jdbcTemplate.update("""
+                INSERT INTO card (id, encrypted_card_number, card_number_hash, expiration_date, owner_id, state, balance)
+                VALUES (nextval('card_id_seq'), ?, ?, CURRENT_DATE + 365, ?, 'ACTIVE', 0)
+                """, aesUtil.encrypt(number), HashUtil.hash(number), owner.getId());
+
+        Card beforeBackfill = cardService.findByCardNumber(number);
+
+        assertEquals(new CardBackfillJob.BatchResult(beforeBackfill.getId(), 1, 0), backfillJob.backfillBatch(0));
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT card_number_hash, card_number_fingerprint, card_number_last4 FROM card");
+        assertEquals(HashUtil.hash(number), row.get("card_number_hash"));
+        assertArrayEquals(fingerprintUtil.fingerprint(number), (byte[]) row.get("card_number_fingerprint"));
+        assertEquals("7899", row.get("card_number_last4"));
+        assertEquals(beforeBackfill.getId(), cardService.findByCardNumber(number).getId());
+        assertNull(backfillJob.backfillBatch(0));
+    }
+
+    @Test
+    void fingerprintIndex_ShouldBeSmallerThanHexHashIndex() {
+        jdbcTemplate.update("""
+                INSERT INTO card (id, card_number_hash, card_number_fingerprint, owner_id, state, balance)
+                SELECT nextval('card_id_seq'), encode(sha256(('h' || i)::bytea), 'hex'), hmac, ?, 'ACTIVE', 0
+                FROM generate_series(1, 50000) i, LATERAL (SELECT sha256(('f' || i)::bytea) AS hmac) f
+                """, owner.getId());
+        jdbcTemplate.execute("VACUUM ANALYZE card");
+
+        long hashIndex = indexSize("card_number_hash");
+        long fingerprintIndex = indexSize("card_number_fingerprint");
+        log.info("Unique index size for 50000 cards: hex hash {} kB, fingerprint {} kB", hashIndex / 1024, fingerprintIndex / 1024);
+
+        assertTrue(fingerprintIndex * 10 < hashIndex * 7, hashIndex + " vs " + fingerprintIndex);
+    }
+
+    private long indexSize(String column) {
+        return jdbcTemplate.queryForObject("""
+                SELECT pg_relation_size(i.indexrelid)
+                FROM pg_index i JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0]
+                WHERE i.indrelid = 'card'::regclass AND i.indisunique AND i.indnatts = 1 AND a.attname = ?
+                """, Long.class, column);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.request.issuance.IssuanceOrder;
+import com.example.bankcards.dto.response.card.CardDtoResponse;
+import com.example.bankcards.dto.response.card.issuance.CardIssuanceEvent;
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.service.user.UserCache;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.example.bankcards.util.encrypt.AESUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardIssuanceIT extends PostgresIntegrationTest {
+    private static final Logger log = LoggerFactory.getLogger(CardIssuanceIT.class);
+    private static final int CARDS = 5000;
+
+    @Autowired
+    private CardIssuanceService cardIssuanceService;
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private AESUtil aesUtil;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE ledger_entry, card_block_request, card, my_user_roles, my_user CASCADE");
+        userCache.getCache().invalidateAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        userRepo.save(new MyUser("corporate", List.of("USER"), "pw", true, null));
+        userRepo.save(new MyUser("second", List.of("USER"), "pw", true, null));
+    }
+
+    @Test
+    void issue_ShouldStoreUniqueCardsInBatchedInserts() throws Exception {
+        List<CardIssuanceEvent> events = new ArrayList<>();
+        statistics.clear();
+
+        long start = System.nanoTime();
+        cardIssuanceService.issue(List.of(new IssuanceOrder("corporate", CARDS)), events::add);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Issued {} cards in {} ms, {} statements prepared", CARDS, millis, statistics.getPrepareStatementCount());
+
+        List<CardDtoResponse> cards = events.stream().flatMap(event -> event.cards().stream()).toList();
+        assertEquals(CARDS, cards.size());
+        assertEquals(CARDS, events.get(events.size() - 1).issued());
+        assertEquals(CARDS, new HashSet<>(cards.stream().map(CardDtoResponse::cardNumber).toList()).size());
+        assertEquals(CARDS, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM card c JOIN my_user u ON u.id = c.owner_id WHERE u.name = 'corporate'", Integer.class));
+        // one prepared statement per JDBC batch of 50 inserts and per block of 50 sequence values, not one per card
+        assertTrue(statistics.getPrepareStatementCount() < CARDS / 10,
+                "prepared statements: " + statistics.getPrepareStatementCount());
+
+        CardDtoResponse sample = cards.get(CARDS / 2);
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT encrypted_card_number, card_number_last4 FROM card WHERE id = ?", sample.id());
+        assertEquals(sample.cardNumber(), aesUtil.decrypt((String) row.get("encrypted_card_number")));
+        assertEquals(sample.cardNumber().substring(12), row.get("card_number_last4"));
+    }
+
+    @Test
+    void issueFromCsv_ShouldIssueForEveryOwner() {
+        List<IssuanceOrder> orders = cardIssuanceService.parseCsv(new StringReader("ownerName,count\ncorporate,3\n\nsecond,2\n"));
+        cardIssuanceService.validate(orders);
+        List<CardIssuanceEvent> events = new ArrayList<>();
+
+        cardIssuanceService.issue(orders, events::add);
+
+        assertEquals(List.of("corporate", "second"), events.stream().map(CardIssuanceEvent::ownerName).toList());
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT count(*) FROM card", Integer.class));
+    }
+
+    @Test
+    void validate_ShouldRejectUnknownOwnerBeforeIssuing() {
+        assertThrows(RuntimeException.class,
+                () -> cardIssuanceService.validate(List.of(new IssuanceOrder("corporate", 1), new IssuanceOrder("nobody", 1))));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM card", Integer.class));
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.request.issuance.IssuanceOrder;
+import com.example.bankcards.dto.response.card.CardDtoResponse;
+import com.example.bankcards.dto.response.card.issuance.CardIssuanceEvent;
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.service.user.UserService;
+import com.example.bankcards.util.CardUtil;
+import com.example.bankcards.util.encrypt.AESUtil;
+import com.example.bankcards.util.encrypt.HashUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardIssuanceServiceImplTest {
+
+    @Mock
+    private CardRepo cardRepo;
+    @Mock
+    private CardNumberPool cardNumberPool;
+    @Mock
+    private UserService userService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CardIssuanceServiceImpl issuanceService;
+
+    @BeforeEach
+    void setUp() {
+        AESUtil aesUtil = new AESUtil();
+        ReflectionTestUtils.setField(aesUtil, "key", "N123221593dd45lKg_28Dh");
+        ReflectionTestUtils.invokeMethod(aesUtil, "init");
+        issuanceService = new CardIssuanceServiceImpl(cardRepo, cardNumberPool, userService, aesUtil, new CardUtil(aesUtil),
+                transactionManager, 100, 4, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        issuanceService.shutdown();
+    }
+
+    @Test
+    void parseCsv_ShouldSkipHeaderAndBlankLines() {
+        List<IssuanceOrder> orders = issuanceService.parseCsv(new StringReader("ownerName,count\n\nalice, 10\nbob,2\n"));
+
+        assertEquals(List.of(new IssuanceOrder("alice", 10), new IssuanceOrder("bob", 2)), orders);
+    }
+
+    @Test
+    void parseCsv_ShouldReportInvalidLine() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> issuanceService.parseCsv(new StringReader("alice,10\nbob,many\n")));
+
+        assertTrue(e.getMessage().startsWith("Line 2"));
+    }
+
+    @Test
+    void validate_ShouldRejectOrdersAboveLimit() {
+        when(userService.getUserByName(any())).thenReturn(new MyUser());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> issuanceService.validate(List.of(new IssuanceOrder("alice", 60), new IssuanceOrder("bob", 41))));
+    }
+
+    @Test
+    void issue_ShouldStreamChunksAndReplaceNumbersIssuedTwice() {
+        MyUser owner = new MyUser();
+        owner.setName("alice");
+        when(userService.getUserByName("alice")).thenReturn(owner);
+        AtomicInteger taken = new AtomicInteger();
+        when(cardNumberPool.take()).thenAnswer(invocation -> {
+            // the fifth number repeats the first one
+            int n = taken.getAndIncrement();
+            return reserved(n == 4 ? 0 : n);
+        });
+        AtomicLong ids = new AtomicLong();
+        when(cardRepo.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Card> cards = invocation.getArgument(0);
+            cards.forEach(card -> card.setId(ids.incrementAndGet()));
+            return cards;
+        });
+        List<CardIssuanceEvent> events = new ArrayList<>();
+
+        issuanceService.issue(List.of(new IssuanceOrder("alice", 10)), events::add);
+
+        assertEquals(List.of(4, 8, 10), events.stream().map(CardIssuanceEvent::issued).toList());
+        List<CardDtoResponse> cards = events.stream().flatMap(event -> event.cards().stream()).toList();
+        assertEquals(10, cards.size());
+        assertEquals(10, new HashSet<>(cards.stream().map(CardDtoResponse::cardNumber).toList()).size());
+        assertTrue(cards.stream().allMatch(card -> card.maskCardNumber().endsWith(card.cardNumber().substring(12))));
+        verify(cardNumberPool, times(11)).take();
+        verify(cardRepo, times(3)).saveAll(anyList());
+        // pooled numbers are already checked against the stored ones
+        verify(cardRepo, never()).findExistingFingerprints(anyList());
+    }
+
+    @Test
+    void issue_ShouldReplaceStoredNumbersWhenInsertHitsUniqueConstraint() {
+        MyUser owner = new MyUser();
+        owner.setName("alice");
+        when(userService.getUserByName("alice")).thenReturn(owner);
+        AtomicInteger taken = new AtomicInteger();
+        when(cardNumberPool.take()).thenAnswer(invocation -> reserved(taken.getAndIncrement()));
+        when(cardRepo.findExistingFingerprints(anyList())).thenReturn(List.of(reserved(1).fingerprint()));
+        AtomicInteger inserts = new AtomicInteger();
+        when(cardRepo.saveAll(anyList())).thenAnswer(invocation -> {
+            if (inserts.getAndIncrement() == 0) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            return invocation.getArgument(0);
+        });
+        List<CardIssuanceEvent> events = new ArrayList<>();
+
+        issuanceService.issue(List.of(new IssuanceOrder("alice", 3)), events::add);
+
+        // workers take numbers concurrently, so the order within the chunk is not fixed
+        Set<String> numbers = events.get(0).cards().stream().map(CardDtoResponse::cardNumber).collect(Collectors.toSet());
+        assertEquals(Set.of(reserved(0).number(), reserved(2).number(), reserved(3).number()), numbers);
+        verify(cardRepo, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void issue_ShouldReplaceNumbersStoredUnderLegacyHashOnly() {
+        MyUser owner = new MyUser();
+        owner.setName("alice");
+        when(userService.getUserByName("alice")).thenReturn(owner);
+        AtomicInteger taken = new AtomicInteger();
+        when(cardNumberPool.take()).thenAnswer(invocation -> reserved(taken.getAndIncrement()));
+        // inserted by a node of the previous release, which writes no fingerprint
+        when(cardRepo.findExistingFingerprints(anyList())).thenReturn(List.of());
+        when(cardRepo.findExistingHashes(anyList())).thenReturn(List.of(HashUtil.hash(reserved(1).number())));
+        AtomicInteger inserts = new AtomicInteger();
+        when(cardRepo.saveAll(anyList())).thenAnswer(invocation -> {
+            if (inserts.getAndIncrement() == 0) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            return invocation.getArgument(0);
+        });
+        List<CardIssuanceEvent> events = new ArrayList<>();
+
+        issuanceService.issue(List.of(new IssuanceOrder("alice", 3)), events::add);
+
+        Set<String> numbers = events.get(0).cards().stream().map(CardDtoResponse::cardNumber).collect(Collectors.toSet());
+        assertEquals(Set.of(reserved(0).number(), reserved(2).number(), reserved(3).number()), numbers);
+        verify(cardRepo, times(2)).saveAll(anyList());
+    }
+
+    private static CardNumberPool.ReservedNumber reserved(int n) {
+        String number = String.format("40000000000%05d", n);
+        return new CardNumberPool.ReservedNumber(number, HexFormat.of().parseHex(HashUtil.hash(number)));
+    }
+}
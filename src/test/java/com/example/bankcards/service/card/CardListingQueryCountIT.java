@@ -0,0 +1,126 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.CardBlockRequest;
+import com.example.bankcards.entity.card.State;
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.CardBlockRequestRepo;
+import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.service.user.UserCache;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Card and block request listings must load a page in a fixed number of statements,
+ * whatever the number of distinct owners and requesting users on the page.
+ */
+class CardListingQueryCountIT extends PostgresIntegrationTest {
+    private static final int USERS = 30;
+    private static final int CARDS_PER_USER = 2;
+
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private CardRepo cardRepo;
+    @Autowired
+    private CardBlockRequestRepo blockRequestRepo;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE card_block_request, card, my_user_roles, my_user CASCADE");
+        userCache.getCache().invalidateAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < USERS; i++) {
+            MyUser user = userRepo.save(new MyUser("user" + i, List.of("USER"), "pw", true, null));
+            for (int j = 0; j < CARDS_PER_USER; j++) {
+                Card card = new Card();
+                card.setOwner(user);
+                card.setEncryptedCardNumber("not-used");
+                card.setCardNumberHash("hash-" + i + "-" + j);
+                card.setCardNumberLast4(String.format("%04d", i * CARDS_PER_USER + j));
+                card.setExpirationDate(LocalDate.now().plusYears(3));
+                card.setState(State.ACTIVE);
+                card.setBalance(BigDecimal.TEN);
+                card = cardRepo.save(card);
+
+                CardBlockRequest blockRequest = new CardBlockRequest();
+                blockRequest.setCard(card);
+                blockRequest.setRequestedBy(user);
+                blockRequest.setRequestDate(LocalDateTime.now());
+                blockRequest.setReason("lost");
+                blockRequestRepo.save(blockRequest);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getBlockRequests_ShouldUseOneSelectAndOneCount() {
+        assertEquals(2, statementsFor(() -> assertEquals(20, cardService.getBlockRequests(20, 0).cards().size())));
+        assertEquals(2, statementsFor(() -> assertEquals(50, cardService.getBlockRequests(50, 0).cards().size())));
+    }
+
+    @Test
+    void scrollBlockRequests_ShouldUseOneSelect() {
+        assertEquals(1, statementsFor(() -> assertEquals(50, cardService.scrollBlockRequests(null, 50, false).cards().size())));
+    }
+
+    @Test
+    void getAllCards_ShouldUseOneSelectAndOneCount() {
+        assertEquals(2, statementsFor(() -> assertEquals(50, cardService.getAllCards(50, 0).cards().size())));
+    }
+
+    @Test
+    void scrollAllCards_ShouldUseOneSelect() {
+        assertEquals(1, statementsFor(() -> assertEquals(50, cardService.scrollAllCards(null, 50, false).cards().size())));
+    }
+
+    @Test
+    void getUserCards_ShouldNotDependOnPageSize() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user0", null, List.of()));
+        cardService.getUserCards("user0", 1, 0);
+
+        // the owner comes from the user cache, so only the page and its count are queried
+        assertEquals(2, statementsFor(() -> assertEquals(1, cardService.getUserCards("user0", 1, 0).cards().size())));
+        assertEquals(1, statementsFor(() -> assertEquals(2, cardService.getUserCards("user0", 10, 0).cards().size())));
+    }
+
+    private long statementsFor(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
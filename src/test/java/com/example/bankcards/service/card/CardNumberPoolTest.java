@@ -0,0 +1,121 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.exception.card.CardCreationException;
+import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.util.encrypt.CardFingerprintUtil;
+import com.example.bankcards.util.encrypt.CardNumberGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardNumberPoolTest {
+
+    @Mock
+    private CardRepo cardRepo;
+
+    private CardNumberPool pool;
+
+    @BeforeEach
+    void setUp() {
+        CardFingerprintUtil fingerprintUtil = new CardFingerprintUtil();
+        ReflectionTestUtils.setField(fingerprintUtil, "key", "fingerprint-key-for-unit-tests-0123");
+        ReflectionTestUtils.invokeMethod(fingerprintUtil, "init");
+        pool = new CardNumberPool(cardRepo, fingerprintUtil, List.of("400000-400099"), 100, 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void generateUnique_ShouldDropStoredNumbersAndTopUp() {
+        when(cardRepo.findExistingFingerprints(anyList()))
+                .thenAnswer(invocation -> {
+                    Collection<byte[]> fingerprints = invocation.getArgument(0);
+                    return fingerprints.stream().limit(2).toList();
+                })
+                .thenReturn(List.of());
+        when(cardRepo.findExistingHashes(anyList()))
+                .thenAnswer(invocation -> {
+                    List<String> hashes = invocation.getArgument(0);
+                    // a card that was not backfilled yet
+                    return List.of(hashes.get(5));
+                })
+                .thenReturn(List.of());
+
+        List<CardNumberPool.ReservedNumber> numbers = pool.generateUnique(20);
+
+        assertEquals(20, numbers.size());
+        assertEquals(20, new HashSet<>(numbers.stream().map(CardNumberPool.ReservedNumber::key).toList()).size());
+        assertTrue(numbers.stream().allMatch(number -> CardNumberGenerator.isValid(number.number())));
+        verify(cardRepo, times(2)).findExistingFingerprints(anyList());
+        verify(cardRepo, times(2)).findExistingHashes(anyList());
+    }
+
+    @Test
+    void generateUnique_ShouldFailWhenEveryNumberIsTaken() {
+        when(cardRepo.findExistingFingerprints(anyList())).thenAnswer(invocation -> List.copyOf(invocation.<Collection<byte[]>>getArgument(0)));
+
+        assertThrows(CardCreationException.class, () -> pool.generateUnique(5));
+    }
+
+    @Test
+    void take_ShouldServeUniqueNumbersAndRefillInBackground() throws Exception {
+        when(cardRepo.findExistingFingerprints(anyList())).thenReturn(List.of());
+        Set<String> taken = new HashSet<>();
+        pool.prefill();
+        // the refill stops once less than a batch of 20 fits
+        awaitSize(81);
+        clearInvocations(cardRepo);
+
+        // capacity 100: the refill is only scheduled once fewer than 25 numbers are left
+        while (pool.size() >= 25) {
+            assertTrue(taken.add(pool.take().number()));
+        }
+        awaitSize(80);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(taken.add(pool.take().number()));
+        }
+        // one lookup per batch of 20 topped up from below the watermark to at most 100
+        verify(cardRepo, atMost(100 / 20)).findExistingFingerprints(anyList());
+    }
+
+    @Test
+    void take_ShouldNotRefillWhileAboveWatermark() throws Exception {
+        when(cardRepo.findExistingFingerprints(anyList())).thenReturn(List.of());
+        pool.prefill();
+        // the refill stops once less than a batch of 20 fits
+        awaitSize(81);
+        clearInvocations(cardRepo);
+
+        while (pool.size() > 25) {
+            pool.take();
+        }
+
+        verify(cardRepo, after(200).never()).findExistingFingerprints(anyList());
+        assertEquals(25, pool.size());
+    }
+
+    private void awaitSize(int minimum) throws InterruptedException {
+        for (int i = 0; i < 100 && pool.size() < minimum; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(pool.size() >= minimum, "pool size " + pool.size());
+    }
+}
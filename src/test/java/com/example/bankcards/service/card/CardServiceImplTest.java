@@ -1,35 +1,57 @@
 package com.example.bankcards.service.card;
 
+import com.example.bankcards.dto.event.CardBalanceChanged;
+import com.example.bankcards.dto.request.transfer.BatchMode;
+import com.example.bankcards.dto.request.transfer.BatchTransferRequest;
+import com.example.bankcards.dto.request.transfer.TransferInstruction;
 import com.example.bankcards.dto.response.card.CardDtoResponse;
 import com.example.bankcards.dto.response.card.pagination.card.CardDtoForSearchResponse;
+import com.example.bankcards.dto.response.card.pagination.card.CardSliceResponse;
+import com.example.bankcards.dto.response.card.transfer.BatchTransferResponse;
+import com.example.bankcards.dto.response.card.transfer.TransferItemResult;
 import com.example.bankcards.entity.card.Card;
 import com.example.bankcards.entity.card.CardBlockRequest;
 import com.example.bankcards.entity.card.State;
+import com.example.bankcards.entity.ledger.Direction;
+import com.example.bankcards.entity.outbox.OutboxEventType;
 import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.exception.card.CardNotFoundException;
+import com.example.bankcards.exception.card.InsufficientFundsException;
+import com.example.bankcards.exception.card.InvalidCardStateException;
 import com.example.bankcards.repository.CardBlockRequestRepo;
 import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.repository.LedgerEntryRepo;
+import com.example.bankcards.repository.projection.CardView;
+import com.example.bankcards.service.outbox.OutboxService;
 import com.example.bankcards.service.user.UserService;
 import com.example.bankcards.util.CardUtil;
+import com.example.bankcards.util.CursorUtil;
 import com.example.bankcards.util.encrypt.AESUtil;
-import com.example.bankcards.util.encrypt.CardNumberGenerator;
+import com.example.bankcards.util.encrypt.CardFingerprintUtil;
 import com.example.bankcards.util.encrypt.HashUtil;
 import com.example.bankcards.util.mapper.CardMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +64,12 @@ class CardServiceImplTest {
     @Mock private CardMapper cardMapper;
     @Mock private CardBlockRequestRepo blockRequestRepo;
     @Mock private CardUtil cardUtil;
+    @Mock private TransferEngine transferEngine;
+    @Mock private LedgerEntryRepo ledgerEntryRepo;
+    @Mock private CardNumberPool cardNumberPool;
+    @Mock private CardFingerprintUtil fingerprintUtil;
+    @Mock private BalanceStreamHub balanceStreamHub;
+    @Mock private OutboxService outboxService;
 
     @InjectMocks
     private CardServiceImpl cardService;
@@ -62,13 +90,33 @@ class CardServiceImplTest {
     @Test
     void findByCardNumber_shouldReturnCard() {
         String number = "1234123412341234";
-        String hash = HashUtil.hash(number);
+        byte[] fingerprint = {1, 2, 3};
         Card card = new Card();
-        when(cardRepo.findByCardNumberHash(hash)).thenReturn(Optional.of(card));
+        when(fingerprintUtil.fingerprint(number)).thenReturn(fingerprint);
+        when(cardRepo.findByCardNumberFingerprint(fingerprint)).thenReturn(Optional.of(card));
 
         Card result = cardService.findByCardNumber(number);
 
         assertEquals(card, result);
+        verify(cardRepo, never()).findByCardNumberHash(any());
+    }
+
+    @Test
+    void findByCardNumber_shouldFallBackToLegacyHash() {
+        String number = "1234123412341234";
+        Card card = new Card();
+        when(cardRepo.findByCardNumberFingerprint(any())).thenReturn(Optional.empty());
+        when(cardRepo.findByCardNumberHash(HashUtil.hash(number))).thenReturn(Optional.of(card));
+
+        Card result = cardService.findByCardNumber(number);
+
+        assertEquals(card, result);
+    }
+
+    @Test
+    void findByCardNumber_shouldRejectNonDigitsWithoutLookup() {
+        assertThrows(CardNotFoundException.class, () -> cardService.findByCardNumber("1234-1234"));
+        verifyNoInteractions(cardRepo, fingerprintUtil);
     }
 
     @Test
@@ -82,16 +130,16 @@ class CardServiceImplTest {
         when(userService.getUserByName("ivan")).thenReturn(user);
         when(aesUtil.encrypt(cardNumber)).thenReturn(encrypted);
         when(cardUtil.maskCardNumber(cardNumber)).thenReturn(masked);
+        byte[] fingerprint = new byte[32];
+        when(cardNumberPool.take()).thenReturn(new CardNumberPool.ReservedNumber(cardNumber, fingerprint));
 
-        try (MockedStatic<CardNumberGenerator> generatorMockedStatic = mockStatic(CardNumberGenerator.class)) {
-            generatorMockedStatic.when(CardNumberGenerator::generateCardNumber).thenReturn(cardNumber);
-
-            CardDtoResponse response = cardService.createCard("ivan");
+        CardDtoResponse response = cardService.createCard("ivan");
 
-            assertEquals(masked, response.maskCardNumber());
-            assertEquals(BigDecimal.ZERO, response.balance());
-            assertEquals(State.ACTIVE, response.state());
-        }
+        assertEquals(masked, response.maskCardNumber());
+        assertEquals(BigDecimal.ZERO, response.balance());
+        assertEquals(State.ACTIVE, response.state());
+        verify(cardRepo).save(argThat(card -> card.getCardNumberFingerprint() == fingerprint
+                && HashUtil.hash(cardNumber).equals(card.getCardNumberHash())));
     }
 
 
@@ -156,28 +204,44 @@ class CardServiceImplTest {
     }
 
     @Test
-    void transferMoney_shouldTransferCorrectly() {
-        Card from = new Card();
-        from.setId(1L);
-        from.setBalance(new BigDecimal("100.00"));
-        from.setState(State.ACTIVE);
+    void transferMoney_shouldDelegateToTransferEngine() {
+        cardService.transferMoney(1L, 2L, new BigDecimal("25.00"));
 
-        Card to = new Card();
-        to.setId(2L);
-        to.setBalance(new BigDecimal("50.00"));
-        to.setState(State.ACTIVE);
+        verify(transferEngine).transfer(1L, 2L, new BigDecimal("25.00"));
+    }
+
+    @Test
+    void transferMoney_shouldRejectNonPositiveAmount() {
+        assertThrows(IllegalArgumentException.class, () -> cardService.transferMoney(1L, 2L, BigDecimal.ZERO));
+        verifyNoInteractions(transferEngine);
+    }
 
+    @Test
+    void transferBatch_shouldDefaultToAtomicAndCountResults() {
         MyUser user = new MyUser();
-        from.setOwner(user);
-        to.setOwner(user);
+        user.setId(7L);
+        user.setName("user");
+        List<TransferInstruction> transfers = List.of(
+                new TransferInstruction(1L, 2L, BigDecimal.ONE),
+                new TransferInstruction(1L, 3L, BigDecimal.ONE));
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(transferEngine.transferBatch(transfers, 7L, true)).thenReturn(List.of(
+                TransferItemResult.skipped(0),
+                TransferItemResult.rejected(1, "card_not_found", "Card with this id doesn't exist")));
 
-        when(cardRepo.findById(1L)).thenReturn(Optional.of(from));
-        when(cardRepo.findById(2L)).thenReturn(Optional.of(to));
+        BatchTransferResponse response = cardService.transferBatch(new BatchTransferRequest(null, transfers));
 
-        cardService.transferMoney(1L, 2L, new BigDecimal("25.00"));
+        assertEquals(BatchMode.ATOMIC, response.mode());
+        assertFalse(response.committed());
+        assertEquals(0, response.completed());
+        assertEquals(1, response.rejected());
+    }
 
-        assertEquals(new BigDecimal("75.00"), from.getBalance());
-        assertEquals(new BigDecimal("75.00"), to.getBalance());
+    @Test
+    void transferBatch_shouldRejectEmptyBatch() {
+        assertThrows(IllegalArgumentException.class,
+                () -> cardService.transferBatch(new BatchTransferRequest(BatchMode.BEST_EFFORT, List.of())));
+        verifyNoInteractions(transferEngine);
     }
 
     @Test
@@ -212,5 +276,75 @@ class CardServiceImplTest {
         assertEquals(BigDecimal.valueOf(500), dto.balance());
     }
 
-}
+    @Test
+    void scrollAllCards_shouldSeekAfterCursorWithoutCounting() {
+        CardView card = new CardView(42L, "1234", "encrypted", LocalDate.of(2030, 1, 1), State.ACTIVE, BigDecimal.ZERO);
+        CardDtoForSearchResponse dto = new CardDtoForSearchResponse(42L, "**** **** **** 1234",
+                LocalDate.of(2030, 1, 1), State.ACTIVE, BigDecimal.ZERO);
+        when(cardRepo.findViewsAfter(10L, PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(card), PageRequest.of(0, 1), true));
+        when(cardMapper.viewsToDtoList(List.of(card))).thenReturn(List.of(dto));
+
+        CardSliceResponse response = cardService.scrollAllCards(CursorUtil.encode(10L), 1, false);
+
+        assertEquals(List.of(dto), response.cards());
+        assertEquals(42L, CursorUtil.decode(response.nextCursor()));
+        assertNull(response.totalElements());
+        verify(cardRepo, never()).count();
+    }
+
+    @Test
+    void scrollAllCards_shouldRejectInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> cardService.scrollAllCards("not-a-cursor", 10, false));
+        verifyNoInteractions(cardRepo);
+    }
+
+    @Test
+    void withdrawMoney_shouldRestrictDebitToOwnCards() {
+        MyUser user = new MyUser();
+        user.setId(7L);
+        user.setRoles(List.of("USER"));
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(cardRepo.withdrawFromBalance(1L, BigDecimal.TEN, 7L)).thenReturn(Optional.of(new BigDecimal("90.00")));
+
+        cardService.withdrawMoney(1L, BigDecimal.TEN);
 
+        verify(cardRepo, never()).findById(any());
+        verify(ledgerEntryRepo).insertAll(argThat(entries -> entries.size() == 1
+                && entries.get(0).direction() == Direction.DEBIT && entries.get(0).amount().equals(BigDecimal.TEN)));
+        verify(balanceStreamHub).publishAfterCommit(1L, new BigDecimal("90.00"));
+        verify(outboxService).append(eq(OutboxEventType.CARD_BALANCE_CHANGED), eq(1L), argThat(payload ->
+                payload instanceof CardBalanceChanged event && event.amount().equals(BigDecimal.TEN.negate())
+                        && event.balance().equals(new BigDecimal("90.00"))));
+    }
+
+    @Test
+    void withdrawMoney_shouldReportInsufficientFundsWhenUpdateIsRejected() {
+        MyUser user = new MyUser();
+        user.setId(7L);
+        user.setRoles(List.of("USER"));
+        Card card = new Card();
+        card.setId(1L);
+        card.setOwner(user);
+        card.setState(State.ACTIVE);
+        card.setExpirationDate(LocalDate.now().plusYears(1));
+        card.setBalance(BigDecimal.ONE);
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(cardRepo.withdrawFromBalance(1L, BigDecimal.TEN, 7L)).thenReturn(Optional.empty());
+        when(cardRepo.findById(1L)).thenReturn(Optional.of(card));
+
+        assertThrows(InsufficientFundsException.class, () -> cardService.withdrawMoney(1L, BigDecimal.TEN));
+        verifyNoInteractions(balanceStreamHub, outboxService);
+    }
+
+    @Test
+    void addMoney_shouldReportInactiveCardWhenUpdateIsRejected() {
+        Card card = new Card();
+        card.setId(1L);
+        card.setState(State.BLOCKED);
+        when(cardRepo.addToBalance(1L, BigDecimal.TEN)).thenReturn(Optional.empty());
+        when(cardRepo.findById(1L)).thenReturn(Optional.of(card));
+
+        assertThrows(InvalidCardStateException.class, () -> cardService.addMoney(1L, BigDecimal.TEN));
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.response.card.statement.StatementEntryResponse;
+import com.example.bankcards.dto.response.card.statement.StatementResponse;
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.State;
+import com.example.bankcards.entity.ledger.Direction;
+import com.example.bankcards.entity.ledger.Operation;
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.exception.card.InsufficientFundsException;
+import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.service.user.UserCache;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerIT extends PostgresIntegrationTest {
+
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private CardRepo cardRepo;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long firstCardId;
+    private Long secondCardId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE ledger_entry, card_block_request, card, my_user_roles, my_user CASCADE");
+        userCache.getCache().invalidateAll();
+        MyUser owner = userRepo.save(new MyUser("owner", List.of("USER"), "pw", true, null));
+        firstCardId = saveCard(owner, 0).getId();
+        secondCardId = saveCard(owner, 1).getId();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("owner", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void balanceChanges_ShouldBeJournaledInTheSameTransaction() {
+        cardService.addMoney(firstCardId, new BigDecimal("100.00"));
+        cardService.withdrawMoney(firstCardId, new BigDecimal("30.00"));
+        cardService.transferMoney(firstCardId, secondCardId, new BigDecimal("20.00"));
+        assertThrows(InsufficientFundsException.class,
+                () -> cardService.withdrawMoney(firstCardId, new BigDecimal("1000.00")));
+        assertThrows(InsufficientFundsException.class,
+                () -> cardService.transferMoney(firstCardId, secondCardId, new BigDecimal("1000.00")));
+
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT count(*) FROM ledger_entry", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM ledger_entry_default", Integer.class));
+        for (Long cardId : List.of(firstCardId, secondCardId)) {
+            BigDecimal journaled = jdbcTemplate.queryForObject("""
+                    SELECT coalesce(sum(CASE direction WHEN 'CREDIT' THEN amount ELSE -amount END), 0)
+                    FROM ledger_entry WHERE card_id = ?
+                    """, BigDecimal.class, cardId);
+            assertEquals(0, journaled.compareTo(cardRepo.findById(cardId).orElseThrow().getBalance()));
+        }
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(DISTINCT correlation_id) FROM ledger_entry WHERE operation = 'TRANSFER'", Integer.class));
+    }
+
+    @Test
+    void getStatement_ShouldPageNewestFirst() {
+        for (int i = 1; i <= 5; i++) {
+            cardService.addMoney(firstCardId, BigDecimal.valueOf(i));
+        }
+
+        List<StatementEntryResponse> entries = new ArrayList<>();
+        String cursor = null;
+        do {
+            StatementResponse response = cardService.getStatement(firstCardId, null, null, cursor, 2);
+            entries.addAll(response.entries());
+            cursor = response.nextCursor();
+            assertEquals(cursor == null, response.last());
+        } while (cursor != null);
+
+        assertEquals(5, entries.size());
+        assertEquals(List.of(5, 4, 3, 2, 1), entries.stream().map(entry -> entry.amount().intValue()).toList());
+        assertTrue(entries.stream().allMatch(entry -> entry.direction() == Direction.CREDIT
+                && entry.operation() == Operation.DEPOSIT));
+    }
+
+    @Test
+    void statementQuery_ShouldBeAnIndexOnlyScan() {
+        jdbcTemplate.update("""
+                INSERT INTO ledger_entry (id, card_id, amount, direction, operation, correlation_id, created_at)
+                SELECT nextval('ledger_entry_id_seq'), n % 500, 1.00, 'CREDIT', 'DEPOSIT', gen_random_uuid(),
+                       now() - (n % 20) * INTERVAL '1 hour'
+                FROM generate_series(1, 50000) AS n
+                """);
+        jdbcTemplate.execute("VACUUM ANALYZE ledger_entry");
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("""
+                EXPLAIN SELECT id, card_id, amount, direction, operation, correlation_id, created_at
+                FROM ledger_entry
+                WHERE card_id = 1 AND created_at >= now() - INTERVAL '30 days' AND created_at < now() + INTERVAL '1 day'
+                  AND (created_at, id) < (now() + INTERVAL '1 day', 9223372036854775807)
+                ORDER BY created_at DESC, id DESC
+                LIMIT 11
+                """, String.class));
+
+        assertTrue(plan.contains("Index Only Scan"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    private Card saveCard(MyUser owner, int index) {
+        Card card = new Card();
+        card.setOwner(owner);
+        card.setEncryptedCardNumber("not-used");
+        card.setCardNumberHash("hash-" + index);
+        card.setCardNumberLast4(String.format("%04d", index));
+        card.setExpirationDate(LocalDate.now().plusYears(3));
+        card.setState(State.ACTIVE);
+        card.setBalance(BigDecimal.ZERO.setScale(2));
+        return cardRepo.save(card);
+    }
+}
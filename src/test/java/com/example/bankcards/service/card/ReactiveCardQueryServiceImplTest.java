@@ -0,0 +1,105 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.response.card.pagination.card.CardDtoForSearchResponse;
+import com.example.bankcards.entity.card.State;
+import com.example.bankcards.exception.card.CardNotFoundException;
+import com.example.bankcards.repository.CardReactiveRepo;
+import com.example.bankcards.repository.projection.CardAccessView;
+import com.example.bankcards.repository.projection.CardView;
+import com.example.bankcards.util.encrypt.CardFingerprintUtil;
+import com.example.bankcards.util.encrypt.HashUtil;
+import com.example.bankcards.util.mapper.CardMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCardQueryServiceImplTest {
+
+    @Mock
+    private CardReactiveRepo cardReactiveRepo;
+    @Mock
+    private CardMapper cardMapper;
+    @Mock
+    private CardFingerprintUtil fingerprintUtil;
+
+    @InjectMocks
+    private ReactiveCardQueryServiceImpl service;
+
+    private final CardView card = new CardView(1L, "1234", null, LocalDate.of(2030, 1, 1), State.ACTIVE, new BigDecimal("10.50"));
+
+    @Test
+    void getBalance_ShouldReturnFormattedBalanceToOwner() {
+        when(cardReactiveRepo.findById(1L, "owner")).thenReturn(Mono.just(new CardAccessView(card, true, List.of("USER"))));
+
+        assertEquals(CardReadRules.formatBalance(new BigDecimal("10.50")), service.getBalance(1L, "owner").block());
+    }
+
+    @Test
+    void getBalance_ShouldAllowAdmin() {
+        when(cardReactiveRepo.findById(1L, "admin")).thenReturn(Mono.just(new CardAccessView(card, false, List.of("USER", "ADMIN"))));
+
+        assertNotNull(service.getBalance(1L, "admin").block());
+    }
+
+    @Test
+    void getBalance_ShouldDenyOtherUser() {
+        when(cardReactiveRepo.findById(1L, "other")).thenReturn(Mono.just(new CardAccessView(card, false, List.of("USER"))));
+
+        AccessDeniedException e = assertThrows(AccessDeniedException.class, () -> service.getBalance(1L, "other").block());
+        assertEquals(CardReadRules.ACCESS_DENIED, e.getMessage());
+    }
+
+    @Test
+    void getCardById_ShouldFailWhenMissing() {
+        when(cardReactiveRepo.findById(1L, "owner")).thenReturn(Mono.empty());
+
+        CardNotFoundException e = assertThrows(CardNotFoundException.class, () -> service.getCardById(1L, "owner").block());
+        assertEquals(CardReadRules.NOT_FOUND_BY_ID, e.getMessage());
+        verifyNoInteractions(cardMapper);
+    }
+
+    @Test
+    void getCardByNumber_ShouldFallBackToLegacyHash() {
+        byte[] fingerprint = new byte[32];
+        CardDtoForSearchResponse dto = new CardDtoForSearchResponse(1L, "**** **** **** 1234", card.expirationDate(), card.state(), card.balance());
+        when(fingerprintUtil.fingerprint("4000001234561234")).thenReturn(fingerprint);
+        when(cardReactiveRepo.findByCardNumberFingerprint(fingerprint, "owner")).thenReturn(Mono.empty());
+        when(cardReactiveRepo.findByCardNumberHash(HashUtil.hash("4000001234561234"), "owner"))
+                .thenReturn(Mono.just(new CardAccessView(card, true, List.of("USER"))));
+        when(cardMapper.viewsToDtoList(List.of(card))).thenReturn(List.of(dto));
+
+        assertEquals(dto, service.getCardByNumber("4000001234561234", "owner").block());
+    }
+
+    @Test
+    void getCardByNumber_ShouldRejectMalformedNumberWithoutQuery() {
+        assertThrows(CardNotFoundException.class, () -> service.getCardByNumber("4000-0000", "owner").block());
+
+        verifyNoInteractions(cardReactiveRepo, fingerprintUtil);
+    }
+
+    @Test
+    void getCardByNumber_ShouldNotQueryLegacyHashWhenFingerprintMatches() {
+        when(fingerprintUtil.fingerprint(any(CharSequence.class))).thenReturn(new byte[32]);
+        when(cardReactiveRepo.findByCardNumberFingerprint(any(), eq("owner")))
+                .thenReturn(Mono.just(new CardAccessView(card, true, List.of("USER"))));
+        when(cardMapper.viewsToDtoList(List.of(card))).thenReturn(List.of(
+                new CardDtoForSearchResponse(1L, "**** **** **** 1234", card.expirationDate(), card.state(), card.balance())));
+
+        assertNotNull(service.getCardByNumber("4000001234561234", "owner").block());
+        verify(cardReactiveRepo, never()).findByCardNumberHash(any(), any());
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.State;
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.exception.card.InsufficientFundsException;
+import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs 10k transfers between 100 cards from 32 threads and checks that no update was lost:
+ * every card ends with exactly its initial balance plus the successful transfers in and minus those out.
+ */
+class TransferConcurrencyIT extends PostgresIntegrationTest {
+    private static final int CARDS = 100;
+    private static final int TRANSFERS = 10_000;
+    private static final int THREADS = 32;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private CardRepo cardRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> cardIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE ledger_entry, card_block_request, card, my_user_roles, my_user CASCADE");
+        MyUser owner = userRepo.save(new MyUser("owner", List.of("USER"), "pw", true, null));
+        for (int i = 0; i < CARDS; i++) {
+            Card card = new Card();
+            card.setOwner(owner);
+            card.setEncryptedCardNumber("not-used");
+            card.setCardNumberHash("hash-" + i);
+            card.setCardNumberLast4(String.format("%04d", i));
+            card.setExpirationDate(LocalDate.now().plusYears(3));
+            card.setState(State.ACTIVE);
+            card.setBalance(INITIAL_BALANCE);
+            cardIds.add(cardRepo.save(card).getId());
+        }
+    }
+
+    @Test
+    void concurrentTransfers_ShouldConserveBalances() throws Exception {
+        ConcurrentLinkedQueue<Transfer> completed = new ConcurrentLinkedQueue<>();
+        AtomicInteger insufficientFunds = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>(TRANSFERS);
+            for (int i = 0; i < TRANSFERS; i++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    Long from = cardIds.get(random.nextInt(CARDS));
+                    Long to = cardIds.get(random.nextInt(CARDS));
+                    while (to.equals(from)) {
+                        to = cardIds.get(random.nextInt(CARDS));
+                    }
+                    BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 50_000), 2);
+                    try {
+                        cardService.transferMoney(from, to, amount);
+                        completed.add(new Transfer(from, to, amount));
+                    } catch (InsufficientFundsException e) {
+                        insufficientFunds.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<Long, BigDecimal> expected = new HashMap<>();
+        cardIds.forEach(id -> expected.put(id, INITIAL_BALANCE));
+        for (Transfer transfer : completed) {
+            expected.merge(transfer.from(), transfer.amount().negate(), BigDecimal::add);
+            expected.merge(transfer.to(), transfer.amount(), BigDecimal::add);
+        }
+
+        assertEquals(TRANSFERS, completed.size() + insufficientFunds.get());
+        assertTrue(completed.size() > TRANSFERS / 2, "too few transfers succeeded: " + completed.size());
+        for (Card card : cardRepo.findAll()) {
+            assertEquals(0, expected.get(card.getId()).compareTo(card.getBalance()),
+                    "card " + card.getId() + " expected " + expected.get(card.getId()) + " but was " + card.getBalance());
+            assertTrue(card.getBalance().signum() >= 0);
+        }
+        BigDecimal total = jdbcTemplate.queryForObject("SELECT sum(balance) FROM card", BigDecimal.class);
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(CARDS)).compareTo(total));
+        assertEquals(completed.size() * 2, jdbcTemplate.queryForObject("SELECT count(*) FROM ledger_entry", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM (
+                    SELECT correlation_id FROM ledger_entry
+                    GROUP BY correlation_id
+                    HAVING count(*) <> 2 OR sum(CASE direction WHEN 'CREDIT' THEN amount ELSE -amount END) <> 0
+                ) unbalanced
+                """, Integer.class));
+    }
+
+    private record Transfer(Long from, Long to, BigDecimal amount) {
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.event.CardBalanceChanged;
+import com.example.bankcards.dto.request.transfer.TransferInstruction;
+import com.example.bankcards.dto.response.card.transfer.TransferItemResult;
+import com.example.bankcards.dto.response.card.transfer.TransferItemStatus;
+import com.example.bankcards.exception.card.InsufficientFundsException;
+import com.example.bankcards.exception.card.InvalidCardStateException;
+import com.example.bankcards.entity.ledger.Direction;
+import com.example.bankcards.entity.outbox.OutboxEventType;
+import com.example.bankcards.repository.CardBalanceBatchRepo;
+import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.repository.LedgerEntryRepo;
+import com.example.bankcards.repository.projection.CardBalanceView;
+import com.example.bankcards.service.outbox.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferEngineTest {
+
+    @Mock
+    private CardRepo cardRepo;
+    @Mock
+    private LedgerEntryRepo ledgerEntryRepo;
+    @Mock
+    private CardBalanceBatchRepo cardBalanceBatchRepo;
+    @Mock
+    private BalanceStreamHub balanceStreamHub;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransferEngine transferEngine;
+
+    @BeforeEach
+    void setUp() {
+        transferEngine = new TransferEngine(cardRepo, ledgerEntryRepo, cardBalanceBatchRepo, balanceStreamHub, outboxService, transactionManager, 3, Duration.ofMillis(1));
+    }
+
+    @Test
+    void transfer_shouldDebitAndCreditLockedCards() {
+        when(cardRepo.lockBalances(List.of(1L, 2L)))
+                .thenReturn(List.of(card(1L, 7L, true, "100.00"), card(2L, 7L, true, "50.00")));
+        when(cardRepo.debit(1L, new BigDecimal("25.00"))).thenReturn(1);
+
+        transferEngine.transfer(1L, 2L, new BigDecimal("25.00"));
+
+        verify(cardRepo).credit(2L, new BigDecimal("25.00"));
+        verify(ledgerEntryRepo).insertAll(argThat(entries -> entries.size() == 2
+                && entries.get(0).direction() == Direction.DEBIT && entries.get(0).cardId().equals(1L)
+                && entries.get(1).direction() == Direction.CREDIT && entries.get(1).cardId().equals(2L)
+                && entries.get(0).correlationId().equals(entries.get(1).correlationId())));
+        verify(balanceStreamHub).publishAfterCommit(Map.of(1L, new BigDecimal("75.00"), 2L, new BigDecimal("75.00")));
+        verify(outboxService).appendAll(eq(OutboxEventType.CARD_BALANCE_CHANGED), argThat(events -> events.size() == 2
+                && List.copyOf(events.keySet()).equals(List.of(1L, 2L))
+                && ((CardBalanceChanged) events.get(1L)).amount().equals(new BigDecimal("-25.00"))
+                && ((CardBalanceChanged) events.get(2L)).correlationId()
+                        .equals(((CardBalanceChanged) events.get(1L)).correlationId())));
+    }
+
+    @Test
+    void transfer_shouldNotTouchBalancesWhenFundsAreInsufficient() {
+        when(cardRepo.lockBalances(List.of(1L, 2L)))
+                .thenReturn(List.of(card(1L, 7L, true, "10.00"), card(2L, 7L, true, "50.00")));
+
+        assertThrows(InsufficientFundsException.class, () -> transferEngine.transfer(1L, 2L, new BigDecimal("25.00")));
+
+        verify(cardRepo, never()).debit(anyLong(), any());
+        verify(cardRepo, never()).credit(anyLong(), any());
+        verifyNoInteractions(ledgerEntryRepo);
+    }
+
+    @Test
+    void transfer_shouldRejectCardsOfDifferentOwners() {
+        when(cardRepo.lockBalances(List.of(1L, 2L)))
+                .thenReturn(List.of(card(1L, 7L, true, "100.00"), card(2L, 8L, true, "50.00")));
+
+        assertThrows(AccessDeniedException.class, () -> transferEngine.transfer(1L, 2L, BigDecimal.ONE));
+    }
+
+    @Test
+    void transfer_shouldRejectUnusableCards() {
+        when(cardRepo.lockBalances(List.of(1L, 2L)))
+                .thenReturn(List.of(card(1L, 7L, true, "100.00"), card(2L, 7L, false, "50.00")));
+
+        assertThrows(InvalidCardStateException.class, () -> transferEngine.transfer(1L, 2L, BigDecimal.ONE));
+    }
+
+    @Test
+    void transfer_shouldRetryOnLockFailure() {
+        when(cardRepo.lockBalances(List.of(1L, 2L)))
+                .thenThrow(new CannotAcquireLockException("deadlock detected"))
+                .thenReturn(List.of(card(1L, 7L, true, "100.00"), card(2L, 7L, true, "50.00")));
+        when(cardRepo.debit(1L, BigDecimal.ONE)).thenReturn(1);
+
+        transferEngine.transfer(1L, 2L, BigDecimal.ONE);
+
+        verify(cardRepo, times(2)).lockBalances(List.of(1L, 2L));
+        verify(cardRepo).credit(2L, BigDecimal.ONE);
+    }
+
+    @Test
+    void transfer_shouldGiveUpAfterMaxAttempts() {
+        when(cardRepo.lockBalances(List.of(1L, 2L))).thenThrow(new CannotAcquireLockException("deadlock detected"));
+
+        assertThrows(CannotAcquireLockException.class, () -> transferEngine.transfer(1L, 2L, BigDecimal.ONE));
+
+        verify(cardRepo, times(3)).lockBalances(List.of(1L, 2L));
+    }
+
+    @Test
+    void transferBatch_shouldApplyNetDeltasAndReportRejectedItems() {
+        when(cardRepo.lockBalances(any()))
+                .thenReturn(List.of(card(1L, 7L, true, "100.00"), card(2L, 7L, true, "0.00"), card(3L, 8L, true, "50.00")));
+        when(cardBalanceBatchRepo.applyDeltas(any())).thenReturn(List.of());
+
+        List<TransferItemResult> results = transferEngine.transferBatch(List.of(
+                new TransferInstruction(1L, 2L, new BigDecimal("60.00")),
+                new TransferInstruction(1L, 2L, new BigDecimal("60.00")),
+                new TransferInstruction(2L, 1L, new BigDecimal("10.00")),
+                new TransferInstruction(1L, 3L, BigDecimal.ONE),
+                new TransferInstruction(1L, 4L, BigDecimal.ONE)), 7L, false);
+
+        assertEquals(List.of(TransferItemStatus.COMPLETED, TransferItemStatus.REJECTED, TransferItemStatus.COMPLETED,
+                TransferItemStatus.REJECTED, TransferItemStatus.REJECTED), results.stream().map(TransferItemResult::status).toList());
+        assertEquals("insufficient_funds", results.get(1).error());
+        assertEquals("access_denied", results.get(3).error());
+        assertEquals("card_not_found", results.get(4).error());
+        verify(cardBalanceBatchRepo).applyDeltas(Map.of(1L, new BigDecimal("-50.00"), 2L, new BigDecimal("50.00")));
+        verify(outboxService).appendAll(eq(OutboxEventType.CARD_BALANCE_CHANGED), argThat(events -> events.size() == 2
+                && ((CardBalanceChanged) events.get(2L)).amount().equals(new BigDecimal("50.00"))));
+        verify(ledgerEntryRepo).insertAll(argThat(entries -> entries.size() == 4));
+        verify(cardRepo, never()).debit(anyLong(), any());
+    }
+
+    @Test
+    void transferBatch_atomicShouldWriteNothingWhenAnItemIsRejected() {
+        when(cardRepo.lockBalances(any()))
+                .thenReturn(List.of(card(1L, 7L, true, "100.00"), card(2L, 7L, false, "0.00"), card(3L, 7L, true, "0.00")));
+
+        List<TransferItemResult> results = transferEngine.transferBatch(List.of(
+                new TransferInstruction(1L, 3L, BigDecimal.TEN),
+                new TransferInstruction(1L, 2L, BigDecimal.TEN)), 7L, true);
+
+        assertEquals(TransferItemStatus.SKIPPED, results.get(0).status());
+        assertEquals("invalid_card_state", results.get(1).error());
+        verifyNoInteractions(cardBalanceBatchRepo, ledgerEntryRepo, outboxService);
+    }
+
+    @Test
+    void transferBatch_shouldRetryWholeBatchOnLockFailure() {
+        when(cardRepo.lockBalances(any()))
+                .thenThrow(new CannotAcquireLockException("deadlock detected"))
+                .thenReturn(List.of(card(1L, 7L, true, "100.00"), card(2L, 7L, true, "0.00")));
+        when(cardBalanceBatchRepo.applyDeltas(any())).thenReturn(List.of());
+
+        List<TransferItemResult> results = transferEngine.transferBatch(
+                List.of(new TransferInstruction(1L, 2L, BigDecimal.ONE)), 7L, true);
+
+        assertEquals(TransferItemStatus.COMPLETED, results.get(0).status());
+        verify(cardRepo, times(2)).lockBalances(any());
+    }
+
+    private CardBalanceView card(Long id, Long ownerId, boolean usable, String balance) {
+        return new CardBalanceView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public Boolean getUsable() {
+                return usable;
+            }
+
+            @Override
+            public BigDecimal getBalance() {
+                return new BigDecimal(balance);
+            }
+        };
+    }
+}
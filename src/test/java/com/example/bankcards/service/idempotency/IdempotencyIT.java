@@ -0,0 +1,131 @@
+package com.example.bankcards.service.idempotency;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.State;
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.exception.idempotency.IdempotencyKeyInProgressException;
+import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.service.card.CardService;
+import com.example.bankcards.service.user.UserCache;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The recorded response commits or rolls back together with the balance change it describes.
+ */
+class IdempotencyIT extends PostgresIntegrationTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private CardRepo cardRepo;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long firstCardId;
+    private Long secondCardId;
+    // completed keys are also cached in process, so every test uses its own
+    private final String key = UUID.randomUUID().toString();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE idempotency_key, ledger_entry, card_block_request, card, my_user_roles, my_user CASCADE");
+        userCache.getCache().invalidateAll();
+        MyUser owner = userRepo.save(new MyUser("owner", List.of("USER"), "pw", true, null));
+        firstCardId = saveCard(owner, 0).getId();
+        secondCardId = saveCard(owner, 1).getId();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("owner", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void transfer_ShouldRecordResponseWithTheBalanceChange() {
+        cardService.addMoney(firstCardId, new BigDecimal("100.00"));
+
+        for (int i = 0; i < 2; i++) {
+            ResponseEntity<String> response = idempotencyService.execute(key, "transfer|1|2|40", () -> {
+                cardService.transferMoney(firstCardId, secondCardId, new BigDecimal("40.00"));
+                return ResponseEntity.ok("Transfer completed successfully");
+            });
+            assertEquals("Transfer completed successfully", response.getBody());
+        }
+
+        assertEquals(0, new BigDecimal("60.00").compareTo(balance(firstCardId)));
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT response_status, expires_at > now() + INTERVAL '23 hours' AS retained FROM idempotency_key");
+        assertEquals(200, row.get("response_status"));
+        assertEquals(true, row.get("retained"));
+    }
+
+    @Test
+    void execute_ShouldRollBackBalanceChangeWhenTheClaimWasTakenOver() {
+        assertThrows(IdempotencyKeyInProgressException.class, () -> idempotencyService.execute(key, "add-money|1|10", () -> {
+            cardService.addMoney(firstCardId, BigDecimal.TEN);
+            // another request took the key over after this one's lease ran out
+            jdbcTemplate.update("UPDATE idempotency_key SET created_at = created_at - INTERVAL '1 second'");
+            return ResponseEntity.ok("Money added successfully");
+        }));
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(balance(firstCardId)));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM ledger_entry", Integer.class));
+    }
+
+    @Test
+    void execute_ShouldRunAgainOnceAnUnfinishedClaimLeaseRanOut() {
+        // left behind by a node that died before its transaction committed
+        jdbcTemplate.update("""
+                INSERT INTO idempotency_key (owner, idempotency_key, request_hash, created_at, expires_at)
+                VALUES ('owner', ?, ?, now() - INTERVAL '5 minutes', now() - INTERVAL '3 minutes')
+                """, key, IdempotencyServiceImpl.hash("add-money|1|10"));
+
+        idempotencyService.execute(key, "add-money|1|10", () -> {
+            cardService.addMoney(firstCardId, BigDecimal.TEN);
+            return ResponseEntity.ok("Money added successfully");
+        });
+
+        assertEquals(0, BigDecimal.TEN.compareTo(balance(firstCardId)));
+    }
+
+    private BigDecimal balance(Long cardId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM card WHERE id = ?", BigDecimal.class, cardId);
+    }
+
+    private Card saveCard(MyUser owner, int index) {
+        Card card = new Card();
+        card.setOwner(owner);
+        card.setEncryptedCardNumber("not-used");
+        card.setCardNumberHash("hash-" + index);
+        card.setCardNumberLast4(String.format("%04d", index));
+        card.setExpirationDate(LocalDate.now().plusYears(3));
+        card.setState(State.ACTIVE);
+        card.setBalance(BigDecimal.ZERO.setScale(2));
+        return cardRepo.save(card);
+    }
+}
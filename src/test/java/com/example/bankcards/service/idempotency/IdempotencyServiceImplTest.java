@@ -0,0 +1,259 @@
+package com.example.bankcards.service.idempotency;
+
+import com.example.bankcards.entity.idempotency.IdempotencyRecord;
+import com.example.bankcards.exception.card.InsufficientFundsException;
+import com.example.bankcards.exception.idempotency.IdempotencyKeyInProgressException;
+import com.example.bankcards.exception.idempotency.IdempotencyKeyReusedException;
+import com.example.bankcards.repository.IdempotencyKeyRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceImplTest {
+
+    @Mock
+    private IdempotencyKeyRepo idempotencyKeyRepo;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyServiceImpl idempotencyService;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyServiceImpl(idempotencyKeyRepo, transactionManager, Duration.ofHours(24),
+                Duration.ofMinutes(2), 3, 100, Duration.ofSeconds(5), 10);
+        lenient().when(idempotencyKeyRepo.complete(any(), any(), any(), anyInt(), any(), any())).thenReturn(true);
+        authenticate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void execute_WithoutKey_ShouldRunActionWithoutStore() {
+        ResponseEntity<String> response = idempotencyService.execute(null, "add-money|1|10", this::action);
+
+        assertEquals("done", response.getBody());
+        assertEquals(1, executions.get());
+        verifyNoInteractions(idempotencyKeyRepo);
+    }
+
+    @Test
+    void execute_ShouldReplayRecordedResponseWithoutRunningActionAgain() {
+        when(idempotencyKeyRepo.claim(eq("user"), eq("key-1"), anyString(), any(), any())).thenReturn(true);
+
+        ResponseEntity<String> first = idempotencyService.execute("key-1", "add-money|1|10", this::action);
+        ResponseEntity<String> second = idempotencyService.execute("key-1", "add-money|1|10", this::action);
+
+        assertEquals(1, executions.get());
+        assertNull(first.getHeaders().getFirst(IdempotencyServiceImpl.REPLAYED_HEADER));
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyServiceImpl.REPLAYED_HEADER));
+        assertEquals("done", second.getBody());
+        verify(idempotencyKeyRepo).complete(eq("user"), eq("key-1"), any(), eq(200), eq("done"), any());
+        verify(idempotencyKeyRepo, times(1)).claim(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void execute_ShouldRejectKeyReusedForDifferentRequest() {
+        when(idempotencyKeyRepo.claim(eq("user"), eq("key-1"), anyString(), any(), any())).thenReturn(true);
+        idempotencyService.execute("key-1", "add-money|1|10", this::action);
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyService.execute("key-1", "add-money|1|20", this::action));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ShouldReplayResponseStoredByAnotherNode() {
+        when(idempotencyKeyRepo.claim(eq("user"), eq("key-1"), anyString(), any(), any())).thenReturn(false);
+        when(idempotencyKeyRepo.find("user", "key-1"))
+                .thenReturn(Optional.of(record(IdempotencyServiceImpl.hash("add-money|1|10"), 200, "stored")));
+
+        ResponseEntity<String> response = idempotencyService.execute("key-1", "add-money|1|10", this::action);
+
+        assertEquals("stored", response.getBody());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void execute_ShouldConflictWhileAnotherNodeRunsTheKey() {
+        when(idempotencyKeyRepo.claim(eq("user"), eq("key-1"), anyString(), any(), any())).thenReturn(false);
+        when(idempotencyKeyRepo.find("user", "key-1"))
+                .thenReturn(Optional.of(record(IdempotencyServiceImpl.hash("add-money|1|10"), null, null)));
+
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> idempotencyService.execute("key-1", "add-money|1|10", this::action));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void execute_ShouldReleaseKeyWhenActionFails() {
+        when(idempotencyKeyRepo.claim(eq("user"), eq("key-1"), anyString(), any(), any())).thenReturn(true);
+
+        assertThrows(InsufficientFundsException.class, () -> idempotencyService.execute("key-1", "withdraw-money|1|10",
+                () -> {
+                    throw new InsufficientFundsException("Insufficient funds");
+                }));
+        ResponseEntity<String> retry = idempotencyService.execute("key-1", "withdraw-money|1|10", this::action);
+
+        verify(idempotencyKeyRepo).release(eq("user"), eq("key-1"), any());
+        verify(transactionManager).rollback(any());
+        assertEquals("done", retry.getBody());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ShouldClaimForTheLeaseAndKeepTheResponseForTheTtl() {
+        when(idempotencyKeyRepo.claim(eq("user"), eq("key-1"), anyString(), any(), any())).thenReturn(true);
+        LocalDateTime before = LocalDateTime.now();
+
+        idempotencyService.execute("key-1", "add-money|1|10", this::action);
+
+        ArgumentCaptor<LocalDateTime> claimedAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> leaseUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> expiresAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(idempotencyKeyRepo).claim(eq("user"), eq("key-1"), anyString(), claimedAt.capture(), leaseUntil.capture());
+        verify(idempotencyKeyRepo).complete(eq("user"), eq("key-1"), eq(claimedAt.getValue()), eq(200), eq("done"),
+                expiresAt.capture());
+        assertTrue(leaseUntil.getValue().isBefore(before.plusMinutes(3)));
+        assertTrue(expiresAt.getValue().isAfter(before.plusHours(23)));
+        // recorded before the transaction of the action commits
+        InOrder inOrder = inOrder(idempotencyKeyRepo, transactionManager);
+        inOrder.verify(idempotencyKeyRepo).complete(any(), any(), any(), anyInt(), any(), any());
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void execute_ShouldRollBackWhenTheClaimWasTakenOver() {
+        when(idempotencyKeyRepo.claim(eq("user"), eq("key-1"), anyString(), any(), any())).thenReturn(true);
+        when(idempotencyKeyRepo.complete(any(), any(), any(), anyInt(), any(), any())).thenReturn(false);
+
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> idempotencyService.execute("key-1", "add-money|1|10", this::action));
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void execute_ShouldRetryTheTransactionOnConcurrencyFailure() {
+        when(idempotencyKeyRepo.claim(eq("user"), eq("key-1"), anyString(), any(), any())).thenReturn(true);
+        AtomicInteger attempts = new AtomicInteger();
+
+        ResponseEntity<String> response = idempotencyService.execute("key-1", "transfer|1|2|10", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new CannotAcquireLockException("deadlock detected");
+            }
+            return action();
+        });
+
+        assertEquals("done", response.getBody());
+        assertEquals(2, attempts.get());
+        verify(idempotencyKeyRepo, times(1)).complete(any(), any(), any(), anyInt(), any(), any());
+        verify(idempotencyKeyRepo, never()).release(any(), any(), any());
+    }
+
+    @Test
+    void execute_ConcurrentDuplicates_ShouldWaitForFirstExecution() throws Exception {
+        when(idempotencyKeyRepo.claim(eq("user"), eq("key-1"), anyString(), any(), any())).thenReturn(true);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<ResponseEntity<String>> first = executor.submit(() -> {
+                authenticate();
+                return idempotencyService.execute("key-1", "transfer|1|2|10", () -> {
+                    started.countDown();
+                    await(release);
+                    return action();
+                });
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            List<Future<ResponseEntity<String>>> duplicates = List.of(
+                    executor.submit(() -> {
+                        authenticate();
+                        return idempotencyService.execute("key-1", "transfer|1|2|10", this::action);
+                    }),
+                    executor.submit(() -> {
+                        authenticate();
+                        return idempotencyService.execute("key-1", "transfer|1|2|10", this::action);
+                    }));
+            release.countDown();
+
+            assertEquals("done", first.get(5, TimeUnit.SECONDS).getBody());
+            for (Future<ResponseEntity<String>> duplicate : duplicates) {
+                ResponseEntity<String> response = duplicate.get(5, TimeUnit.SECONDS);
+                assertEquals("done", response.getBody());
+                assertEquals("true", response.getHeaders().getFirst(IdempotencyServiceImpl.REPLAYED_HEADER));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+        verify(idempotencyKeyRepo, times(1)).claim(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void purgeExpired_ShouldDeleteInBatchesUntilDone() {
+        when(idempotencyKeyRepo.deleteExpired(any(), anyInt())).thenReturn(10, 10, 3);
+
+        idempotencyService.purgeExpired();
+
+        verify(idempotencyKeyRepo, times(3)).deleteExpired(any(), eq(10));
+    }
+
+    private ResponseEntity<String> action() {
+        executions.incrementAndGet();
+        return ResponseEntity.ok("done");
+    }
+
+    private static void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user", null, List.of()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static IdempotencyRecord record(String requestHash, Integer status, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        return new IdempotencyRecord("user", "key-1", requestHash, status, body, now, now.plusHours(1));
+    }
+}
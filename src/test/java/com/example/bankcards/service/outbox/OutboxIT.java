@@ -0,0 +1,175 @@
+package com.example.bankcards.service.outbox;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.State;
+import com.example.bankcards.entity.outbox.OutboxEvent;
+import com.example.bankcards.entity.outbox.OutboxEventType;
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.exception.card.InsufficientFundsException;
+import com.example.bankcards.repository.CardRepo;
+import com.example.bankcards.repository.MyUserRepo;
+import com.example.bankcards.repository.OutboxEventRepo;
+import com.example.bankcards.service.card.CardService;
+import com.example.bankcards.service.user.UserCache;
+import com.example.bankcards.service.user.UserService;
+import com.example.bankcards.support.PostgresIntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxIT extends PostgresIntegrationTest {
+
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private OutboxRelay outboxRelay;
+    @Autowired
+    private InMemoryOutboxPublisher publisher;
+    @Autowired
+    private OutboxEventRepo outboxEventRepo;
+    @Autowired
+    private MyUserRepo userRepo;
+    @Autowired
+    private CardRepo cardRepo;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long firstCardId;
+    private Long secondCardId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE outbox_event, ledger_entry, card_block_request, card, my_user_roles, my_user CASCADE");
+        userCache.getCache().invalidateAll();
+        publisher.clear();
+        MyUser owner = userRepo.save(new MyUser("owner", List.of("USER"), "pw", true, null));
+        firstCardId = saveCard(owner, 0).getId();
+        secondCardId = saveCard(owner, 1).getId();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("owner", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void changes_ShouldWriteEventsInTheSameTransaction() throws Exception {
+        cardService.addMoney(firstCardId, new BigDecimal("100.00"));
+        cardService.transferMoney(firstCardId, secondCardId, new BigDecimal("40.00"));
+        cardService.requestCardBlock(secondCardId, "lost");
+        cardService.toggleCardState(secondCardId);
+        cardService.delCard(secondCardId);
+        assertThrows(InsufficientFundsException.class,
+                () -> cardService.withdrawMoney(firstCardId, new BigDecimal("1000.00")));
+
+        List<String> types = jdbcTemplate.queryForList("SELECT event_type FROM outbox_event ORDER BY id", String.class);
+        assertEquals(List.of("CARD_BALANCE_CHANGED", "CARD_BALANCE_CHANGED", "CARD_BALANCE_CHANGED",
+                "CARD_BLOCK_REQUESTED", "CARD_STATE_CHANGED", "CARD_DELETED"), types);
+
+        List<String> transfer = jdbcTemplate.queryForList(
+                "SELECT payload FROM outbox_event WHERE event_type = 'CARD_BALANCE_CHANGED' ORDER BY id OFFSET 1", String.class);
+        JsonNode debit = objectMapper.readTree(transfer.get(0));
+        JsonNode credit = objectMapper.readTree(transfer.get(1));
+        assertEquals("TRANSFER", debit.get("operation").asText());
+        assertEquals(0, new BigDecimal("-40.00").compareTo(debit.get("amount").decimalValue()));
+        assertEquals(0, new BigDecimal("60.00").compareTo(debit.get("balance").decimalValue()));
+        assertEquals(debit.get("correlationId"), credit.get("correlationId"));
+
+        JsonNode stateChanged = objectMapper.readTree(jdbcTemplate.queryForObject(
+                "SELECT payload FROM outbox_event WHERE event_type = 'CARD_STATE_CHANGED'", String.class));
+        assertEquals("ACTIVE", stateChanged.get("oldState").asText());
+        assertEquals("BLOCKED", stateChanged.get("newState").asText());
+    }
+
+    @Test
+    void deletingUser_ShouldRecordDeletionOfTheirCards() {
+        userService.delUser("owner");
+
+        assertEquals(List.of(firstCardId, secondCardId), jdbcTemplate.queryForList(
+                "SELECT aggregate_id FROM outbox_event WHERE event_type = 'CARD_DELETED' ORDER BY id", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM card", Integer.class));
+    }
+
+    @Test
+    void append_ShouldRequireACallerTransaction() {
+        assertThrows(IllegalTransactionStateException.class,
+                () -> outboxService.append(OutboxEventType.CARD_DELETED, firstCardId, Map.of()));
+    }
+
+    @Test
+    void relay_ShouldPublishInOrderAndDeletePublishedEvents() {
+        for (int i = 1; i <= 5; i++) {
+            cardService.addMoney(firstCardId, BigDecimal.valueOf(i));
+        }
+
+        assertEquals(5, outboxRelay.relayBatch());
+        assertEquals(0, outboxRelay.relayBatch());
+
+        List<OutboxEvent> published = publisher.events();
+        assertEquals(5, published.size());
+        assertTrue(published.stream().allMatch(event -> event.aggregateId().equals(firstCardId)
+                && event.eventType() == OutboxEventType.CARD_BALANCE_CHANGED));
+        assertEquals(published.stream().map(OutboxEvent::id).sorted().toList(),
+                published.stream().map(OutboxEvent::id).toList());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_event", Integer.class));
+    }
+
+    @Test
+    void relay_ShouldSkipEventsLockedByAnotherRelay() throws Exception {
+        cardService.addMoney(firstCardId, BigDecimal.ONE);
+        cardService.addMoney(secondCardId, BigDecimal.ONE);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<OutboxEvent> locked = outboxEventRepo.lockBatch(1);
+            assertEquals(1, locked.size());
+            // a second node relays the remaining event without waiting for the first one
+            int relayed = CompletableFuture.supplyAsync(outboxRelay::relayBatch).orTimeout(10, TimeUnit.SECONDS).join();
+            assertEquals(1, relayed);
+            assertNotEquals(locked.get(0).id(), publisher.events().get(0).id());
+        });
+
+        assertEquals(1, outboxRelay.relayBatch());
+        assertEquals(2, publisher.events().size());
+    }
+
+    private Card saveCard(MyUser owner, int index) {
+        Card card = new Card();
+        card.setOwner(owner);
+        card.setEncryptedCardNumber("not-used");
+        card.setCardNumberHash("hash-" + index);
+        card.setCardNumberLast4(String.format("%04d", index));
+        card.setExpirationDate(LocalDate.now().plusYears(3));
+        card.setState(State.ACTIVE);
+        card.setBalance(BigDecimal.ZERO.setScale(2));
+        return cardRepo.save(card);
+    }
+}
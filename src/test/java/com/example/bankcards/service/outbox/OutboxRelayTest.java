@@ -0,0 +1,93 @@
+package com.example.bankcards.service.outbox;
+
+import com.example.bankcards.entity.outbox.OutboxEvent;
+import com.example.bankcards.entity.outbox.OutboxEventType;
+import com.example.bankcards.repository.OutboxEventRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepo outboxEventRepo;
+    @Mock
+    private OutboxPublisher publisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxEventRepo, Optional.of(publisher), new TransactionTemplate(transactionManager), meterRegistry,
+                true, 2, 10);
+    }
+
+    @Test
+    void run_shouldPublishAndDeleteBatchesUntilDrained() {
+        when(outboxEventRepo.lockBatch(2)).thenReturn(events(1, 2), events(3));
+
+        relay.run();
+
+        verify(publisher).publish(events(1, 2));
+        verify(outboxEventRepo).deleteAll(List.of(1L, 2L));
+        verify(publisher).publish(events(3));
+        verify(outboxEventRepo).deleteAll(List.of(3L));
+        verify(outboxEventRepo, times(2)).lockBatch(2);
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(3, meterRegistry.counter("bank.outbox.published").count());
+    }
+
+    @Test
+    void run_shouldKeepEventsWhenPublishFails() {
+        when(outboxEventRepo.lockBatch(2)).thenReturn(events(1, 2));
+        doThrow(new IllegalStateException("broker unavailable")).when(publisher).publish(any());
+
+        relay.run();
+
+        verify(outboxEventRepo, never()).deleteAll(any());
+        verify(transactionManager).rollback(any());
+        verify(outboxEventRepo, times(1)).lockBatch(2);
+        assertEquals(1, meterRegistry.counter("bank.outbox.publish.failures").count());
+        assertEquals(0, meterRegistry.counter("bank.outbox.published").count());
+    }
+
+    @Test
+    void run_shouldDoNothingWhenDisabled() {
+        new OutboxRelay(outboxEventRepo, Optional.of(publisher), new TransactionTemplate(transactionManager), meterRegistry,
+                false, 2, 10).run();
+
+        verifyNoInteractions(outboxEventRepo, publisher, transactionManager);
+    }
+
+    @Test
+    void constructor_shouldRefuseToRelayWithoutPublisher() {
+        assertThrows(IllegalStateException.class, () -> new OutboxRelay(outboxEventRepo, Optional.empty(),
+                new TransactionTemplate(transactionManager), meterRegistry, true, 2, 10));
+    }
+
+    private static List<OutboxEvent> events(long... ids) {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        return LongStream.of(ids)
+                .mapToObj(id -> new OutboxEvent(id, OutboxEvent.CARD, id, OutboxEventType.CARD_DELETED, "{}", createdAt))
+                .toList();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.bankcards.service.user;
+
+import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.MyUserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    @Mock
+    private MyUserRepo userRepo;
+
+    private UserCache userCache;
+    private MyUser user;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache(userRepo, 100, Duration.ofMinutes(1));
+        user = new MyUser();
+        user.setId(1L);
+        user.setName("ivan");
+    }
+
+    @Test
+    void findByName_ShouldLoadUserOnce() {
+        when(userRepo.findByName("ivan")).thenReturn(Optional.of(user));
+
+        assertSame(user, userCache.findByName("ivan").orElseThrow());
+        assertSame(user, userCache.findByName("ivan").orElseThrow());
+
+        verify(userRepo, times(1)).findByName("ivan");
+        assertEquals(1, userCache.stats().hitCount());
+        assertEquals(1, userCache.stats().missCount());
+    }
+
+    @Test
+    void findByName_ShouldNotCacheMissingUser() {
+        when(userRepo.findByName("ghost")).thenReturn(Optional.empty());
+
+        assertTrue(userCache.findByName("ghost").isEmpty());
+        assertTrue(userCache.findByName("ghost").isEmpty());
+
+        verify(userRepo, times(2)).findByName("ghost");
+    }
+
+    @Test
+    void invalidate_ShouldForceReload() {
+        when(userRepo.findByName("ivan")).thenReturn(Optional.of(user));
+
+        userCache.findByName("ivan");
+        userCache.invalidate("ivan");
+        userCache.findByName("ivan");
+
+        verify(userRepo, times(2)).findByName("ivan");
+    }
+
+    @Test
+    void findByName_ShouldShareLoadInFlight() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        when(userRepo.findByName("ivan")).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await(5, TimeUnit.SECONDS);
+            return Optional.of(user);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Optional<MyUser>> first = executor.submit(() -> userCache.findByName("ivan"));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+            Future<Optional<MyUser>> second = executor.submit(() -> userCache.findByName("ivan"));
+            releaseLoad.countDown();
+
+            assertSame(user, first.get(5, TimeUnit.SECONDS).orElseThrow());
+            assertSame(user, second.get(5, TimeUnit.SECONDS).orElseThrow());
+            verify(userRepo, times(1)).findByName("ivan");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void findByName_ShouldNotCacheFailedLoad() {
+        when(userRepo.findByName("ivan"))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(Optional.of(user));
+
+        assertThrows(IllegalStateException.class, () -> userCache.findByName("ivan"));
+        assertSame(user, userCache.findByName("ivan").orElseThrow());
+    }
+
+    @Test
+    void findByName_ShouldNotCacheLoadFailedWithError() {
+        when(userRepo.findByName("ivan"))
+                .thenThrow(new OutOfMemoryError("Java heap space"))
+                .thenReturn(Optional.of(user));
+
+        assertThrows(OutOfMemoryError.class, () -> userCache.findByName("ivan"));
+        assertSame(user, assertTimeoutPreemptively(Duration.ofSeconds(5), () -> userCache.findByName("ivan")).orElseThrow());
+    }
+}
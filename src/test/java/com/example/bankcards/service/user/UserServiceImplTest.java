@@ -1,12 +1,18 @@
 package com.example.bankcards.service.user;
 
+import com.example.bankcards.dto.event.CardDeleted;
 import com.example.bankcards.dto.request.AuthRequest;
 import com.example.bankcards.dto.request.UserDtoRequest;
 import com.example.bankcards.dto.request.UserPatchRequest;
 import com.example.bankcards.dto.response.auth.AuthResponse;
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.outbox.OutboxEventType;
 import com.example.bankcards.entity.user.MyUser;
+import com.example.bankcards.repository.CardBlockRequestRepo;
 import com.example.bankcards.repository.MyUserRepo;
 import com.example.bankcards.security.service.jwt.JwtService;
+import com.example.bankcards.security.service.jwt.UserVersionDenylist;
+import com.example.bankcards.service.outbox.OutboxService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,6 +30,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -48,9 +55,21 @@ class UserServiceImplTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private UserVersionDenylist userVersionDenylist;
+
+    @Mock
+    private UserCache userCache;
+
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private CardBlockRequestRepo cardBlockRequestRepo;
+
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -104,6 +123,25 @@ class UserServiceImplTest {
         assertEquals("refreshToken", result.refreshToken());
     }
 
+    @Test
+    void delUser_ShouldRecordDeletionOfEveryCard() {
+        for (long id : new long[]{12L, 11L}) {
+            Card card = new Card();
+            card.setId(id);
+            card.setOwner(testUser);
+            testUser.getCards().add(card);
+        }
+        when(userRepo.findByName("testUser")).thenReturn(Optional.of(testUser));
+
+        userService.delUser("testUser");
+
+        verify(outboxService).appendAll(OutboxEventType.CARD_DELETED,
+                Map.of(11L, new CardDeleted(11L, 1L), 12L, new CardDeleted(12L, 1L)));
+        verify(userRepo).delete(testUser);
+        verify(userVersionDenylist).revokeDeletedUser(1L);
+        verify(userCache).invalidate("testUser");
+    }
+
     @Test
     void updateUser_Success() {
         UserPatchRequest patchRequest = new UserPatchRequest(Optional.of("newName"));
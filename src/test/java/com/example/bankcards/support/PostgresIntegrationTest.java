@@ -0,0 +1,62 @@
+package com.example.bankcards.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Base class of the {@code *IT} tests, run with {@code mvn -Pit verify}.
+ * <p>
+ * The application runs against an embedded PostgreSQL started once per JVM and migrated by Liquibase.
+ * Set {@code it.datasource.url} (plus {@code it.datasource.username} / {@code it.datasource.password})
+ * to use an existing empty database instead, e.g. where the embedded server cannot be started.
+ */
+@SpringBootTest
+@ActiveProfiles("it")
+public abstract class PostgresIntegrationTest {
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        String url = System.getProperty("it.datasource.url");
+        if (url != null) {
+            registry.add("spring.datasource.url", () -> url);
+            registry.add("spring.datasource.username", () -> System.getProperty("it.datasource.username", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getProperty("it.datasource.password", ""));
+            registry.add("r2dbc.url", () -> url.replaceFirst("^jdbc:", "r2dbc:"));
+            registry.add("r2dbc.username", () -> System.getProperty("it.datasource.username", "postgres"));
+            registry.add("r2dbc.password", () -> System.getProperty("it.datasource.password", ""));
+            return;
+        }
+        EmbeddedPostgres postgres = EmbeddedPostgresHolder.INSTANCE;
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("r2dbc.url", () -> "r2dbc:postgresql://localhost:" + postgres.getPort() + "/postgres");
+        registry.add("r2dbc.username", () -> "postgres");
+        registry.add("r2dbc.password", () -> "");
+    }
+
+    private static final class EmbeddedPostgresHolder {
+        private static final EmbeddedPostgres INSTANCE = start();
+
+        private static EmbeddedPostgres start() {
+            try {
+                EmbeddedPostgres postgres = EmbeddedPostgres.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        postgres.close();
+                    } catch (IOException ignored) {
+                    }
+                }));
+                return postgres;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bankcards.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate sends to the database, so tests can inspect the statements a repository method produced.
+ * Register it with {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (STATEMENTS) {
+            STATEMENTS.add(sql);
+        }
+        return sql;
+    }
+
+    public static void clear() {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+        }
+    }
+
+    public static List<String> statements() {
+        synchronized (STATEMENTS) {
+            return List.copyOf(STATEMENTS);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.util.encrypt.AESUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardUtilTest {
+
+    @Mock
+    private AESUtil aesUtil;
+
+    @InjectMocks
+    private CardUtil cardUtil;
+
+    @Test
+    void populateMaskedCardNumber_ShouldUseLast4WithoutDecryption() {
+        Card card = new Card();
+        card.setEncryptedCardNumber("encrypted");
+        card.setCardNumberLast4("1234");
+
+        cardUtil.populateMaskedCardNumber(card);
+
+        assertEquals("**** **** **** 1234", card.getMaskedCardNumber());
+        verifyNoInteractions(aesUtil);
+    }
+
+    @Test
+    void populateMaskedCardNumbers_ShouldDecryptOnlyCardsWithoutLast4() {
+        Card backfilled = new Card();
+        backfilled.setEncryptedCardNumber("encrypted-1");
+        backfilled.setCardNumberLast4("1111");
+        Card legacy = new Card();
+        legacy.setEncryptedCardNumber("encrypted-2");
+        when(aesUtil.decryptAll(List.of("encrypted-2"))).thenReturn(List.of("4000001234562222"));
+
+        cardUtil.populateMaskedCardNumbers(List.of(backfilled, legacy));
+
+        assertEquals("**** **** **** 1111", backfilled.getMaskedCardNumber());
+        assertEquals("**** **** **** 2222", legacy.getMaskedCardNumber());
+        verify(aesUtil, times(1)).decryptAll(anyList());
+    }
+}
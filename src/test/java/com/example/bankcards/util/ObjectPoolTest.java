@@ -0,0 +1,45 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectPoolTest {
+
+    @Test
+    void acquire_ShouldReuseInstancesReleasedByOtherThreads() throws InterruptedException {
+        AtomicInteger created = new AtomicInteger();
+        ObjectPool<Integer> pool = new ObjectPool<>(2, created::incrementAndGet);
+
+        Integer first = pool.acquire();
+        pool.release(first);
+        // every request on its own short-lived thread, as with virtual threads
+        for (int i = 0; i < 10; i++) {
+            Thread request = new Thread(() -> pool.release(pool.acquire()));
+            request.start();
+            request.join();
+        }
+
+        assertSame(first, pool.acquire());
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void release_ShouldKeepAtMostCapacityIdleInstances() {
+        AtomicInteger created = new AtomicInteger();
+        ObjectPool<Integer> pool = new ObjectPool<>(2, created::incrementAndGet);
+
+        Integer first = pool.acquire();
+        Integer second = pool.acquire();
+        Integer third = pool.acquire();
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+
+        assertEquals(first, pool.acquire());
+        assertEquals(second, pool.acquire());
+        assertEquals(4, pool.acquire());
+    }
+}
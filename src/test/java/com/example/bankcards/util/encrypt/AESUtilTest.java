@@ -0,0 +1,62 @@
+package com.example.bankcards.util.encrypt;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AESUtilTest {
+    private static final String KEY = "N123221593dd45lKg_28Dh";
+
+    private AESUtil aesUtil;
+
+    @BeforeEach
+    void setUp() {
+        aesUtil = new AESUtil();
+        ReflectionTestUtils.setField(aesUtil, "key", KEY);
+        aesUtil.init();
+    }
+
+    @Test
+    void encryptThenDecrypt_ShouldReturnOriginalValue() throws Exception {
+        String encrypted = aesUtil.encrypt("4000001234567899");
+
+        assertNotEquals(encrypted, aesUtil.encrypt("4000001234567899"));
+        assertEquals("4000001234567899", aesUtil.decrypt(encrypted));
+    }
+
+    @Test
+    void decrypt_ShouldReadValuesWrittenByPreviousFormat() throws Exception {
+        byte[] iv = new byte[12];
+        Arrays.fill(iv, (byte) 7);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE,
+                new SecretKeySpec(KEY.substring(0, 16).getBytes(StandardCharsets.UTF_8), "AES"),
+                new GCMParameterSpec(128, iv));
+        byte[] encrypted = cipher.doFinal("4000009876543210".getBytes(StandardCharsets.UTF_8));
+        byte[] stored = new byte[iv.length + encrypted.length];
+        System.arraycopy(iv, 0, stored, 0, iv.length);
+        System.arraycopy(encrypted, 0, stored, iv.length, encrypted.length);
+
+        assertEquals("4000009876543210", aesUtil.decrypt(Base64.getEncoder().encodeToString(stored)));
+    }
+
+    @Test
+    void decryptAll_ShouldKeepOrderAndReturnNullForBrokenValues() throws Exception {
+        String first = aesUtil.encrypt("4000000000000001");
+        String second = aesUtil.encrypt("4000000000000002");
+
+        List<String> result = aesUtil.decryptAll(Arrays.asList(first, null, "bm90LWVuY3J5cHRlZA==", second));
+
+        assertEquals(Arrays.asList("4000000000000001", null, null, "4000000000000002"), result);
+    }
+}
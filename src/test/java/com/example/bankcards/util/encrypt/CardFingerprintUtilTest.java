@@ -0,0 +1,68 @@
+package com.example.bankcards.util.encrypt;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardFingerprintUtilTest {
+    private static final String KEY = "fingerprint-key-for-unit-tests-0123";
+
+    private CardFingerprintUtil fingerprintUtil;
+
+    @BeforeEach
+    void setUp() {
+        fingerprintUtil = fingerprintUtil(KEY);
+    }
+
+    @Test
+    void fingerprint_ShouldBeHmacSha256OfDigits() throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] expected = mac.doFinal("4000001234567899".getBytes(StandardCharsets.US_ASCII));
+
+        assertArrayEquals(expected, fingerprintUtil.fingerprint("4000001234567899"));
+        assertArrayEquals(expected, fingerprintUtil.fingerprint("4000001234567899".toCharArray()));
+        assertEquals(CardFingerprintUtil.FINGERPRINT_LENGTH, expected.length);
+    }
+
+    @Test
+    void fingerprint_ShouldNotLeakStateBetweenCalls() {
+        byte[] first = fingerprintUtil.fingerprint("4000001234567899");
+        fingerprintUtil.fingerprint("5500000000000004000");
+
+        assertArrayEquals(first, fingerprintUtil.fingerprint("4000001234567899"));
+    }
+
+    @Test
+    void fingerprint_ShouldDependOnKey() {
+        CardFingerprintUtil other = fingerprintUtil("another-fingerprint-key-for-tests-0123");
+
+        assertFalse(Arrays.equals(fingerprintUtil.fingerprint("4000001234567899"), other.fingerprint("4000001234567899")));
+    }
+
+    @Test
+    void fingerprint_ShouldRejectNonDigitsAndOverlongInput() {
+        assertThrows(IllegalArgumentException.class, () -> fingerprintUtil.fingerprint("4000-0012"));
+        assertThrows(IllegalArgumentException.class, () -> fingerprintUtil.fingerprint("40000012345678990000"));
+        assertThrows(IllegalArgumentException.class, () -> fingerprintUtil.fingerprint(""));
+    }
+
+    @Test
+    void init_ShouldRejectShortKey() {
+        assertThrows(IllegalStateException.class, () -> fingerprintUtil("short"));
+    }
+
+    private static CardFingerprintUtil fingerprintUtil(String key) {
+        CardFingerprintUtil util = new CardFingerprintUtil();
+        ReflectionTestUtils.setField(util, "key", key);
+        util.init();
+        return util;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bankcards.util.encrypt;
+
+import com.example.bankcards.util.encrypt.CardNumberGenerator.BinRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardNumberGeneratorTest {
+
+    @Test
+    void checkDigit_ShouldMatchLuhnReference() {
+        assertEquals(3, CardNumberGenerator.checkDigit("7992739871".toCharArray(), 10));
+        assertTrue(CardNumberGenerator.isValid("4111111111111111"));
+        assertFalse(CardNumberGenerator.isValid("4111111111111112"));
+        assertFalse(CardNumberGenerator.isValid("41111111111111a1"));
+    }
+
+    @Test
+    void generateCardNumber_ShouldStayInsideRangeAndPassLuhn() {
+        List<BinRange> ranges = List.of(BinRange.parse("400000-400099"), BinRange.parse("55555:19"));
+
+        for (int i = 0; i < 10_000; i++) {
+            String number = CardNumberGenerator.generateCardNumber(ranges);
+
+            assertTrue(CardNumberGenerator.isValid(number), number);
+            if (number.length() == 16) {
+                long bin = Long.parseLong(number.substring(0, 6));
+                assertTrue(bin >= 400000 && bin <= 400099, number);
+            } else {
+                assertEquals(19, number.length());
+                assertTrue(number.startsWith("55555"), number);
+            }
+        }
+    }
+
+    @Test
+    void generateCardNumber_ShouldKeepLeadingZerosOfBinAndAccount() {
+        String number = CardNumberGenerator.generateCardNumber(BinRange.parse("000001-000001:12"));
+
+        assertEquals(12, number.length());
+        assertTrue(number.startsWith("000001"));
+        assertTrue(CardNumberGenerator.isValid(number));
+    }
+
+    @Test
+    void binRange_ShouldRejectInvalidDefinitions() {
+        assertThrows(IllegalArgumentException.class, () -> BinRange.parse("400099-400000"));
+        assertThrows(IllegalArgumentException.class, () -> BinRange.parse("4000-400000"));
+        assertThrows(IllegalArgumentException.class, () -> BinRange.parse("400000:7"));
+        assertThrows(IllegalArgumentException.class, () -> BinRange.parse("400000:20"));
+    }
+}